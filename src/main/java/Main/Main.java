@@ -3,13 +3,20 @@
  Загружает данные из файла и запускает командный интерфейс пользователя. */
 package Main;
 
+import managers.CommandServer;
+import managers.HttpApi;
 import managers.MusicBandManager;
+import managers.ReplicationFollower;
+import managers.ReplicationLeader;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
 
 import static managers.InputManager.startCommandLoop;
 
@@ -24,7 +31,14 @@ public class Main {
     /**
      * Точка входа в программу.
      *
-     * @param args аргументы командной строки, где первый аргумент - путь к файлу с данными.
+     * @param args аргументы командной строки, где первый аргумент - путь к файлу с данными,
+     *             а далее могут идти {@code --store heap|offheap|sharded} - тип хранилища коллекции
+     *             и {@code --server <порт>} - принимать команды по TCP вместо консоли,
+     *             {@code --bind <адрес>} - адрес, на котором открываются порты сервера команд, HTTP API и репликации
+     *             (по умолчанию локальный),
+     *             {@code --http <порт>} - дополнительно открыть HTTP API (см. {@link HttpApi}),
+     *             {@code --replicate <порт>} - передавать изменения ведомым (см. {@link ReplicationLeader}),
+     *             {@code --follow <хост:порт>} - работать ведомым только для чтения (см. {@link ReplicationFollower}).
      */
     public static void main(String[] args) {
         if (args.length < 1) {
@@ -32,6 +46,55 @@ public class Main {
             return;
         }
         String filePath = args[0];
+        int port = -1;
+        int httpPort = -1;
+        int replicationPort = -1;
+        InetSocketAddress leader = null;
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--store") && i + 1 < args.length) {
+                System.setProperty(MusicBandManager.STORE_PROPERTY, args[++i]);
+            } else if ((args[i].equals("--server") || args[i].equals("--http") || args[i].equals("--replicate"))
+                    && i + 1 < args.length) {
+                String option = args[i];
+                try {
+                    int value = Integer.parseInt(args[++i]);
+                    if (option.equals("--http")) {
+                        httpPort = value;
+                    } else if (option.equals("--replicate")) {
+                        replicationPort = value;
+                    } else {
+                        port = value;
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Некорректный порт: " + args[i]);
+                    return;
+                }
+            } else if (args[i].equals("--bind") && i + 1 < args.length) {
+                try {
+                    bindAddress = InetAddress.getByName(args[++i]);
+                } catch (UnknownHostException e) {
+                    System.out.println("Некорректный адрес: " + args[i]);
+                    return;
+                }
+            } else if (args[i].equals("--follow") && i + 1 < args.length) {
+                String address = args[++i];
+                int colon = address.lastIndexOf(':');
+                try {
+                    leader = new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+                } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                    System.out.println("Некорректный адрес ведущего: " + address);
+                    return;
+                }
+            } else {
+                System.out.println("Неизвестный аргумент: " + args[i]);
+                return;
+            }
+        }
+        if (replicationPort >= 0 && leader != null) {
+            System.out.println("Процесс не может быть одновременно ведущим и ведомым.");
+            return;
+        }
         File file = new File(filePath);
 
         if (!file.exists()) {
@@ -47,6 +110,37 @@ public class Main {
         }
         MusicBandManager.initializeManager(filePath);
 
+        if (replicationPort >= 0) {
+            try {
+                System.out.println("Ведомые подключаются к порту " + ReplicationLeader.start(bindAddress, replicationPort) + ".");
+            } catch (IOException e) {
+                System.out.println("Не удалось запустить репликацию: " + e.getMessage());
+                return;
+            }
+        } else if (leader != null) {
+            ReplicationFollower.start(leader);
+            System.out.println("Ведомый узел: изменения принимаются от " + leader.getHostString() + ":" + leader.getPort()
+                    + ", коллекция доступна только для чтения.");
+        }
+
+        if (httpPort >= 0) {
+            try {
+                HttpApi api = new HttpApi(bindAddress, httpPort);
+                System.out.println("HTTP API принимает запросы на порту " + api.getPort()
+                        + (api.usesVirtualThreads() ? " (виртуальные потоки)." : " (пул потоков)."));
+            } catch (IOException e) {
+                System.out.println("Не удалось запустить HTTP API: " + e.getMessage());
+                return;
+            }
+        }
+        if (port >= 0) {
+            try {
+                new CommandServer(bindAddress, port).run();
+            } catch (IOException e) {
+                System.out.println("Ошибка сервера: " + e.getMessage());
+            }
+            return;
+        }
         startCommandLoop();
     }
 
@@ -0,0 +1,188 @@
+package bench;
+
+import indexes.AlbumsCountIndex;
+import indexes.BandIndex;
+import indexes.BestAlbumIndex;
+import indexes.ColumnStore;
+import indexes.ParticipantsHistogram;
+import models.Album;
+import models.Coordinates;
+import models.MusicBand;
+import models.MusicBandHeap;
+import models.MusicGenre;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Замер агрегатов коллекции тремя способами: просмотром объектов групп, просмотром колонок
+ * {@link ColumnStore} и запросом к индексам ({@link BestAlbumIndex}, {@link AlbumsCountIndex},
+ * {@link ParticipantsHistogram}).
+ * <p>
+ * Запуск: {@code java -Xmx4g bench.AggregateBenchmark [размер,...]}, по умолчанию 1 000 000 и 10 000 000 групп.
+ * Для 10 млн групп нужно около 2 ГБ кучи.
+ */
+public class AggregateBenchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 7;
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+    private static final String[] NAMES = {"Radiohead", "Pink Floyd", "Kino", "Queen", "Muse"};
+    private static final String[] DESCRIPTIONS = {"описание", "rock band", "legend"};
+
+    /** Результаты замеров складываются сюда, чтобы JIT не выбросил вычисления. */
+    private static volatile long sink;
+
+    /**
+     * Точка входа.
+     * @param args список размеров коллекции через запятую.
+     */
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "1000000,10000000";
+        for (String size : sizes.split(",")) {
+            try {
+                run(Integer.parseInt(size.trim()));
+            } catch (OutOfMemoryError e) {
+                System.out.println("Недостаточно памяти для " + size.trim() + " групп, увеличьте -Xmx.");
+            }
+        }
+    }
+
+    private static void run(int count) {
+        System.out.printf("%n=== %,d групп ===%n", count);
+        Random random = new Random(42);
+        ZonedDateTime now = ZonedDateTime.now();
+        List<MusicBand> generated = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            generated.add(new MusicBand(i, NAMES[random.nextInt(NAMES.length)],
+                    new Coordinates(random.nextFloat() * 800 - 400, random.nextFloat() * 1000), now,
+                    random.nextInt(10) == 0 ? null : 1 + random.nextInt(20),
+                    random.nextInt(10) == 0 ? null : 1 + random.nextInt(1000),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], GENRES[random.nextInt(GENRES.length)],
+                    new Album("album", 1 + random.nextFloat() * 100_000, 1 + random.nextInt(30))));
+        }
+        MusicBandHeap bands = new MusicBandHeap(generated);
+        generated = null;
+
+        ColumnStore columns = new ColumnStore();
+        BestAlbumIndex bestAlbum = new BestAlbumIndex();
+        AlbumsCountIndex albums = new AlbumsCountIndex();
+        ParticipantsHistogram participants = new ParticipantsHistogram();
+        for (BandIndex index : List.of(columns, bestAlbum, albums, participants)) {
+            for (MusicBand band : bands) {
+                index.add(band);
+            }
+        }
+
+        System.out.printf("%-36s %12s %12s %12s%n", "агрегат", "объекты, мс", "колонки, мс", "индекс, мс");
+
+        compare("count_less_than_best_album (tracks)",
+                () -> {
+                    long result = 0;
+                    for (MusicBand band : bands) {
+                        if (band.hasBestAlbum() && band.getBestAlbumTracks() < 15) result++;
+                    }
+                    return result;
+                },
+                () -> columns.countLess(ColumnStore.Column.BEST_ALBUM_TRACKS, 15),
+                () -> bestAlbum.countLess(BestAlbumIndex.Field.TRACKS, 15));
+
+        compare("count_between (sales)",
+                () -> {
+                    long result = 0;
+                    for (MusicBand band : bands) {
+                        float sales = band.getBestAlbumSales();
+                        if (band.hasBestAlbum() && sales >= 10_000 && sales <= 50_000) result++;
+                    }
+                    return result;
+                },
+                () -> columns.countBetween(ColumnStore.Column.BEST_ALBUM_SALES, 10_000, 50_000),
+                () -> bestAlbum.countBetween(BestAlbumIndex.Field.SALES, 10_000, 50_000));
+
+        compare("add_if_min (min albumsCount)",
+                () -> {
+                    long min = Long.MAX_VALUE;
+                    for (MusicBand band : bands) {
+                        Integer value = band.getAlbumsCount();
+                        if (value != null && value < min) min = value;
+                    }
+                    return min;
+                },
+                () -> columns.getMinAlbumsCount(),
+                () -> albums.getMin());
+
+        compare("max_by_albums_count",
+                () -> {
+                    MusicBand best = null;
+                    for (MusicBand band : bands) {
+                        Integer value = band.getAlbumsCount();
+                        if (value == null) continue;
+                        if (best == null || value > best.getAlbumsCount()
+                                || (value.equals(best.getAlbumsCount()) && band.getId() < best.getId())) {
+                            best = band;
+                        }
+                    }
+                    return best == null ? 0 : best.getId();
+                },
+                () -> columns.getMaxAlbumsCountId(),
+                () -> albums.getMaxId());
+
+        compare("print_field_ascending (participants)",
+                () -> {
+                    int[] values = new int[bands.size()];
+                    int size = 0;
+                    for (MusicBand band : bands) {
+                        Integer value = band.getNumberOfParticipants();
+                        if (value != null) values[size++] = value;
+                    }
+                    Arrays.sort(values, 0, size);
+                    return size == 0 ? 0 : values[size - 1];
+                },
+                () -> {
+                    int[] values = columns.sortedValues(ColumnStore.Column.NUMBER_OF_PARTICIPANTS);
+                    return values.length == 0 ? 0 : values[values.length - 1];
+                },
+                () -> {
+                    long[] last = new long[1];
+                    participants.forEach(0, Long.MAX_VALUE, false, new ParticipantsHistogram.Visitor() {
+                        @Override
+                        public void visit(int value, int repeat, int count) {
+                            last[0] = value;
+                        }
+
+                        @Override
+                        public void visitNull(int repeat, int count) {
+                        }
+                    });
+                    return last[0];
+                });
+    }
+
+    private static void compare(String name, LongSupplier objects, LongSupplier columns, LongSupplier index) {
+        long expected = objects.getAsLong();
+        if (columns.getAsLong() != expected || index.getAsLong() != expected) {
+            System.out.println(name + ": результаты способов не совпадают!");
+        }
+        System.out.printf("%-36s %12.3f %12.3f %12.3f%n", name, measure(objects), measure(columns), measure(index));
+    }
+
+    /**
+     * @return медиана времени выполнения в миллисекундах после прогрева.
+     */
+    private static double measure(LongSupplier task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            sink += task.getAsLong();
+        }
+        double[] times = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            sink += task.getAsLong();
+            times[i] = (System.nanoTime() - started) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_RUNS / 2];
+    }
+}
@@ -0,0 +1,170 @@
+package bench;
+
+import commands.Command;
+import commands.GenreFilter;
+import indexes.BestAlbumIndex;
+import managers.BinaryManager;
+import managers.CommandExecutor;
+import managers.InputManager;
+import managers.MusicBandManager;
+import models.Album;
+import models.Coordinates;
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный замер параллельного выполнения команд через {@link CommandExecutor}.
+ * <p>
+ * Несколько потоков выполняют смесь читающих команд (max_by_albums_count, count_less_than_best_album,
+ * info, top, nearest, stats_by_genre) с выводом в пустой поток; для каждого числа потоков выводится
+ * пропускная способность и ускорение относительно одного потока. Второй проход повторяет замер
+ * с потоком-писателем, который непрерывно добавляет и удаляет группы.
+ * <p>
+ * Запуск: {@code java bench.ConcurrencyBenchmark [размер] [секунд на замер] [потоки,...]},
+ * по умолчанию 200 000 групп, 3 секунды и степени двойки до числа процессоров.
+ * Для сравнения с одной общей блокировкой чтения-записи: {@code -Dmusicbands.lock.stripes=1}.
+ */
+public class ConcurrencyBenchmark {
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+    private static final String[] NAMES = {"Radiohead", "Pink Floyd", "Kino", "Queen", "Muse"};
+    private static final String[][] READS = {
+            {"max_by_albums_count", null},
+            // в консоли команда запрашивает параметры, поэтому её агрегат вызывается напрямую (см. run)
+            {"count_less_than_best_album", null},
+            {"info", null},
+            {"top", "albums 10"},
+            {"nearest", "0 0 5"},
+            {"stats_by_genre", null}
+    };
+
+    /**
+     * Точка входа.
+     * @param args размер коллекции, длительность замера в секундах и список чисел потоков через запятую.
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        List<Integer> threadCounts = new ArrayList<>();
+        if (args.length > 2) {
+            for (String value : args[2].split(",")) threadCounts.add(Integer.parseInt(value.trim()));
+        } else {
+            int processors = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads < processors; threads *= 2) threadCounts.add(threads);
+            threadCounts.add(processors);
+        }
+
+        load(count);
+        System.out.printf("%n%,d групп, процессоров: %d, полос блокировки: %d%n", count,
+                Runtime.getRuntime().availableProcessors(), CommandExecutor.getLock().getStripes());
+        for (boolean withWriter : new boolean[]{false, true}) {
+            System.out.println(withWriter ? "\nЧтение при непрерывной записи:" : "\nТолько чтение:");
+            System.out.printf("%8s %16s %10s %16s%n", "потоков", "команд чтения/с", "ускорение", "команд записи/с");
+            run(threadCounts.get(threadCounts.size() - 1), Math.max(seconds, 5), withWriter); // прогрев JIT
+            double base = 0;
+            for (int threads : threadCounts) {
+                double[] result = run(threads, seconds, withWriter);
+                if (base == 0) base = result[0];
+                System.out.printf("%8d %16.0f %10.2f %16s%n", threads, result[0], result[0] / base,
+                        withWriter ? String.format("%.0f", result[1]) : "-");
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Загружает сгенерированную коллекцию через временный двоичный файл, как при обычном запуске.
+     */
+    private static void load(int count) throws IOException {
+        Random random = new Random(42);
+        ZonedDateTime now = ZonedDateTime.now();
+        List<MusicBand> generated = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            generated.add(new MusicBand(i, NAMES[random.nextInt(NAMES.length)],
+                    new Coordinates(random.nextFloat() * 800 - 400, random.nextFloat() * 1000), now.minusSeconds(count - i),
+                    random.nextInt(10) == 0 ? null : 1 + random.nextInt(20),
+                    random.nextInt(10) == 0 ? null : 1 + random.nextInt(1000),
+                    "описание", GENRES[random.nextInt(GENRES.length)],
+                    new Album("album", 1 + random.nextFloat() * 100_000, 1 + random.nextInt(30))));
+        }
+        File file = File.createTempFile("musicbands-bench", BinaryManager.BINARY_SUFFIX);
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+        BinaryManager.saveToFile(file, generated);
+        MusicBandManager.initializeManager(file.getPath());
+    }
+
+    /**
+     * @return команд чтения в секунду и команд записи в секунду.
+     */
+    private static double[] run(int threads, int seconds, boolean withWriter) throws InterruptedException {
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers.add(new Thread(() -> {
+                PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+                int next = seed;
+                long done = 0;
+                await(start);
+                while (!stop.get()) {
+                    String[] read = READS[next++ % READS.length];
+                    if (read[0].equals("count_less_than_best_album")) {
+                        CommandExecutor.read(() -> GenreFilter.countLess(null, BestAlbumIndex.Field.TRACKS, 10));
+                    } else {
+                        CommandExecutor.execute(InputManager.commands.get(read[0]), read[1], out);
+                    }
+                    done++;
+                }
+                reads.add(done);
+            }, "reader-" + t));
+        }
+        if (withWriter) {
+            workers.add(new Thread(() -> {
+                Random random = new Random();
+                Command write = args -> {
+                    MusicBand band = new MusicBand("writer", new Coordinates(random.nextInt(400), random.nextInt(400)),
+                            1 + random.nextInt(10), 1 + random.nextInt(100), "описание",
+                            GENRES[random.nextInt(GENRES.length)], new Album("album", 1 + random.nextInt(1000), 10));
+                    MusicBandManager.addBand(band);
+                    MusicBandManager.removeBandById(band.getId());
+                };
+                await(start);
+                while (!stop.get()) {
+                    CommandExecutor.execute(write, null);
+                    writes.increment();
+                }
+            }, "writer"));
+        }
+        for (Thread worker : workers) worker.start();
+        long started = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        return new double[]{reads.sum() / elapsed, writes.sum() / elapsed};
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
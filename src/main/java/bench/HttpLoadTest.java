@@ -0,0 +1,153 @@
+package bench;
+
+import managers.HttpApi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Нагрузочный клиент для HTTP API ({@link HttpApi}).
+ * <p>
+ * Каждый клиент держит одно соединение HTTP/1.1 с keep-alive и по кругу отправляет GET-запросы
+ * из заданного списка, дожидаясь ответа. Выводятся запросы в секунду, перцентили задержки и число
+ * ответов с кодом, отличным от 200.
+ * <p>
+ * Запуск: {@code java bench.HttpLoadTest <хост> <порт> [соединений] [секунд] [путь,...]},
+ * по умолчанию 64 соединения, 10 секунд и смесь /info, /bands/1, /bands?limit=10,
+ * /aggregates/max-by-albums-count и /aggregates/count-less-than-best-album?field=tracks&amp;value=10.
+ */
+public class HttpLoadTest {
+    private static final String DEFAULT_PATHS = "/info,/bands/1,/bands?limit=10,/aggregates/max-by-albums-count,"
+            + "/aggregates/count-less-than-best-album?field=tracks&value=10";
+
+    /**
+     * Точка входа.
+     * @param args хост, порт, число соединений, длительность и пути через запятую.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Использование: HttpLoadTest <хост> <порт> [соединений] [секунд] [путь,...]");
+            return;
+        }
+        InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        String[] paths = (args.length > 4 ? args[4] : DEFAULT_PATHS).split(",");
+        byte[][] requests = new byte[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            requests[i] = ("GET " + paths[i] + " HTTP/1.1\r\nHost: " + args[0] + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        long[][] latencies = new long[connections][];
+        int[] failures = new int[connections];
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            int client = c;
+            clients.add(new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                try (Socket socket = new Socket()) {
+                    socket.setTcpNoDelay(true);
+                    socket.connect(address);
+                    OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    int next = client;
+                    while (!stop.get()) {
+                        long sent = System.nanoTime();
+                        out.write(requests[next++ % requests.length]);
+                        out.flush();
+                        if (readResponse(in) != 200) failures[client]++;
+                        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+                        samples[count++] = System.nanoTime() - sent;
+                    }
+                } catch (IOException e) {
+                    System.out.println("Клиент " + client + ": " + e.getMessage());
+                }
+                latencies[client] = Arrays.copyOf(samples, count);
+            }, "http-client-" + c));
+        }
+        long started = System.nanoTime();
+        for (Thread client : clients) client.start();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread client : clients) client.join();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("Соединений: %d, запросов: %,d, %.0f запросов/с, ответов не 200: %d%n",
+                connections, all.length, all.length / elapsed, Arrays.stream(failures).sum());
+        if (all.length > 0) {
+            System.out.printf("Задержка, мкс: p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, макс %.0f%n",
+                    percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99), percentile(all, 0.999),
+                    all[all.length - 1] / 1e3);
+        }
+    }
+
+    /**
+     * Читает ответ: строку состояния, заголовки и тело длиной Content-Length.
+     * @return код состояния.
+     */
+    private static int readResponse(InputStream in) throws IOException {
+        String status = readLine(in);
+        int code = Integer.parseInt(status.split(" ")[1]);
+        long length = 0;
+        boolean chunked = false;
+        String header;
+        while (!(header = readLine(in)).isEmpty()) {
+            int colon = header.indexOf(':');
+            if (colon < 0) continue;
+            String name = header.substring(0, colon).trim();
+            String value = header.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) length = Long.parseLong(value);
+            if (name.equalsIgnoreCase("Transfer-Encoding") && value.equalsIgnoreCase("chunked")) chunked = true;
+        }
+        if (chunked) {
+            long chunk;
+            while ((chunk = Long.parseLong(readLine(in).trim(), 16)) > 0) {
+                skip(in, chunk);
+                readLine(in);
+            }
+            readLine(in);
+        } else {
+            skip(in, length);
+        }
+        return code;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) throw new EOFException("сервер закрыл соединение");
+            if (b != '\r') line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException("сервер закрыл соединение");
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+    }
+}
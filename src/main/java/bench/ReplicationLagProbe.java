@@ -0,0 +1,163 @@
+package bench;
+
+import managers.CommandServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Замер отставания ведомых узлов репликации.
+ * <p>
+ * Ведущий и ведомые запускаются отдельными процессами с сервером команд, например:
+ * <pre>
+ * java Main.Main leader.bin --replicate 7100 --server 7000
+ * java Main.Main follower1.bin --follow localhost:7100 --server 7001
+ * java Main.Main follower2.bin --follow localhost:7100 --server 7002
+ * java bench.ReplicationLagProbe localhost 7000 7001 7002
+ * </pre>
+ * Пишущий клиент добавляет группы на ведущем, пока каждые 50 мс опрашивается {@code replication_status}
+ * всех узлов; выводятся скорость записи, среднее и максимальное отставание ведомых в записях
+ * и время, за которое они догоняют ведущего после остановки записи.
+ * Запуск: {@code java bench.ReplicationLagProbe <хост> <порт ведущего> <порт ведомого>... [-s секунд]}.
+ */
+public class ReplicationLagProbe {
+    private static final Pattern LEADER_SEQUENCE = Pattern.compile("Последняя запись: (\\d+)");
+    private static final Pattern FOLLOWER_APPLIED = Pattern.compile("Применена запись (\\d+)");
+    private static final int SAMPLE_MILLIS = 50;
+
+    /**
+     * Точка входа.
+     * @param args хост, порт сервера команд ведущего, порты ведомых и длительность записи.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Использование: ReplicationLagProbe <хост> <порт ведущего> <порт ведомого>... [-s секунд]");
+            return;
+        }
+        String host = args[0];
+        int seconds = 10;
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-s") && i + 1 < args.length) {
+                seconds = Integer.parseInt(args[++i]);
+            } else {
+                ports.add(Integer.parseInt(args[i]));
+            }
+        }
+        Client leader = new Client(host, ports.get(0));
+        List<Client> followers = new ArrayList<>();
+        for (int port : ports.subList(1, ports.size())) followers.add(new Client(host, port));
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong written = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            try (Client client = new Client(host, ports.get(0))) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    // чередуем добавления с удалениями первой группы, чтобы размер коллекции не рос
+                    if (written.get() % 4 == 3) {
+                        client.command("remove_first");
+                    } else {
+                        client.command("add probe " + random.nextInt(400) + " " + random.nextInt(1000) + " "
+                                + (1 + random.nextInt(10)) + " " + (1 + random.nextInt(20)) + " lag BLUES album "
+                                + (1 + random.nextInt(100000)) + " " + (1 + random.nextInt(20)));
+                    }
+                    written.incrementAndGet();
+                }
+            } catch (IOException e) {
+                System.out.println("Ошибка записи на ведущем: " + e.getMessage());
+            }
+        }, "writer");
+
+        long[] maxLag = new long[followers.size()];
+        long[] totalLag = new long[followers.size()];
+        int samples = 0;
+        long started = System.nanoTime();
+        writer.start();
+        while (System.nanoTime() - started < seconds * 1_000_000_000L) {
+            Thread.sleep(SAMPLE_MILLIS);
+            long last = leader.sequence(LEADER_SEQUENCE);
+            for (int f = 0; f < followers.size(); f++) {
+                long lag = Math.max(0, last - followers.get(f).sequence(FOLLOWER_APPLIED));
+                maxLag[f] = Math.max(maxLag[f], lag);
+                totalLag[f] += lag;
+            }
+            samples++;
+        }
+        stop.set(true);
+        writer.join();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        long last = leader.sequence(LEADER_SEQUENCE);
+        long stopped = System.nanoTime();
+        System.out.printf("Записано изменений: %,d (%.0f в секунду), последняя запись ведущего %d%n",
+                written.get(), written.get() / elapsed, last);
+        for (int f = 0; f < followers.size(); f++) {
+            Client follower = followers.get(f);
+            while (follower.sequence(FOLLOWER_APPLIED) < last) {
+                Thread.sleep(1);
+            }
+            System.out.printf("Ведомый %d: отставание в среднем %.1f, максимум %d записей, догнал за %d мс после остановки%n",
+                    f + 1, (double) totalLag[f] / Math.max(1, samples), maxLag[f], (System.nanoTime() - stopped) / 1_000_000);
+        }
+        leader.close();
+        for (Client follower : followers) follower.close();
+    }
+
+    /** Соединение с сервером команд. */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final PrintWriter out;
+        private final BufferedReader in;
+
+        Client(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            OutputStream stream = socket.getOutputStream();
+            out = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Выполняет команду и возвращает её вывод без завершающей строки.
+         */
+        String command(String line) throws IOException {
+            out.print(line + "\n");
+            out.flush();
+            StringBuilder response = new StringBuilder();
+            String received;
+            while ((received = in.readLine()) != null && !received.equals(CommandServer.END_OF_RESPONSE)) {
+                response.append(received.startsWith("..") ? received.substring(1) : received).append('\n');
+            }
+            if (received == null) throw new IOException("сервер закрыл соединение");
+            return response.toString();
+        }
+
+        /**
+         * Возвращает номер записи из вывода {@code replication_status}.
+         */
+        long sequence(Pattern pattern) throws IOException {
+            String status = command("replication_status");
+            Matcher matcher = pattern.matcher(status);
+            if (!matcher.find()) throw new IOException("неожиданный ответ replication_status: " + status);
+            return Long.parseLong(matcher.group(1));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
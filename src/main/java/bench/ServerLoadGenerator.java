@@ -0,0 +1,152 @@
+package bench;
+
+import managers.CommandServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Нагрузочный клиент для сервера команд ({@link CommandServer}).
+ * <p>
+ * Открывает заданное число простаивающих соединений, затем несколько активных клиентов
+ * отправляют команду и ждут ответ в цикле; выводятся пропускная способность и перцентили
+ * задержки одной команды. В конце проверяется, что простаивающее соединение по-прежнему обслуживается.
+ * <p>
+ * Запуск: {@code java bench.ServerLoadGenerator <хост> <порт> [простаивающих] [активных] [секунд] [команда]},
+ * по умолчанию 1000 простаивающих соединений, 8 активных клиентов, 10 секунд, команда max_by_albums_count.
+ * Для тысяч соединений может понадобиться увеличить лимит открытых файлов ({@code ulimit -n}).
+ */
+public class ServerLoadGenerator {
+
+    /**
+     * Точка входа.
+     * @param args хост, порт, число простаивающих и активных соединений, длительность и команда.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Использование: ServerLoadGenerator <хост> <порт> [простаивающих] [активных] [секунд] [команда]");
+            return;
+        }
+        InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        int idleCount = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int activeCount = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        String command = args.length > 5 ? String.join(" ", Arrays.copyOfRange(args, 5, args.length)) : "max_by_albums_count";
+
+        List<SocketChannel> idle = new ArrayList<>(idleCount);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < idleCount; i++) {
+                idle.add(SocketChannel.open(address));
+            }
+        } catch (IOException e) {
+            System.out.println("Открыто только " + idle.size() + " простаивающих соединений: " + e.getMessage());
+        }
+        System.out.printf("Простаивающих соединений: %d (открыты за %d мс)%n", idle.size(),
+                (System.nanoTime() - started) / 1_000_000);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        long[][] latencies = new long[activeCount][];
+        int[] counts = new int[activeCount];
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < activeCount; c++) {
+            int client = c;
+            clients.add(new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                try (Socket socket = new Socket()) {
+                    socket.setTcpNoDelay(true);
+                    socket.connect(address);
+                    OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    byte[] request = (command + "\n").getBytes(StandardCharsets.UTF_8);
+                    while (!stop.get()) {
+                        long sent = System.nanoTime();
+                        out.write(request);
+                        out.flush();
+                        readResponse(in);
+                        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+                        samples[count++] = System.nanoTime() - sent;
+                    }
+                } catch (IOException e) {
+                    System.out.println("Клиент " + client + ": " + e.getMessage());
+                }
+                latencies[client] = Arrays.copyOf(samples, count);
+                counts[client] = count;
+            }, "client-" + c));
+        }
+        started = System.nanoTime();
+        for (Thread client : clients) client.start();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread client : clients) client.join();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int position = 0;
+        for (long[] samples : latencies) {
+            System.arraycopy(samples, 0, all, position, samples.length);
+            position += samples.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("Команда: %s, активных клиентов: %d%n", command, activeCount);
+        System.out.printf("Выполнено команд: %,d, %.0f команд/с%n", total, total / elapsed);
+        if (total > 0) {
+            System.out.printf("Задержка, мкс: p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, макс %.0f%n",
+                    percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99), percentile(all, 0.999),
+                    all[all.length - 1] / 1e3);
+        }
+
+        if (!idle.isEmpty()) {
+            try (Socket socket = idle.get(idle.size() - 1).socket()) {
+                OutputStream out = socket.getOutputStream();
+                long sent = System.nanoTime();
+                out.write("info\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                readResponse(new BufferedInputStream(socket.getInputStream()));
+                System.out.printf("Простаивавшее соединение ответило за %d мкс%n", (System.nanoTime() - sent) / 1000);
+            }
+        }
+        for (SocketChannel channel : idle) channel.close();
+    }
+
+    /**
+     * Читает ответ до завершающей строки {@value CommandServer#END_OF_RESPONSE}.
+     * @return количество прочитанных байт.
+     */
+    private static int readResponse(InputStream in) throws IOException {
+        int bytes = 0;
+        int lineLength = 0;
+        boolean dot = false;
+        while (true) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("сервер закрыл соединение");
+            bytes++;
+            if (b == '\n') {
+                if (dot && lineLength == 1) return bytes;
+                lineLength = 0;
+                dot = false;
+            } else {
+                if (lineLength == 0) dot = b == '.';
+                lineLength++;
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+    }
+}
@@ -0,0 +1,180 @@
+package bench;
+
+import commands.GenreFilter;
+import indexes.BestAlbumIndex;
+import indexes.ParticipantsHistogram;
+import indexes.ShardIndex;
+import managers.BinaryManager;
+import managers.MusicBandManager;
+import models.Album;
+import models.Coordinates;
+import models.MusicBand;
+import models.MusicGenre;
+import models.ShardedBandStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static managers.MusicBandManager.albumsCountIndex;
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.bestAlbumIndex;
+import static managers.MusicBandManager.participantsHistogram;
+import static managers.MusicBandManager.shardIndex;
+
+/**
+ * Проверка хранилища с шардами ({@link ShardedBandStore}) и агрегатов, собираемых с шардов ({@link ShardIndex}).
+ * <p>
+ * Коллекция загружается в хранилище {@code sharded}, затем выполняются случайные добавления, удаления по ID,
+ * удаления головы очереди и перебалансировки на 1-8 шардов. Время от времени агрегаты, собранные с шардов
+ * (count_less_than_best_album, max_by_albums_count, гистограмма участников), сравниваются с индексами
+ * всей коллекции, а размеры шардов - с распределением групп по {@link ShardedBandStore#shardOf(int, int)}.
+ * После каждой перебалансировки проверяется, что перенесены ровно группы, сменившие шард.
+ * <p>
+ * Запуск: {@code java bench.ShardCheck [размер] [операций] [seed]}, по умолчанию 20 000 групп и 3 000 операций.
+ * При расхождении выводится его описание и процесс завершается с кодом 1.
+ */
+public class ShardCheck {
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    /**
+     * Точка входа.
+     * @param args размер коллекции, число операций и начальное значение генератора.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 3_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        Random random = new Random(seed);
+        System.setProperty(MusicBandManager.STORE_PROPERTY, "sharded");
+        System.setProperty(MusicBandManager.SHARDS_PROPERTY, "4");
+        load(count, random);
+        ShardedBandStore store = (ShardedBandStore) bands;
+
+        long started = System.nanoTime();
+        int checks = 0;
+        int rebalances = 0;
+        for (int op = 1; op <= operations; op++) {
+            int action = random.nextInt(100);
+            if (action < 50) {
+                MusicBandManager.addBand(band(random));
+            } else if (action < 75) {
+                MusicBandManager.removeBandById(1 + random.nextInt(count + operations));
+            } else if (action < 90) {
+                MusicBand head = null;
+                for (MusicBand band : bands) {
+                    if (head == null || band.getId() < head.getId()) head = band;
+                }
+                if (MusicBandManager.pollBand() != head) fail(op, "remove_head вернул не группу с минимальным ID");
+            } else if (action < 93) {
+                rebalance(store, 1 + random.nextInt(8), op);
+                rebalances++;
+            } else {
+                check(store, random, op);
+                checks++;
+            }
+        }
+        check(store, random, operations);
+        System.out.printf("%,d операций, %d перебалансировок, %d проверок совпали, итог: %,d групп в %d шардах, %d мс%n",
+                operations, rebalances, checks + 1, bands.size(), store.getShardCount(),
+                (System.nanoTime() - started) / 1_000_000);
+        System.exit(0);
+    }
+
+    /**
+     * Загружает сгенерированную коллекцию через временный двоичный файл, как при обычном запуске.
+     */
+    private static void load(int count, Random random) throws IOException {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<MusicBand> generated = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            generated.add(new MusicBand(i, "check", new Coordinates(random.nextInt(400), random.nextInt(400)),
+                    now.minusSeconds(count - i), random.nextInt(5) == 0 ? null : 1 + random.nextInt(30),
+                    random.nextInt(5) == 0 ? null : 1 + random.nextInt(50), "описание",
+                    GENRES[random.nextInt(GENRES.length)], new Album("album", 1 + random.nextInt(1000), 1 + random.nextInt(30))));
+        }
+        File file = File.createTempFile("musicbands-shards", BinaryManager.BINARY_SUFFIX);
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+        BinaryManager.saveToFile(file, generated);
+        MusicBandManager.initializeManager(file.getPath());
+    }
+
+    private static MusicBand band(Random random) {
+        return new MusicBand("check", new Coordinates(random.nextInt(400), random.nextInt(400)),
+                random.nextInt(5) == 0 ? null : 1 + random.nextInt(30),
+                random.nextInt(5) == 0 ? null : 1 + random.nextInt(50), "описание",
+                GENRES[random.nextInt(GENRES.length)], new Album("album", 1 + random.nextInt(1000), 1 + random.nextInt(30)));
+    }
+
+    private static void rebalance(ShardedBandStore store, int shardCount, int op) {
+        int before = store.getShardCount();
+        int expected = 0;
+        for (MusicBand band : bands) {
+            if (ShardedBandStore.shardOf(band.getId(), before) != ShardedBandStore.shardOf(band.getId(), shardCount)) expected++;
+        }
+        int size = bands.size();
+        int moved = MusicBandManager.rebalanceShards(shardCount);
+        if (moved != expected) fail(op, before + " -> " + shardCount + " шардов: перенесено " + moved + ", ожидалось " + expected);
+        if (bands.size() != size) fail(op, "размер изменился при перебалансировке");
+    }
+
+    private static void check(ShardedBandStore store, Random random, int op) {
+        for (BestAlbumIndex.Field field : BestAlbumIndex.Field.values()) {
+            double value = random.nextInt(1000);
+            int gathered = GenreFilter.countLess(null, field, value);
+            int expected = bestAlbumIndex.countLess(field, value);
+            if (gathered != expected) fail(op, "countLess(" + field + ", " + value + ") = " + gathered + ", ожидалось " + expected);
+        }
+        Integer maxId = GenreFilter.maxAlbumsCountId(null);
+        if (!Objects.equals(maxId, albumsCountIndex.getMaxId())) {
+            fail(op, "max_by_albums_count: ID " + maxId + ", ожидался " + albumsCountIndex.getMaxId());
+        }
+        if (!histogram(GenreFilter.participants(null)).equals(histogram(participantsHistogram))) {
+            fail(op, "слитая гистограмма участников расходится с гистограммой коллекции");
+        }
+
+        int shards = store.getShardCount();
+        if (shardIndex.getShardCount() != shards) fail(op, "частей индекса " + shardIndex.getShardCount() + ", шардов " + shards);
+        int[] expectedSizes = new int[shards];
+        for (MusicBand band : bands.snapshot()) {
+            expectedSizes[ShardedBandStore.shardOf(band.getId(), shards)]++;
+            if (bands.get(band.getId()) != band) fail(op, "get(" + band.getId() + ") не находит группу в её шарде");
+        }
+        List<Integer> partitionSizes = shardIndex.gather(ShardIndex.Partition::size);
+        for (int i = 0; i < shards; i++) {
+            if (store.getShardSize(i) != expectedSizes[i] || partitionSizes.get(i) != expectedSizes[i]) {
+                fail(op, "шард " + i + ": в хранилище " + store.getShardSize(i) + ", в индексе " + partitionSizes.get(i)
+                        + ", ожидалось " + expectedSizes[i]);
+            }
+        }
+    }
+
+    /**
+     * @return содержимое гистограммы строкой "значение:количество,...".
+     */
+    private static String histogram(ParticipantsHistogram histogram) {
+        StringBuilder out = new StringBuilder();
+        histogram.forEach(0, Long.MAX_VALUE, true, new ParticipantsHistogram.Visitor() {
+            @Override
+            public void visit(int value, int repeat, int count) {
+                out.append(value).append(':').append(count).append(',');
+            }
+
+            @Override
+            public void visitNull(int repeat, int count) {
+                out.append("null:").append(count);
+            }
+        });
+        return out.toString();
+    }
+
+    private static void fail(int op, String message) {
+        System.out.println("Расхождение (операция " + op + "): " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,117 @@
+package bench;
+
+import models.BandSnapshot;
+import models.MusicBand;
+import models.MusicGenre;
+import models.VersionedBandMap;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Проверка снимков {@link VersionedBandMap} на случайных изменениях.
+ * <p>
+ * Изменения (добавление, замена, удаление существующих и отсутствующих ID, редкая очистка) применяются
+ * к отображению и к {@link TreeMap}; время от времени берётся снимок вместе с копией эталона.
+ * В конце каждый снимок, пережив все последующие изменения, сравнивается со своей копией:
+ * размер, обход, {@code peek}, {@code get} и {@code iteratorAfter}. ID берутся и из плотного
+ * диапазона, и из всего диапазона int, чтобы дерево меняло высоту.
+ * <p>
+ * Запуск: {@code java bench.SnapshotCheck [операций] [seed]}, по умолчанию 300 000 операций.
+ * При расхождении выводится его описание и процесс завершается с кодом 1.
+ */
+public class SnapshotCheck {
+
+    /**
+     * Точка входа.
+     * @param args число операций и начальное значение генератора.
+     */
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Random random = new Random(seed);
+        long started = System.nanoTime();
+
+        VersionedBandMap map = new VersionedBandMap();
+        TreeMap<Integer, MusicBand> expected = new TreeMap<>();
+        List<BandSnapshot> snapshots = new ArrayList<>();
+        List<TreeMap<Integer, MusicBand>> copies = new ArrayList<>();
+        for (int op = 1; op <= operations; op++) {
+            int id = 1 + (random.nextInt(4) == 0 ? random.nextInt(Integer.MAX_VALUE - 1) : random.nextInt(5000));
+            int action = random.nextInt(10);
+            if (action < 5) {
+                // существующий ID заменяется новой группой
+                MusicBand band = band(id, op);
+                map.put(band);
+                expected.put(id, band);
+            } else if (action < 8) {
+                Integer existing = expected.ceilingKey(id);
+                int removed = existing != null && random.nextBoolean() ? existing : id;
+                if (map.remove(removed) != (expected.remove(removed) != null)) {
+                    fail(op, "remove(" + removed + ") вернул неверный результат");
+                }
+            } else if (random.nextInt(20) == 0) {
+                snapshots.add(map.snapshot());
+                copies.add(new TreeMap<>(expected));
+            }
+            if (random.nextInt(50_000) == 0) {
+                map.clear();
+                expected.clear();
+            }
+            if (map.size() != expected.size()) fail(op, "size " + map.size() + ", ожидалось " + expected.size());
+        }
+        snapshots.add(map.snapshot());
+        copies.add(expected);
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            check(i, snapshots.get(i), copies.get(i), random);
+        }
+        System.out.printf("%,d операций, %,d снимков совпали с эталоном, %d мс%n", operations, snapshots.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static MusicBand band(int id, int version) {
+        return new MusicBand(id, "check", 1, 1, version, ZoneOffset.UTC, MusicBand.NULL_INT, MusicBand.NULL_INT,
+                "описание", MusicGenre.BLUES, "album", 1f, 1);
+    }
+
+    private static void check(int index, BandSnapshot snapshot, TreeMap<Integer, MusicBand> expected, Random random) {
+        String name = "снимок " + index;
+        if (snapshot.size() != expected.size()) fail(name, "size " + snapshot.size() + ", ожидалось " + expected.size());
+        Iterator<MusicBand> iterator = snapshot.iterator();
+        for (MusicBand band : expected.values()) {
+            if (!iterator.hasNext() || iterator.next() != band) fail(name, "обход расходится на ID " + band.getId());
+        }
+        if (iterator.hasNext()) fail(name, "лишняя группа при обходе");
+        MusicBand head = expected.isEmpty() ? null : expected.firstEntry().getValue();
+        if (snapshot.peek() != head) fail(name, "peek");
+        for (Map.Entry<Integer, MusicBand> entry : expected.entrySet()) {
+            if (snapshot.get(entry.getKey()) != entry.getValue()) fail(name, "get(" + entry.getKey() + ")");
+        }
+        for (int i = 0; i < 100; i++) {
+            int id = random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(5000);
+            if (snapshot.get(id) != expected.get(id)) fail(name, "get(" + id + ") для отсутствующего ID");
+            Iterator<MusicBand> after = snapshot.iteratorAfter(id);
+            Map.Entry<Integer, MusicBand> next = expected.higherEntry(id);
+            for (int step = 0; step < 3 && next != null; step++) {
+                if (!after.hasNext() || after.next() != next.getValue()) fail(name, "iteratorAfter(" + id + ")");
+                next = expected.higherEntry(next.getKey());
+            }
+            if (next == null && after.hasNext()) fail(name, "iteratorAfter(" + id + ") не закончился");
+        }
+    }
+
+    private static void fail(int op, String message) {
+        fail("операция " + op, message);
+    }
+
+    private static void fail(String where, String message) {
+        System.out.println("Расхождение (" + where + "): " + message);
+        System.exit(1);
+    }
+}
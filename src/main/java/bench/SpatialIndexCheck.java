@@ -0,0 +1,120 @@
+package bench;
+
+import indexes.SpatialIndex;
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Проверка {@link SpatialIndex} на случайных добавлениях и удалениях: после каждой серии изменений
+ * ответы {@code nearest} и {@code within} сравниваются с полным перебором групп.
+ * <p>
+ * Точки берутся трёх видов: равномерно по допустимой области, на одной прямой в порядке добавления
+ * (худший случай для дерева без перестроений) и на маленькой решётке, где у многих групп совпадают координаты.
+ * <p>
+ * Запуск: {@code java bench.SpatialIndexCheck [операций] [seed]}, по умолчанию 200 000 операций на вид точек.
+ * При расхождении выводится его описание и процесс завершается с кодом 1.
+ */
+public class SpatialIndexCheck {
+    private static final String[] LAYOUTS = {"равномерно", "на прямой", "на решётке"};
+    private static final int CHECK_EVERY = 2000;
+
+    /**
+     * Точка входа.
+     * @param args число операций на вид точек и начальное значение генератора.
+     */
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        for (int layout = 0; layout < LAYOUTS.length; layout++) {
+            long started = System.nanoTime();
+            int checks = run(layout, operations, new Random(seed + layout));
+            System.out.printf("Точки %s: %,d операций, %,d проверок совпали, %d мс%n", LAYOUTS[layout], operations,
+                    checks, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private static int run(int layout, int operations, Random random) {
+        SpatialIndex index = new SpatialIndex();
+        List<MusicBand> live = new ArrayList<>();
+        int nextId = 1;
+        int checks = 0;
+        for (int op = 1; op <= operations; op++) {
+            if (live.isEmpty() || random.nextInt(10) < 6) {
+                float x;
+                float y;
+                if (layout == 0) {
+                    x = random.nextFloat() * 800 - 400;
+                    y = random.nextFloat() * 1000;
+                } else if (layout == 1) {
+                    x = nextId * 0.001f;
+                    y = nextId * 0.002f;
+                } else {
+                    x = random.nextInt(4);
+                    y = random.nextInt(3);
+                }
+                MusicBand band = new MusicBand(nextId++, "check", x, y, 0L, ZoneOffset.UTC, MusicBand.NULL_INT,
+                        MusicBand.NULL_INT, "описание", MusicGenre.BLUES, "album", 1f, 1);
+                live.add(band);
+                index.add(band);
+            } else {
+                // удаляем чаще самые старые группы, чтобы дерево проходило и через массовые удаления
+                int position = random.nextInt(3) == 0 ? random.nextInt(live.size()) : 0;
+                MusicBand band = live.get(position);
+                live.set(position, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                index.remove(band);
+            }
+            if (op % CHECK_EVERY == 0) {
+                check(layout, index, live, random, op);
+                checks++;
+            }
+        }
+        return checks;
+    }
+
+    private static void check(int layout, SpatialIndex index, List<MusicBand> live, Random random, int op) {
+        if (index.size() != live.size()) fail(layout, op, "size " + index.size() + ", ожидалось " + live.size());
+        double x = layout == 0 ? random.nextFloat() * 800 - 400 : random.nextInt(5);
+        double y = layout == 0 ? random.nextFloat() * 1000 : random.nextInt(5);
+        int k = 1 + random.nextInt(20);
+
+        List<MusicBand> sorted = new ArrayList<>(live);
+        sorted.sort(Comparator.<MusicBand>comparingDouble(band -> {
+            double dx = band.getX() - x;
+            double dy = band.getY() - y;
+            return dx * dx + dy * dy;
+        }).thenComparingInt(MusicBand::getId));
+        int[] expectedNearest = sorted.stream().limit(k).mapToInt(MusicBand::getId).toArray();
+        int[] nearest = index.nearest(x, y, k);
+        if (!Arrays.equals(nearest, expectedNearest)) {
+            fail(layout, op, "nearest(" + x + ", " + y + ", " + k + ") = " + Arrays.toString(nearest)
+                    + ", ожидалось " + Arrays.toString(expectedNearest));
+        }
+
+        double x1 = layout == 2 ? 1 : x - 50;
+        double x2 = layout == 2 ? 2 : x + 100;
+        double y1 = layout == 2 ? 0 : y - 80;
+        double y2 = layout == 2 ? 1 : y + 30;
+        int[] expectedWithin = live.stream()
+                .filter(band -> band.getX() >= x1 && band.getX() <= x2 && band.getY() >= y1 && band.getY() <= y2)
+                .mapToInt(MusicBand::getId).sorted().toArray();
+        // углы передаются в произвольном порядке
+        int[] within = index.within(x2, y1, x1, y2);
+        if (!Arrays.equals(within, expectedWithin)) {
+            fail(layout, op, "within(" + x1 + ", " + y1 + ", " + x2 + ", " + y2 + "): " + within.length
+                    + " групп, ожидалось " + expectedWithin.length);
+        }
+    }
+
+    private static void fail(int layout, int op, String message) {
+        System.out.println("Расхождение (точки " + LAYOUTS[layout] + ", операция " + op + "): " + message);
+        System.exit(1);
+    }
+}
@@ -1,5 +1,7 @@
 package commands;
 
+import managers.CommandExecutor;
+import managers.ScriptInputManager;
 import models.Album;
 import models.Coordinates;
 import models.MusicBand;
@@ -10,13 +12,27 @@ import models.MusicGenre;
 import static managers.MusicBandManager.*;
 
 public class Add implements Command{
+    /** Подсказка к формату группы одной строкой. */
+    static final String INLINE_FORMAT = "Формат: {name} {x} {y} {participants} {albums} {description} {genre} {album} {sales} {tracks}";
+
     /**
      * Добавляет новую музыкальную группу в коллекцию.
+     * Поля группы запрашиваются у пользователя или передаются одной строкой, как в скриптах.
+     * Ввод читается до блокировки коллекции, под блокировкой записи выполняется только добавление.
      *
-     * @return
+     * @param args пусто или "name x y participants albums description genre album sales tracks".
      */
     @Override
     public void execute(String args) {
+        if (args != null && !args.isBlank()) {
+            MusicBand band = ScriptInputManager.parseMusicBand(args.trim());
+            if (band == null) {
+                System.out.println("Ошибка: неверные данные группы. " + INLINE_FORMAT);
+                return;
+            }
+            add(band);
+            return;
+        }
         System.out.println("\n=== Добавление новой музыкальной группы ===");
         String name = getInputString("Введите название группы: ", ERROR_EMPTY_NAME);
         Coordinates coordinates = getCoordinates();
@@ -26,12 +42,35 @@ public class Add implements Command{
         MusicGenre genre = getMusicGenre();
         Album bestAlbum = getAlbumDetails();
         MusicBand band = new MusicBand(name, coordinates, numberOfParticipants, albumsCount, description, genre, bestAlbum);
-        bands.add(band);
-        bandsById.put(band.getId(), band);
+        add(band);
+    }
 
-            System.out.println(SUCCESS_BAND_ADDED);
+    private static void add(MusicBand band) {
+        CommandExecutor.write(() -> {
+            addBand(band);
+            return null;
+        });
+        System.out.println(SUCCESS_BAND_ADDED);
+    }
 
+    /**
+     * Без аргументов поля группы запрашиваются с консоли.
+     */
+    @Override
+    public boolean promptsForInput(String args) {
+        return args == null || args.isBlank();
     }
 
+    /**
+     * Блокировку записи команда берёт сама, только на время добавления.
+     */
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
 
+    @Override
+    public boolean modifiesCollection() {
+        return true;
+    }
 }
@@ -1,5 +1,7 @@
 package commands;
 
+import managers.CommandExecutor;
+import managers.ScriptInputManager;
 import models.Album;
 import models.Coordinates;
 import models.MusicBand;
@@ -10,20 +12,24 @@ public class AddIfMin implements Command {
 
     /**
      * Добавляет группу, если она имеет минимальное количество альбомов.
-     * @return
+     * Поля группы запрашиваются у пользователя или передаются одной строкой, как в скриптах.
+     * Ввод читается до блокировки коллекции; проверка минимума и добавление выполняются
+     * под одной блокировкой записи.
+     * @param args пусто или "name x y participants albums description genre album sales tracks".
      */
     @Override
     public void execute(String args) {
-        System.out.println("\n=== Добавление группы с минимальным количеством альбомов ===");
-
-
-        int minAlbums = Integer.MAX_VALUE;
-        for (MusicBand musicBand : bands) {
-            int count = musicBand.getAlbumsCount();
-            if (count < minAlbums) {
-                minAlbums = count;
+        if (args != null && !args.isBlank()) {
+            MusicBand band = ScriptInputManager.parseMusicBand(args.trim());
+            if (band == null) {
+                System.out.println("Ошибка: неверные данные группы. " + Add.INLINE_FORMAT);
+            } else {
+                addIfMin(band);
             }
+            return;
         }
+        System.out.println("\n=== Добавление группы с минимальным количеством альбомов ===");
+
 
         String name = getInputString("Введите название группы: ", ERROR_EMPTY_NAME);
         Coordinates coordinates = getCoordinates();
@@ -33,13 +39,41 @@ public class AddIfMin implements Command {
         MusicGenre genre = getMusicGenre();
         Album bestAlbum = getAlbumDetails();
 
-        if (albumsCount < minAlbums) {
-            MusicBand band = new MusicBand(name, coordinates, numberOfParticipants, albumsCount, description, genre, bestAlbum);
-            bands.add(band);
-            bandsById.put(band.getId(), band);
+        addIfMin(new MusicBand(name, coordinates, numberOfParticipants, albumsCount, description, genre, bestAlbum));
+    }
+
+    private static void addIfMin(MusicBand band) {
+        // минимум берётся из индекса на момент добавления, без просмотра коллекции
+        boolean added = CommandExecutor.write(() -> {
+            if (!albumsCountIndex.isLessThanMin(band.getAlbumsCount())) return false;
+            addBand(band);
+            return true;
+        });
+        if (added) {
             System.out.println(SUCCESS_BAND_ADDED);
         } else {
             System.out.println("Группа не добавлена, так как не имеет минимальное количество альбомов.");
         }
     }
+
+    /**
+     * Без аргументов поля группы запрашиваются с консоли.
+     */
+    @Override
+    public boolean promptsForInput(String args) {
+        return args == null || args.isBlank();
+    }
+
+    /**
+     * Блокировку записи команда берёт сама, только на время проверки и добавления.
+     */
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
+
+    @Override
+    public boolean modifiesCollection() {
+        return true;
+    }
 }
@@ -1,7 +1,6 @@
 package commands;
 
-import static managers.MusicBandManager.bands;
-import static managers.MusicBandManager.bandsById;
+import static managers.MusicBandManager.clearBands;
 public class Clear implements Command{
     /**
      * Очищает коллекцию групп.
@@ -10,8 +9,7 @@ public class Clear implements Command{
      */
     @Override
     public void execute(String args) {
-        bands.clear();
-        bandsById.clear();
+        clearBands();
         System.out.println("Коллекция очищена.");
     }
 }
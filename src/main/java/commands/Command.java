@@ -2,5 +2,50 @@ package commands;
 
 public interface Command {
 
+    /**
+     * Как команда обращается к коллекции; по этому признаку {@link managers.CommandExecutor}
+     * выбирает блокировку при параллельном выполнении.
+     */
+    enum Access {
+        /** Команда не читает изменяемое состояние коллекции (или читает только снимок) и выполняется без блокировки. */
+        NONE,
+        /** Команда только читает коллекцию и индексы и выполняется параллельно с другими читающими. */
+        READ,
+        /** Команда изменяет коллекцию и выполняется монопольно. */
+        WRITE
+    }
+
     void execute(String args);
+
+    /**
+     * @return вид доступа команды к коллекции; по умолчанию команда считается изменяющей.
+     */
+    default Access access() {
+        return Access.WRITE;
+    }
+
+    /**
+     * @return {@code true}, если команда меняет коллекцию; такие команды не выполняются на ведомом узле
+     * репликации ({@link managers.ReplicationFollower}).
+     */
+    default boolean modifiesCollection() {
+        return access() == Access.WRITE;
+    }
+
+    /**
+     * @param args аргументы команды или {@code null}.
+     * @return {@code true}, если с такими аргументами команда запрашивает ввод с консоли;
+     * по сети ({@link managers.CommandServer}) такие вызовы отклоняются.
+     */
+    default boolean promptsForInput(String args) {
+        return false;
+    }
+
+    /**
+     * @return {@code true}, если команду можно выполнить только из консоли ({@link managers.InputManager});
+     * по сети и в скриптах, запущенных не из консоли, такие команды отклоняются.
+     */
+    default boolean consoleOnly() {
+        return false;
+    }
 }
@@ -0,0 +1,45 @@
+package commands;
+
+import indexes.BestAlbumIndex;
+import models.MusicGenre;
+
+/**
+ * Класс, подсчитывающий группы с лучшим альбомом, у которого количество треков или продажи лежат в заданном отрезке.
+ */
+public class CountBetween implements Command {
+    /**
+     * Выводит количество групп, у которых выбранное поле лучшего альбома лежит в отрезке [от, до].
+     * Ответ берётся из индекса за O(log n).
+     *
+     * @param args "режим от до [жанр]", где режим 1 - количество треков, 2 - продажи;
+     *             с жанром считаются только группы этого жанра.
+     */
+    @Override
+    public void execute(String args) {
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 3 && parts.length != 4) {
+            System.out.println("Использование: count_between {1 - tracks | 2 - sales} {от} {до} [жанр]");
+            return;
+        }
+        try {
+            BestAlbumIndex.Field field = BestAlbumIndex.Field.fromChoice(Integer.parseInt(parts[0]));
+            double from = Double.parseDouble(parts[1]);
+            double to = Double.parseDouble(parts[2]);
+            if (field == null) {
+                System.out.println("Неверный выбор режима. Используйте 1 или 2.");
+                return;
+            }
+            MusicGenre genre = null;
+            if (parts.length == 4 && (genre = GenreFilter.parse(parts[3])) == null) return;
+            System.out.println("Количество элементов с bestAlbum в [" + parts[1] + ", " + parts[2] + "]"
+                    + GenreFilter.describe(genre) + ": " + GenreFilter.bestAlbum(genre).countBetween(field, from, to));
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат данных для count_between.");
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
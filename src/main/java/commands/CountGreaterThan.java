@@ -0,0 +1,44 @@
+package commands;
+
+import indexes.BestAlbumIndex;
+import models.MusicGenre;
+
+/**
+ * Класс, подсчитывающий группы с лучшим альбомом, у которого количество треков или продажи больше заданного значения.
+ */
+public class CountGreaterThan implements Command {
+    /**
+     * Выводит количество групп, у которых выбранное поле лучшего альбома больше заданного значения.
+     * Ответ берётся из индекса за O(log n).
+     *
+     * @param args "режим значение [жанр]", где режим 1 - количество треков, 2 - продажи;
+     *             с жанром считаются только группы этого жанра.
+     */
+    @Override
+    public void execute(String args) {
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 2 && parts.length != 3) {
+            System.out.println("Использование: count_greater_than {1 - tracks | 2 - sales} {значение} [жанр]");
+            return;
+        }
+        try {
+            BestAlbumIndex.Field field = BestAlbumIndex.Field.fromChoice(Integer.parseInt(parts[0]));
+            double value = Double.parseDouble(parts[1]);
+            if (field == null) {
+                System.out.println("Неверный выбор режима. Используйте 1 или 2.");
+                return;
+            }
+            MusicGenre genre = null;
+            if (parts.length == 3 && (genre = GenreFilter.parse(parts[2])) == null) return;
+            System.out.println("Количество элементов с bestAlbum > " + parts[1] + GenreFilter.describe(genre) + ": "
+                    + GenreFilter.bestAlbum(genre).countGreater(field, value));
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат данных для count_greater_than.");
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
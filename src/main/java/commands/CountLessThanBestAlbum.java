@@ -1,10 +1,11 @@
 package commands;
 
-import models.MusicBand;
+import indexes.BestAlbumIndex;
+import managers.CommandExecutor;
+import models.MusicGenre;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
-import static managers.MusicBandManager.bands;
 import static managers.MusicBandManager.scanner;
 
 /**
@@ -12,14 +13,59 @@ import static managers.MusicBandManager.scanner;
  */
 @XmlRootElement(name = "CountLessThanBestAlbum")
 public class CountLessThanBestAlbum implements Command {
+    /** Подсказка к параметрам одной строкой. */
+    static final String INLINE_FORMAT = "Формат: {1|2} {value} [genre], где 1 - треки, 2 - продажи";
+
     /**
      * Выводит количество групп с альбомами, у которых количество треков или продажи меньше заданного значения.
+     * Параметры запрашиваются у пользователя или передаются одной строкой, как в скриптах. Ввод читается
+     * до блокировки коллекции, под блокировкой чтения выполняется только подсчёт, поэтому ожидание ввода
+     * не задерживает изменения из других потоков.
      *
-     * @return
+     * @param args пусто, жанр или "1|2 value [genre]".
      */
-
     @Override
     public void execute(String args) {
+        String[] parts = args == null || args.isBlank() ? new String[0] : args.trim().split("\\s+");
+        if (parts.length > 3) {
+            System.out.println("Ошибка: слишком много аргументов. " + INLINE_FORMAT);
+            return;
+        }
+        MusicGenre genre = null;
+        if ((parts.length == 1 || parts.length == 3) && (genre = GenreFilter.parse(parts[parts.length - 1])) == null) return;
+
+        int choice;
+        int userValue;
+        if (parts.length >= 2) {
+            try {
+                choice = Integer.parseInt(parts[0]);
+                userValue = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                System.out.println("Ошибка: параметр сравнения и число должны быть целыми. " + INLINE_FORMAT);
+                return;
+            }
+            if (choice != 1 && choice != 2) {
+                System.out.println("Ошибка: параметр сравнения должен быть 1 или 2. " + INLINE_FORMAT);
+                return;
+            }
+            if (userValue < 0) {
+                System.out.println("Ошибка: число для сравнения должно быть положительным.");
+                return;
+            }
+        } else {
+            choice = readChoice();
+            userValue = readValue();
+        }
+
+        MusicGenre filter = genre;
+        int value = userValue;
+        BestAlbumIndex.Field field = BestAlbumIndex.Field.fromChoice(choice);
+        int count = CommandExecutor.read(() -> GenreFilter.countLess(filter, field, value));
+
+        System.out.println("Количество элементов с bestAlbum < " + userValue + GenreFilter.describe(genre) + ": " + count);
+    }
+
+    private static int readChoice() {
         System.out.println("Выберите параметр сравнения: \n1 - Количество треков (tracks) \n2 - Продажи альбома (sales)");
 
         int choice;
@@ -30,7 +76,10 @@ public class CountLessThanBestAlbum implements Command {
             }
             System.out.println("Неверный ввод. Выберите 1 или 2.");
         }
+        return choice;
+    }
 
+    private static int readValue() {
         System.out.println("Введите число для сравнения:");
 
         int userValue;
@@ -47,15 +96,19 @@ public class CountLessThanBestAlbum implements Command {
                 scanner.next(); 
             }
         }
+        return userValue;
+    }
 
-        int count = 0;
-        for (MusicBand band : bands) {
-            if (band.getBestAlbum() != null &&
-                    (choice == 1 ? band.getBestAlbum().getTracks() : band.getBestAlbum().getSales()) < userValue) {
-                count++;
-            }
-        }
+    /**
+     * Без параметра сравнения и числа команда запрашивает их с консоли.
+     */
+    @Override
+    public boolean promptsForInput(String args) {
+        return args == null || args.isBlank() || args.trim().split("\\s+").length < 2;
+    }
 
-        System.out.println("Количество элементов с bestAlbum < " + userValue + ": " + count);
+    @Override
+    public Access access() {
+        return Access.NONE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package commands;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.creationIndex;
+
+/**
+ * Класс, выводящий группы, созданные в заданном интервале времени.
+ */
+public class CreatedBetween implements Command {
+    /**
+     * Выводит группы, созданные в отрезке [от, до], в порядке времени создания.
+     * Группы выбираются по индексу времени создания за O(log n + k).
+     *
+     * @param args "от до", где каждый момент задаётся как now, смещение назад (-1h, -7d) или дата ISO-8601.
+     */
+    @Override
+    public void execute(String args) {
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 2) {
+            System.out.println("Использование: created_between {от} {до}; форматы: " + TimeArgument.FORMATS);
+            return;
+        }
+        Long from = TimeArgument.parse(parts[0]);
+        Long to = TimeArgument.parse(parts[1]);
+        if (from == null || to == null) {
+            System.out.println("Неверный формат времени. Допустимые форматы: " + TimeArgument.FORMATS);
+            return;
+        }
+        int[] ids = creationIndex.between(from, to);
+        if (ids.length == 0) {
+            System.out.println("В интервале " + TimeArgument.format(from) + " - " + TimeArgument.format(to) + " групп не создавалось.");
+            return;
+        }
+        for (int id : ids) {
+            System.out.println(bands.get(id));
+        }
+        System.out.println("Найдено групп: " + ids.length);
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
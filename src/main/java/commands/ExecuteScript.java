@@ -1,6 +1,9 @@
 package commands;
 
+import indexes.BestAlbumIndex;
+import managers.InputManager;
 import models.MusicBand;
+import models.MusicGenre;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -8,8 +11,8 @@ import java.io.PrintStream;
 import java.util.HashSet;
 import java.util.Scanner;
 
-import static managers.MusicBandManager.bands;
-import static managers.MusicBandManager.bandsById;
+import static managers.MusicBandManager.addBand;
+import static managers.MusicBandManager.albumsCountIndex;
 import static managers.ScriptInputManager.*;
 
 /***
@@ -62,6 +65,12 @@ public class ExecuteScript implements Command {
                     break;
                 }
 
+                if (commands.get(cmd).consoleOnly() && !InputManager.isConsoleThread()) {
+                    System.out.println("Ошибка: команда \"" + cmd + "\" доступна только из консоли.");
+                    hasError = true;
+                    break;
+                }
+
                 if (cmd.equals("execute_script")) {
                     String newScriptPath = commandParts.length > 1 ? commandParts[1] : "";
                     if (newScriptPath.isEmpty()) {
@@ -92,8 +101,8 @@ public class ExecuteScript implements Command {
 
                 if (cmd.equals("count_less_than_best_album")) {
                     String[] parts = commandParts[1].split(" ");
-                    if (parts.length != 2) {
-                        System.out.println("Ошибка: команда count_less_than_best_album требует ровно 2 аргумента.");
+                    if (parts.length != 2 && parts.length != 3) {
+                        System.out.println("Ошибка: команда count_less_than_best_album требует 2 аргумента и необязательный жанр.");
                         hasError = true;
                         break;
                     }
@@ -111,6 +120,11 @@ public class ExecuteScript implements Command {
                             hasError = true;
                             break;
                         }
+                        if (parts.length == 3 && MusicGenre.fromString(parts[2]) == null) {
+                            System.out.println("Ошибка: неизвестный жанр для count_less_than_best_album: " + parts[2]);
+                            hasError = true;
+                            break;
+                        }
                     } catch (NumberFormatException e) {
                         System.out.println("Ошибка: неверный формат данных для count_less_than_best_album.");
                         hasError = true;
@@ -150,38 +164,25 @@ public class ExecuteScript implements Command {
                     if (cmd.equals("add")) {
                         MusicBand band = parseMusicBand(args);
                         if (band != null) {
-                            bands.add(band);
-                            bandsById.put(band.getId(), band);
+                            addBand(band);
                             System.out.println("Музыкальная группа добавлена: " + band.getName());
                         }
                     } else if (cmd.equals("add_if_min")) {
-                        int minAlbums = Integer.MAX_VALUE;
-                        for (MusicBand musicBand : bands) {
-                            int count = musicBand.getAlbumsCount();
-                            if (count < minAlbums) {
-                                minAlbums = count;
-                            }
-                        }
                         MusicBand band = parseMusicBand(args);
-                        if (band != null && band.getAlbumsCount() < minAlbums) {
-                            bands.add(band);
-                            bandsById.put(band.getId(), band);
+                        if (band != null && albumsCountIndex.isLessThanMin(band.getAlbumsCount())) {
+                            addBand(band);
                             System.out.println("Музыкальная группа добавлена (add_if_min): " + band.getName());
                         }
                     } else if (cmd.equals("count_less_than_best_album")) {
                         String[] parts = args.split(" ");
                         int choice = Integer.parseInt(parts[0]);
                         int userValue = Integer.parseInt(parts[1]);
+                        MusicGenre genre = parts.length == 3 ? MusicGenre.fromString(parts[2]) : null;
 
-                        int count = 0;
-                        for (MusicBand band : bands) {
-                            if (band.getBestAlbum() != null &&
-                                    (choice == 1 ? band.getBestAlbum().getTracks() : band.getBestAlbum().getSales()) < userValue) {
-                                count++;
-                            }
-                        }
+                        int count = GenreFilter.countLess(genre, BestAlbumIndex.Field.fromChoice(choice), userValue);
                         System.out.println("Количество групп с bestAlbum " +
-                                (choice == 1 ? "по количеству треков" : "по продажам") + " меньше " + userValue + ": " + count);
+                                (choice == 1 ? "по количеству треков" : "по продажам") + " меньше " + userValue
+                                + GenreFilter.describe(genre) + ": " + count);
                     } else {
                         commands.get(cmd).execute(args);
                     }
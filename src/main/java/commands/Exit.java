@@ -1,5 +1,7 @@
 package commands;
 
+import managers.SnapshotWriter;
+
 public class Exit implements Command{
     /**
      * Завершает выполнение программы.
@@ -9,10 +11,30 @@ public class Exit implements Command{
     @Override
     public void execute(String args) {
         {
+            if (SnapshotWriter.isRunning()) {
+                System.out.println("Ожидаем завершения фонового сохранения...");
+                SnapshotWriter.awaitCompletion();
+            }
             System.out.println("Завершаем программу...");
             System.exit(0);
         }
 
 
     }
+
+    /**
+     * Команда завершает весь процесс, поэтому клиенту сервера она недоступна.
+     */
+    @Override
+    public boolean consoleOnly() {
+        return true;
+    }
+
+    /**
+     * Ожидание фонового сохранения не должно удерживать блокировку коллекции.
+     */
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
 }
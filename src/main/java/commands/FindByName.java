@@ -0,0 +1,26 @@
+package commands;
+
+import static managers.MusicBandManager.textIndex;
+
+/**
+ * Класс, ищущий группы по началу названия.
+ */
+public class FindByName implements Command {
+    /**
+     * Выводит группы, в названии которых каждое слово запроса является началом какого-либо слова.
+     * Группы с полным совпадением слов выводятся раньше; поиск идёт по полнотекстовому индексу.
+     *
+     * @param args "префикс [limit N] [offset N]".
+     */
+    @Override
+    public void execute(String args) {
+        TextQuery query = TextQuery.parse(args, "find_by_name {префикс} [limit N] [offset N]");
+        if (query == null) return;
+        query.print(textIndex.findByName(query.text, query.top()));
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
@@ -0,0 +1,88 @@
+package commands;
+
+import indexes.AlbumsCountIndex;
+import indexes.BestAlbumIndex;
+import indexes.ParticipantsHistogram;
+import models.MusicGenre;
+
+import java.util.Arrays;
+
+import static managers.MusicBandManager.albumsCountIndex;
+import static managers.MusicBandManager.bestAlbumIndex;
+import static managers.MusicBandManager.genreIndex;
+import static managers.MusicBandManager.participantsHistogram;
+import static managers.MusicBandManager.shardIndex;
+
+/**
+ * Необязательный фильтр по жанру для агрегатных команд: выбирает индекс всей коллекции
+ * или индекс части коллекции с нужным жанром (см. {@link indexes.GenreIndex}).
+ * Если хранилище разбито на шарды, агрегаты по всей коллекции собираются с шардов
+ * (см. {@link indexes.ShardIndex}).
+ */
+public final class GenreFilter {
+    private GenreFilter() {}
+
+    /**
+     * Разбирает название жанра; если жанр неизвестен, выводит сообщение со списком жанров.
+     * @param value название жанра.
+     * @return жанр или {@code null}, если жанр неизвестен.
+     */
+    public static MusicGenre parse(String value) {
+        MusicGenre genre = MusicGenre.fromString(value);
+        if (genre == null) {
+            System.out.println("Неизвестный жанр: " + value + ". Доступные жанры: " + Arrays.toString(MusicGenre.values()));
+        }
+        return genre;
+    }
+
+    /**
+     * @param genre жанр или {@code null} для всей коллекции.
+     * @return индекс полей лучшего альбома.
+     */
+    public static BestAlbumIndex bestAlbum(MusicGenre genre) {
+        return genre == null ? bestAlbumIndex : genreIndex.get(genre).getBestAlbumIndex();
+    }
+
+    /**
+     * @param genre жанр или {@code null} для всей коллекции.
+     * @return индекс albumsCount.
+     */
+    public static AlbumsCountIndex albumsCount(MusicGenre genre) {
+        return genre == null ? albumsCountIndex : genreIndex.get(genre).getAlbumsCountIndex();
+    }
+
+    /**
+     * @param genre жанр или {@code null} для всей коллекции.
+     * @return гистограмма числа участников.
+     */
+    public static ParticipantsHistogram participants(MusicGenre genre) {
+        if (genre == null) return shardIndex.getShardCount() > 0 ? shardIndex.mergeParticipants() : participantsHistogram;
+        return genreIndex.get(genre).getParticipantsHistogram();
+    }
+
+    /**
+     * @param genre жанр или {@code null} для всей коллекции.
+     * @return количество групп с полем лучшего альбома меньше {@code value}.
+     */
+    public static int countLess(MusicGenre genre, BestAlbumIndex.Field field, double value) {
+        if (genre == null && shardIndex.getShardCount() > 0) return shardIndex.countLess(field, value);
+        return bestAlbum(genre).countLess(field, value);
+    }
+
+    /**
+     * @param genre жанр или {@code null} для всей коллекции.
+     * @return ID группы с максимальным количеством альбомов или {@code null}.
+     */
+    public static Integer maxAlbumsCountId(MusicGenre genre) {
+        if (genre == null && shardIndex.getShardCount() > 0) return shardIndex.getMaxAlbumsCountId();
+        return albumsCount(genre).getMaxId();
+    }
+
+    /**
+     * @param genre жанр или {@code null}.
+     * @return пояснение к выводу команды: " (жанр X)" или пустая строка.
+     */
+    public static String describe(MusicGenre genre) {
+        return genre == null ? "" : " (жанр " + genre + ")";
+    }
+}
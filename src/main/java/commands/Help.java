@@ -21,15 +21,38 @@ public class Help implements Command{
         System.out.println("add {element} : добавить новый элемент");
         System.out.println("remove_by_id {id} : удалить элемент по ID");
         System.out.println("clear : очистить коллекцию");
-        System.out.println("save : сохранить коллекцию в файл");
+        System.out.println("save : сохранить изменения коллекции (журнал рядом с файлом, при превышении порога - файл целиком в фоне)");
+        System.out.println("save_status : состояние фонового сохранения");
+        System.out.println("replication_status : роль процесса в репликации и отставание ведомых");
+        System.out.println("rebalance N : изменить число шардов хранилища и перенести группы (--store sharded)");
+        System.out.println("save_binary [file_name] : сохранить коллекцию в двоичном формате");
+        System.out.println("load_binary [file_name] : загрузить коллекцию из двоичного файла");
         System.out.println("execute_script {file_name} : выполнить команды из файла");
         System.out.println("remove_first : удалить первый элемент из коллекции");
         System.out.println("remove_head : вывести и удалить первый элемент");
         System.out.println("add_if_min {element} : добавить элемент, если его значение минимально");
-        System.out.println("max_by_albums_count : вывести элемент с максимальным albumsCount");
-        System.out.println("count_less_than_best_album bestAlbum : вывести количество элементов, меньше заданного bestAlbum");
-        System.out.println("print_field_ascending_number_of_participants : вывести количество участников в порядке возрастания");
+        System.out.println("max_by_albums_count [genre] : вывести элемент с максимальным albumsCount");
+        System.out.println("count_less_than_best_album [1|2 value] [genre] : вывести количество элементов, меньше заданного bestAlbum (1 - треки, 2 - продажи)");
+        System.out.println("count_greater_than {1|2} {value} [genre] : количество элементов, у которых tracks (1) или sales (2) bestAlbum больше value");
+        System.out.println("count_between {1|2} {from} {to} [genre] : количество элементов, у которых tracks (1) или sales (2) bestAlbum в [from, to]");
+        System.out.println("print_field_ascending_number_of_participants [limit N] [offset N] [distinct] [genre G] : вывести количество участников в порядке возрастания");
+        System.out.println("load_benchmark [workers] : замерить скорость загрузки файла для разного числа потоков");
+        System.out.println("memory : вывести оценку памяти, занимаемой коллекцией");
+        System.out.println("stats_by_genre [genre] : вывести количество, сумму, минимум, максимум и среднее полей по жанрам");
+        System.out.println("nearest {x} {y} {k} : вывести k групп, ближайших к точке (x, y)");
+        System.out.println("within {x1} {y1} {x2} {y2} : вывести группы, координаты которых лежат в прямоугольнике");
+        System.out.println("find_by_name {prefix} [limit N] [offset N] : найти группы по началу названия");
+        System.out.println("search {words} [limit N] [offset N] : искать слова в названии, описании и названии лучшего альбома (word* - по префиксу)");
+        System.out.println("created_between {from} {to} : вывести группы, созданные в интервале (now, -1h, -7d, 2024-05-01, ISO-8601)");
+        System.out.println("remove_older_than {time} : удалить группы, созданные раньше заданного момента");
+        System.out.println("top {albums|participants|sales|tracks} {k} : вывести k групп с наибольшими значениями поля");
+        System.out.println("bottom {albums|participants|sales|tracks} {k} : вывести k групп с наименьшими значениями поля");
         System.out.println("exit : завершить программу");
 
     }
+
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
 }
@@ -1,11 +1,16 @@
 package commands;
 
+import indexes.ShardIndex;
+
 import static managers.MusicBandManager.bands;
 import static managers.MusicBandManager.initializationDate;
+import static managers.MusicBandManager.shardIndex;
+import static managers.MusicBandManager.stringPool;
 
 public class Info implements Command{
     /**
-     * Отображает информацию о коллекции (тип, дата инициализации, количество элементов).
+     * Отображает информацию о коллекции (тип, дата инициализации, количество элементов,
+     * для хранилища с шардами - размеры шардов) и статистику пула строк.
      *
      * @return
      */
@@ -14,5 +19,19 @@ public class Info implements Command{
         System.out.println("Тип коллекции: " + bands.getClass().getSimpleName());
         System.out.println("Дата инициализации: " + initializationDate);
         System.out.println("Количество элементов: " + bands.size());
+        System.out.println("Хранилище: " + bands.describeStorage());
+        if (shardIndex.getShardCount() > 0) {
+            System.out.println("Групп по шардам: " + shardIndex.gather(ShardIndex.Partition::size));
+        }
+        long lookups = stringPool.getLookups();
+        long hits = stringPool.getHits();
+        System.out.println("Пул строк: " + stringPool.getCapacity() + " слотов, обращений " + lookups
+                + ", попаданий " + hits + (lookups == 0 ? "" : String.format(" (%.1f%%)", 100.0 * hits / lookups))
+                + ", сэкономлено ~" + Memory.format(stringPool.getSavedBytes()));
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
     }
 }
@@ -0,0 +1,49 @@
+package commands;
+
+import managers.XMLManager;
+
+import java.io.File;
+
+import static managers.MusicBandManager.filePath;
+
+/**
+ * Класс, замеряющий скорость параллельной загрузки файла коллекции.
+ */
+public class LoadBenchmark implements Command {
+    /**
+     * Разбирает файл коллекции с разным количеством потоков и выводит пропускную способность.
+     * Коллекция при этом не изменяется.
+     *
+     * @param args максимальное количество потоков (по умолчанию - число ядер).
+     */
+    @Override
+    public void execute(String args) {
+        int maxWorkers = Runtime.getRuntime().availableProcessors();
+        if (args != null && !args.isBlank()) {
+            try {
+                maxWorkers = Integer.parseInt(args.trim());
+            } catch (NumberFormatException e) {
+                System.out.println("Неверный формат числа потоков.");
+                return;
+            }
+        }
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            System.out.println("Файл коллекции не найден: " + filePath);
+            return;
+        }
+        try {
+            XMLManager.benchmarkLoad(file, maxWorkers);
+        } catch (Exception e) {
+            System.out.println("Ошибка при разборе файла: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Разбирается файл на диске, а не коллекция в памяти, поэтому блокировка не нужна.
+     */
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
+}
@@ -0,0 +1,34 @@
+package commands;
+
+import managers.BinaryManager;
+import managers.JournalManager;
+
+import java.io.File;
+
+import static managers.MusicBandManager.filePath;
+
+/**
+ * Класс, загружающий коллекцию из компактного двоичного файла.
+ */
+public class LoadBinary implements Command {
+    /**
+     * Заменяет текущую коллекцию содержимым двоичного файла.
+     * Следующая команда save запишет файл коллекции целиком.
+     *
+     * @param args путь к файлу (по умолчанию - файл коллекции с расширением .bin).
+     */
+    @Override
+    public void execute(String args) {
+        File file = new File(args == null || args.isBlank() ? filePath + BinaryManager.BINARY_SUFFIX : args.trim());
+        if (!BinaryManager.isBinaryFile(file)) {
+            System.out.println("Файл не найден или не является двоичным файлом коллекции: " + file);
+            return;
+        }
+        try {
+            BinaryManager.loadFromFile(file);
+            JournalManager.requireSnapshot();
+        } catch (Exception e) {
+            System.out.println("Ошибка загрузки данных: " + e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package commands;
 
 import models.MusicBand;
+import models.MusicGenre;
 
 import javax.xml.bind.annotation.XmlRootElement;
-import java.util.Comparator;
 import java.util.Optional;
 
 import static managers.MusicBandManager.bands;
@@ -15,21 +15,23 @@ public class MaxByAlbumsCount implements Command{
     /**
      * Отображает группу с максимальным количеством альбомов.
      *
-     * @return
+     * @param args необязательный жанр: если указан, группа ищется только среди групп этого жанра.
      */
 
     @Override
     public void execute(String args){
-        boolean seen = false;
-        MusicBand best = null;
-        Comparator<MusicBand> comparator = Comparator.comparing(band1 -> band1.getAlbumsCount());
-        for (MusicBand band : bands) {
-            if (!seen || comparator.compare(band, best) > 0) {
-                seen = true;
-                best = band;
-            }
+        if (bands.isEmpty()) {
+            System.out.println("Коллекция пуста.");
+            return;
         }
-        Optional<MusicBand> maxBand = seen ? Optional.of(best) : Optional.empty();
-        maxBand.ifPresentOrElse(System.out::println, () -> System.out.println("Коллекция пуста."));
+        MusicGenre genre = null;
+        if (args != null && !args.isBlank() && (genre = GenreFilter.parse(args.trim())) == null) return;
+        Optional<MusicBand> maxBand = Optional.ofNullable(GenreFilter.maxAlbumsCountId(genre)).map(bands::get);
+        maxBand.ifPresentOrElse(System.out::println, () -> System.out.println("Ни у одной группы не указано количество альбомов."));
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
     }
 }
@@ -0,0 +1,87 @@
+package commands;
+
+import indexes.ColumnStore;
+import models.MusicBand;
+import models.MusicBandHeap;
+import models.ShardedBandStore;
+import models.StringPool;
+
+import static managers.MusicBandManager.albumsCountIndex;
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.columns;
+
+/**
+ * Класс, оценивающий объём памяти, который занимает коллекция.
+ * <p>
+ * Оценка рассчитана на 64-битную JVM со сжатыми указателями (заголовок объекта 12 байт,
+ * ссылка 4 байта, выравнивание по 8 байтам).
+ */
+public class Memory implements Command {
+    /** Объект {@link MusicBand}: заголовок 12 + long 8 + 12 полей по 4 байта + short 2 = 70, с выравниванием 72. */
+    static final int BAND_BYTES = 72;
+    /**
+     * Прежняя раскладка: объект группы 56 + {@code Coordinates} 24 + {@code Album} 24
+     * + {@code ZonedDateTime} с {@code LocalDateTime}, {@code LocalDate} и {@code LocalTime} 96
+     * + два {@link Integer} по 16.
+     */
+    static final int LEGACY_BAND_BYTES = 232;
+    /** Ячейка массива кучи (4), запись таблицы ID (в среднем около 14) и лист дерева версий (около 5). */
+    static final int ID_INDEX_BYTES = 23;
+    /** Узел {@link indexes.LongTreeSet} в индексе albumsCount (с запасом массивов). */
+    static final int ALBUMS_INDEX_BYTES = 20;
+
+    /**
+     * Выводит оценку памяти под объекты групп, строки и индексы, а также сравнение
+     * с прежней раскладкой объекта группы. Для хранилища вне кучи выводится его собственная сводка.
+     *
+     * @param args не используется.
+     */
+    @Override
+    public void execute(String args) {
+        long count = bands.size();
+        System.out.println("Групп в коллекции: " + count);
+        System.out.println("Хранилище: " + bands.describeStorage());
+        Runtime runtime = Runtime.getRuntime();
+        if (!(bands instanceof MusicBandHeap || bands instanceof ShardedBandStore)) {
+            System.out.println("Индекс albumsCount и колонки: " + format((long) albumsCountIndex.size() * ALBUMS_INDEX_BYTES
+                    + (long) columns.size() * ColumnStore.BYTES_PER_ROW));
+            printHeap(runtime);
+            return;
+        }
+
+        long strings = 0;
+        for (MusicBand band : bands.snapshot()) {
+            strings += StringPool.estimateBytes(band.getName()) + StringPool.estimateBytes(band.getDescription())
+                    + StringPool.estimateBytes(band.getBestAlbumName());
+        }
+        long objects = count * BAND_BYTES;
+        long indexes = count * ID_INDEX_BYTES + (long) albumsCountIndex.size() * ALBUMS_INDEX_BYTES
+                + (long) columns.size() * ColumnStore.BYTES_PER_ROW;
+        long total = objects + strings + indexes;
+
+        System.out.println("Объекты групп: " + format(objects) + " (" + BAND_BYTES + " Б на группу)");
+        System.out.println("Строки (без учёта общих экземпляров): " + format(strings));
+        System.out.println("Индексы по ID (с версиями) и albumsCount, колонки: " + format(indexes));
+        System.out.println("Итого (оценка): " + format(total)
+                + (count == 0 ? "" : ", " + total / count + " Б на группу"));
+        System.out.println("Прежняя раскладка группы: " + LEGACY_BAND_BYTES + " Б на группу, объекты групп заняли бы "
+                + format(count * LEGACY_BAND_BYTES));
+        printHeap(runtime);
+    }
+
+    private static void printHeap(Runtime runtime) {
+        System.out.println("Куча JVM: занято " + format(runtime.totalMemory() - runtime.freeMemory())
+                + " из " + format(runtime.maxMemory()));
+    }
+
+    static String format(long bytes) {
+        if (bytes < 1024) return bytes + " Б";
+        if (bytes < 1024 * 1024) return String.format("%.1f КБ", bytes / 1024.0);
+        return String.format("%.1f МБ", bytes / (1024.0 * 1024));
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
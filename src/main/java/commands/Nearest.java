@@ -0,0 +1,52 @@
+package commands;
+
+import models.MusicBand;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.spatialIndex;
+
+/**
+ * Класс, выводящий группы, ближайшие к заданной точке.
+ */
+public class Nearest implements Command {
+    /**
+     * Выводит k групп, ближайших к точке (x, y), в порядке возрастания расстояния.
+     * Поиск идёт по пространственному индексу, а не по всей коллекции.
+     *
+     * @param args "x y k".
+     */
+    @Override
+    public void execute(String args) {
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 3) {
+            System.out.println("Использование: nearest {x} {y} {k}");
+            return;
+        }
+        try {
+            float x = Float.parseFloat(parts[0]);
+            float y = Float.parseFloat(parts[1]);
+            int k = Integer.parseInt(parts[2]);
+            if (k <= 0) {
+                System.out.println("k должно быть больше 0.");
+                return;
+            }
+            int[] ids = spatialIndex.nearest(x, y, k);
+            if (ids.length == 0) {
+                System.out.println("Коллекция пуста.");
+                return;
+            }
+            for (int id : ids) {
+                MusicBand band = bands.get(id);
+                double distance = Math.hypot(band.getX() - (double) x, band.getY() - (double) y);
+                System.out.printf("%.3f: %s%n", distance, band);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат данных для nearest.");
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
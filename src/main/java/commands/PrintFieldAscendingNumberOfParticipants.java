@@ -1,10 +1,10 @@
 package commands;
 
-import models.MusicBand;
+import indexes.ParticipantsHistogram;
+import models.MusicGenre;
 
 import javax.xml.bind.annotation.XmlRootElement;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.PrintStream;
 
 import static managers.MusicBandManager.bands;
 /**
@@ -16,22 +16,76 @@ public class PrintFieldAscendingNumberOfParticipants implements Command{
 
     /**
      * Выводит количество участников в группах в порядке возрастания.
+     * Значения берутся из поддерживаемой гистограммы, поэтому сортировка при каждом вызове не нужна.
      *
-     * @return
+     * @param args необязательные параметры: {@code limit N}, {@code offset N}, {@code distinct}
+     *             (каждое значение один раз с количеством групп), {@code genre G} (только группы жанра G).
      */
 
     @Override
     public void execute(String args){
-        List<Integer> sortedParticipants = new ArrayList<>();
-        for (MusicBand band : bands) {
-            Integer numberOfParticipants = band.getNumberOfParticipants();
-            sortedParticipants.add(numberOfParticipants);
+        long limit = Long.MAX_VALUE;
+        long offset = 0;
+        boolean distinct = false;
+        MusicGenre genre = null;
+        String[] parts = args == null || args.isBlank() ? new String[0] : args.trim().split("\\s+");
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                switch (parts[i].toLowerCase()) {
+                    case "distinct":
+                        distinct = true;
+                        break;
+                    case "limit":
+                        limit = Long.parseLong(parts[++i]);
+                        break;
+                    case "offset":
+                        offset = Long.parseLong(parts[++i]);
+                        break;
+                    case "genre":
+                        genre = GenreFilter.parse(parts[++i]);
+                        if (genre == null) return;
+                        break;
+                    default:
+                        System.out.println("Неизвестный параметр: " + parts[i]);
+                        return;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Использование: print_field_ascending_number_of_participants [limit N] [offset N] [distinct] [genre G]");
+            return;
         }
-        sortedParticipants.sort(null);
-        if (sortedParticipants.isEmpty()) {
+        if (limit < 0 || offset < 0) {
+            System.out.println("limit и offset не могут быть отрицательными.");
+            return;
+        }
+
+        if (bands.isEmpty()) {
             System.out.println("Коллекция пуста.");
-        } else {
-            sortedParticipants.forEach(System.out::println);
+            return;
         }
+        PrintStream out = System.out;
+        boolean grouped = distinct;
+        GenreFilter.participants(genre).forEach(offset, limit, distinct, new ParticipantsHistogram.Visitor() {
+            @Override
+            public void visit(int value, int repeat, int count) {
+                print(grouped ? value + " (" + count + ")" : String.valueOf(value), repeat);
+            }
+
+            @Override
+            public void visitNull(int repeat, int count) {
+                print(grouped ? "null (" + count + ")" : "null", repeat);
+            }
+
+            private void print(String line, int repeat) {
+                for (int i = 0; i < repeat; i++) {
+                    out.println(line);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
     }
 }
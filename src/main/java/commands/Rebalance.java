@@ -0,0 +1,49 @@
+package commands;
+
+import managers.MusicBandManager;
+
+import static managers.MusicBandManager.bands;
+
+/**
+ * Класс, меняющий число шардов хранилища.
+ */
+public class Rebalance implements Command {
+    /**
+     * Задаёт новое число шардов и переносит группы, сменившие шард-владельца.
+     * Благодаря согласованному хешированию при добавлении шардов переезжают только группы,
+     * попадающие в новые шарды.
+     *
+     * @param args новое число шардов.
+     */
+    @Override
+    public void execute(String args) {
+        int shards;
+        try {
+            shards = Integer.parseInt(args == null ? "" : args.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Использование: rebalance <число шардов>");
+            return;
+        }
+        if (shards < 1) {
+            System.out.println("Число шардов должно быть положительным.");
+            return;
+        }
+        long started = System.nanoTime();
+        int moved = MusicBandManager.rebalanceShards(shards);
+        if (moved < 0) {
+            System.out.println("Хранилище не разбито на шарды (запуск с --store sharded).");
+            return;
+        }
+        System.out.printf("Шардов: %d, перенесено групп: %d из %d за %d мс.%n", shards, moved, bands.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Группы только переезжают между шардами, содержимое коллекции не меняется,
+     * поэтому команда доступна и на ведомом узле репликации.
+     */
+    @Override
+    public boolean modifiesCollection() {
+        return false;
+    }
+}
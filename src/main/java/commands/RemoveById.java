@@ -4,8 +4,7 @@ import models.MusicBand;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
-import static managers.MusicBandManager.bands;
-import static managers.MusicBandManager.bandsById;
+import static managers.MusicBandManager.removeBandById;
 /**
  * Класс, yдаляющий группу из коллекции по её ID.
  */
@@ -23,9 +22,8 @@ public class RemoveById implements Command {
             int id = Integer.parseInt(args);
 
 
-            MusicBand band = bandsById.remove(id);
+            MusicBand band = removeBandById(id);
             if (band != null) {
-                bands.remove(band);
                 System.out.println("Группа удалена.");
             } else {
                 System.out.println("Группа с таким ID не найдена.");
@@ -3,6 +3,7 @@ package commands;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.pollBand;
 /**
  * Класс, yдаляющий первый элемент коллекции.
  */
@@ -18,7 +19,7 @@ public class RemoveFirst implements Command{
     public void execute(String args) {
 
         if (!bands.isEmpty()) {
-            bands.poll();
+            pollBand();
             System.out.println("Первый элемент удален.");
         } else {
             System.out.println("Коллекция пуста.");
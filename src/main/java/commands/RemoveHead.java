@@ -3,6 +3,7 @@ package commands;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.pollBand;
 /**
  * Класс, yдаляющий и отображающий первый элемент коллекции.
  */
@@ -17,7 +18,7 @@ public class RemoveHead implements Command{
     @Override
     public void execute(String args) {
         if (!bands.isEmpty()) {
-            System.out.println("Удаленный элемент: " + bands.poll());
+            System.out.println("Удаленный элемент: " + pollBand());
         } else {
             System.out.println("Коллекция пуста.");
         }
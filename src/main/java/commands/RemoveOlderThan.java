@@ -0,0 +1,28 @@
+package commands;
+
+import static managers.MusicBandManager.removeBandsOlderThan;
+
+/**
+ * Класс, удаляющий группы, созданные раньше заданного момента.
+ */
+public class RemoveOlderThan implements Command {
+    /**
+     * Удаляет все группы, созданные раньше заданного момента. Группы находятся по индексу времени
+     * создания и удаляются из коллекции разом, а в журнал попадает одна запись.
+     *
+     * @param args момент: now, смещение назад (например, -30d - старше 30 дней) или дата ISO-8601.
+     */
+    @Override
+    public void execute(String args) {
+        if (args == null || args.isBlank()) {
+            System.out.println("Использование: remove_older_than {момент}; форматы: " + TimeArgument.FORMATS);
+            return;
+        }
+        Long time = TimeArgument.parse(args.trim());
+        if (time == null) {
+            System.out.println("Неверный формат времени. Допустимые форматы: " + TimeArgument.FORMATS);
+            return;
+        }
+        System.out.println("Удалено групп, созданных раньше " + TimeArgument.format(time) + ": " + removeBandsOlderThan(time));
+    }
+}
@@ -0,0 +1,30 @@
+package commands;
+
+import managers.ReplicationFollower;
+import managers.ReplicationLeader;
+
+/**
+ * Класс, выводящий состояние репликации коллекции.
+ */
+public class ReplicationStatus implements Command {
+    /**
+     * Выводит роль процесса и отставание: на ведущем - по каждому ведомому, на ведомом - от ведущего.
+     *
+     * @param args не используется.
+     */
+    @Override
+    public void execute(String args) {
+        if (ReplicationLeader.isRunning()) {
+            ReplicationLeader.printStatus();
+        } else if (ReplicationFollower.isRunning()) {
+            ReplicationFollower.printStatus();
+        } else {
+            System.out.println("Репликация не настроена (запуск с --replicate <порт> или --follow <хост:порт>).");
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
+}
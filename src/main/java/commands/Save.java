@@ -1,31 +1,18 @@
 package commands;
 
-import models.MusicBandCollectionWrapper;
-
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.Marshaller;
-import java.io.File;
-
-import static managers.MusicBandManager.bands;
-import static managers.MusicBandManager.filePath;
+import managers.JournalManager;
 
 public class Save implements Command{
     /**
-     * Сохраняет текущую коллекцию музыкальных групп в файл.
+     * Сохраняет изменения коллекции: дописывает их в журнал рядом с файлом,
+     * а при превышении порога журнала перезаписывает файл коллекции целиком.
      *
      * @return
      */
     @Override
     public void execute(String args) {
         try {
-            JAXBContext context = JAXBContext.newInstance(MusicBandCollectionWrapper.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-            MusicBandCollectionWrapper wrapper = new MusicBandCollectionWrapper();
-            wrapper.setBands(bands);
-
-            marshaller.marshal(wrapper, new File(filePath));
+            JournalManager.commit();
         } catch (Exception e) {
             System.err.println("Ошибка сохранения данных: " + e.getMessage());
         }
@@ -0,0 +1,38 @@
+package commands;
+
+import managers.BinaryManager;
+import managers.CommandExecutor;
+
+import java.io.File;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.filePath;
+
+/**
+ * Класс, сохраняющий коллекцию в компактном двоичном формате.
+ */
+public class SaveBinary implements Command {
+    /**
+     * Сохраняет снимок коллекции в двоичный файл. Снимок берётся под блокировкой чтения,
+     * запись в файл идёт без неё.
+     *
+     * @param args путь к файлу (по умолчанию - файл коллекции с расширением .bin).
+     */
+    @Override
+    public void execute(String args) {
+        File file = new File(args == null || args.isBlank() ? filePath + BinaryManager.BINARY_SUFFIX : args.trim());
+        long started = System.nanoTime();
+        try {
+            BinaryManager.saveToFile(file, CommandExecutor.read(bands::snapshot));
+            System.out.println("Коллекция сохранена в двоичный файл " + file + " за "
+                    + (System.nanoTime() - started) / 1_000_000 + " мс (" + file.length() + " байт).");
+        } catch (Exception e) {
+            System.out.println("Ошибка сохранения данных: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
+}
@@ -0,0 +1,42 @@
+package commands;
+
+import managers.JournalManager;
+import managers.SnapshotWriter;
+
+/**
+ * Класс, выводящий состояние фонового сохранения коллекции.
+ */
+public class SaveStatus implements Command {
+    /**
+     * Выводит, выполняется ли фоновая запись снимка, чем закончилась последняя запись
+     * и сколько она длилась.
+     *
+     * @param args не используется.
+     */
+    @Override
+    public void execute(String args) {
+        switch (SnapshotWriter.getState()) {
+            case IDLE:
+                System.out.println("Фоновых сохранений не было.");
+                break;
+            case RUNNING:
+                System.out.println("Сохранение выполняется: " + SnapshotWriter.getSize() + " групп, начато "
+                        + SnapshotWriter.getStartedAt() + ".");
+                break;
+            case DONE:
+                System.out.println("Последнее сохранение завершено: " + SnapshotWriter.getSize() + " групп за "
+                        + SnapshotWriter.getDurationMillis() + " мс (начато " + SnapshotWriter.getStartedAt() + ").");
+                break;
+            case FAILED:
+                System.out.println("Последнее сохранение завершилось ошибкой через " + SnapshotWriter.getDurationMillis()
+                        + " мс: " + SnapshotWriter.getError());
+                break;
+        }
+        System.out.println("Несохранённых изменений: " + JournalManager.getPendingRecords());
+    }
+
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
+}
@@ -0,0 +1,26 @@
+package commands;
+
+import static managers.MusicBandManager.textIndex;
+
+/**
+ * Класс, выполняющий полнотекстовый поиск по названию группы, описанию и названию лучшего альбома.
+ */
+public class Search implements Command {
+    /**
+     * Выводит группы, содержащие хотя бы одно слово запроса, в порядке убывания релевантности.
+     * Слово с {@code *} на конце ищется как префикс.
+     *
+     * @param args "слова [limit N] [offset N]".
+     */
+    @Override
+    public void execute(String args) {
+        TextQuery query = TextQuery.parse(args, "search {слова} [limit N] [offset N]");
+        if (query == null) return;
+        query.print(textIndex.search(query.text, query.top()));
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
@@ -1,19 +1,30 @@
 package commands;
 
+import managers.CommandExecutor;
+import models.BandSnapshot;
+
 import static managers.MusicBandManager.bands;
 
 public class Show implements Command{
     /**
-     * Отображает все группы из коллекции.
+     * Отображает все группы из коллекции в порядке возрастания ID. Снимок коллекции (см. {@link models.BandSnapshot})
+     * берётся под блокировкой чтения - хранилище без собственных версий при этом копируется, - а выводится
+     * без блокировки, поэтому вывод не мешает одновременным изменениям.
      *
      * @return
      */
     @Override
     public void execute(String args) {
-        if (bands.isEmpty()) {
+        BandSnapshot snapshot = CommandExecutor.read(bands::snapshot);
+        if (snapshot.isEmpty()) {
             System.out.println("Коллекция пуста.");
         } else {
-            bands.forEach(System.out::println);
+            snapshot.forEach(System.out::println);
         }
     }
+
+    @Override
+    public Access access() {
+        return Access.NONE;
+    }
 }
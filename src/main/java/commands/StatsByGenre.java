@@ -0,0 +1,63 @@
+package commands;
+
+import indexes.BestAlbumIndex;
+import indexes.GenreIndex;
+import models.MusicGenre;
+
+import java.util.Map;
+
+import static managers.MusicBandManager.genreIndex;
+
+/**
+ * Класс, выводящий статистику коллекции по жанрам.
+ */
+public class StatsByGenre implements Command {
+    /**
+     * Выводит для каждого жанра количество групп и количество, сумму, минимум, максимум и среднее
+     * для albumsCount, numberOfParticipants, bestAlbum.tracks и bestAlbum.sales.
+     * Значения поддерживаются при изменении коллекции, поэтому ответ не зависит от её размера.
+     *
+     * @param args необязательный жанр: если указан, выводится только он.
+     */
+    @Override
+    public void execute(String args) {
+        MusicGenre only = null;
+        if (args != null && !args.isBlank()) {
+            only = GenreFilter.parse(args.trim());
+            if (only == null) return;
+        }
+        for (Map.Entry<MusicGenre, GenreIndex.Partition> entry : genreIndex.getPartitions().entrySet()) {
+            if (only != null && entry.getKey() != only) continue;
+            GenreIndex.Partition partition = entry.getValue();
+            System.out.println(entry.getKey() + ": групп " + partition.size());
+            if (partition.size() == 0) continue;
+            print("albumsCount", partition.getAlbumsCountSize(), partition.getAlbumsSum(),
+                    partition.getAlbumsCountIndex().getMin(), partition.getAlbumsCountIndex().getMax());
+            print("numberOfParticipants", partition.getParticipantsSize(), partition.getParticipantsSum(),
+                    partition.getParticipantsHistogram().getMin(), partition.getParticipantsHistogram().getMax());
+            BestAlbumIndex bestAlbum = partition.getBestAlbumIndex();
+            print("bestAlbum.tracks", partition.getBestAlbumSize(), partition.getTracksSum(),
+                    bestAlbum.min(BestAlbumIndex.Field.TRACKS), bestAlbum.max(BestAlbumIndex.Field.TRACKS));
+            print("bestAlbum.sales", partition.getBestAlbumSize(), partition.getSalesSum(),
+                    bestAlbum.min(BestAlbumIndex.Field.SALES), bestAlbum.max(BestAlbumIndex.Field.SALES));
+        }
+    }
+
+    private static void print(String field, int count, double sum, Number min, Number max) {
+        if (count == 0) {
+            System.out.printf("  %-21s не указано%n", field);
+            return;
+        }
+        System.out.printf("  %-21s указано %d, сумма %s, мин %s, макс %s, среднее %.2f%n",
+                field, count, format(sum), format(min.doubleValue()), format(max.doubleValue()), sum / count);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? String.valueOf((long) value) : String.format("%.2f", value);
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
@@ -0,0 +1,85 @@
+package commands;
+
+import indexes.TextIndex;
+
+import java.util.Arrays;
+
+import static managers.MusicBandManager.bands;
+
+/**
+ * Разбор и вывод запросов к полнотекстовому индексу (find_by_name и search):
+ * текст запроса с необязательными {@code limit N} и {@code offset N} в конце.
+ */
+final class TextQuery {
+    private static final int DEFAULT_LIMIT = 20;
+
+    final String text;
+    final int limit;
+    final int offset;
+
+    private TextQuery(String text, int limit, int offset) {
+        this.text = text;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    /**
+     * Разбирает аргументы команды; при ошибке выводит подсказку.
+     * @param args аргументы команды.
+     * @param usage строка с описанием использования.
+     * @return запрос или {@code null}, если аргументы неверны.
+     */
+    static TextQuery parse(String args, String usage) {
+        String[] parts = args == null || args.isBlank() ? new String[0] : args.trim().split("\\s+");
+        int end = parts.length;
+        int limit = DEFAULT_LIMIT;
+        int offset = 0;
+        try {
+            while (end >= 3 && (parts[end - 2].equals("limit") || parts[end - 2].equals("offset"))) {
+                int value = Integer.parseInt(parts[end - 1]);
+                if (value < 0) {
+                    System.out.println("limit и offset не могут быть отрицательными.");
+                    return null;
+                }
+                if (parts[end - 2].equals("limit")) {
+                    limit = value;
+                } else {
+                    offset = value;
+                }
+                end -= 2;
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Неверное значение limit или offset.");
+            return null;
+        }
+        if (end == 0) {
+            System.out.println("Использование: " + usage);
+            return null;
+        }
+        return new TextQuery(String.join(" ", Arrays.copyOf(parts, end)), limit, offset);
+    }
+
+    /**
+     * @return сколько первых результатов нужно упорядочить для вывода страницы.
+     */
+    int top() {
+        return (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Выводит страницу результатов.
+     * @param result результат поиска, упорядоченный не менее чем на {@link #top()} мест.
+     */
+    void print(TextIndex.Result result) {
+        if (result.size() == 0) {
+            System.out.println("Ничего не найдено.");
+            return;
+        }
+        int from = Math.min(offset, result.ranked());
+        int to = (int) Math.min((long) from + limit, result.ranked());
+        for (int rank = from; rank < to; rank++) {
+            System.out.printf("%d. [%.3f] %s%n", rank + 1, result.score(rank), bands.get(result.id(rank)));
+        }
+        System.out.println("Показаны результаты " + (from < to ? (from + 1) + "-" + to : "0") + " из " + result.size() + ".");
+    }
+}
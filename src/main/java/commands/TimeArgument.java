@@ -0,0 +1,77 @@
+package commands;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Разбор момента времени в аргументах команд created_between и remove_older_than.
+ * <p>
+ * Допускаются: {@code now}; смещение назад от текущего момента ({@code -30s}, {@code -15m}, {@code -1h},
+ * {@code -7d}); дата и время ISO-8601 с зоной или смещением ({@code 2024-05-01T10:00:00+03:00},
+ * {@code 2024-05-01T10:00:00Z}); дата и время без зоны ({@code 2024-05-01T10:00}) и дата
+ * ({@code 2024-05-01}, начало суток) - в часовом поясе системы.
+ */
+final class TimeArgument {
+    static final String FORMATS = "now, -30s, -15m, -1h, -7d, 2024-05-01, 2024-05-01T10:00, 2024-05-01T10:00:00+03:00";
+
+    private TimeArgument() {}
+
+    /**
+     * @param value аргумент.
+     * @return момент в миллисекундах эпохи или {@code null}, если формат не распознан.
+     */
+    static Long parse(String value) {
+        if (value.equalsIgnoreCase("now")) return System.currentTimeMillis();
+        if (value.length() > 2 && value.charAt(0) == '-') {
+            Duration ago = parseDuration(value.substring(1));
+            if (ago != null) return System.currentTimeMillis() - ago.toMillis();
+        }
+        try {
+            return ZonedDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * @param millis момент в миллисекундах эпохи.
+     * @return момент в часовом поясе системы в формате ISO-8601.
+     */
+    static String format(long millis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toString();
+    }
+
+    private static Duration parseDuration(String value) {
+        long amount;
+        try {
+            amount = Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (amount < 0) return null;
+        try {
+            switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 's': return Duration.ofSeconds(amount);
+                case 'm': return Duration.ofMinutes(amount);
+                case 'h': return Duration.ofHours(amount);
+                case 'd': return Duration.ofDays(amount);
+                default: return null;
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+}
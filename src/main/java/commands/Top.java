@@ -0,0 +1,116 @@
+package commands;
+
+import indexes.ColumnStore;
+import models.MusicBand;
+
+import java.util.Locale;
+
+import static managers.MusicBandManager.albumsCountIndex;
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.columns;
+
+/**
+ * Класс, выводящий k групп с наибольшими (top) или наименьшими (bottom) значениями числового поля.
+ */
+public class Top implements Command {
+
+    /**
+     * Поле, по которому выбираются группы, и его имена в команде.
+     */
+    private enum Field {
+        ALBUMS_COUNT(ColumnStore.Column.ALBUMS_COUNT, "albumscount", "albums"),
+        NUMBER_OF_PARTICIPANTS(ColumnStore.Column.NUMBER_OF_PARTICIPANTS, "numberofparticipants", "participants"),
+        BEST_ALBUM_SALES(ColumnStore.Column.BEST_ALBUM_SALES, "bestalbum.sales", "sales"),
+        BEST_ALBUM_TRACKS(ColumnStore.Column.BEST_ALBUM_TRACKS, "bestalbum.tracks", "tracks");
+
+        private final ColumnStore.Column column;
+        private final String[] names;
+
+        Field(ColumnStore.Column column, String... names) {
+            this.column = column;
+            this.names = names;
+        }
+
+        static Field fromString(String value) {
+            String name = value.toLowerCase(Locale.ROOT);
+            for (Field field : values()) {
+                for (String candidate : field.names) {
+                    if (candidate.equals(name)) return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final boolean largest;
+
+    /**
+     * @param largest {@code true} для команды top, {@code false} для bottom.
+     */
+    public Top(boolean largest) {
+        this.largest = largest;
+    }
+
+    /**
+     * Выводит k групп с наибольшими (top) или наименьшими (bottom) значениями поля; группы без значения
+     * пропускаются. Для albumsCount ответ берётся из упорядоченного индекса за O(log n + k),
+     * для остальных полей - одним проходом по колоночной копии с кучей из k элементов, за O(n log k).
+     * При равных значениях top выводит сначала группы с меньшим ID, bottom - в обратном порядке.
+     *
+     * @param args "поле k", где поле - albums, participants, sales или tracks.
+     */
+    @Override
+    public void execute(String args) {
+        String command = largest ? "top" : "bottom";
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 2) {
+            System.out.println("Использование: " + command + " {albums|participants|sales|tracks} {k}");
+            return;
+        }
+        Field field = Field.fromString(parts[0]);
+        if (field == null) {
+            System.out.println("Неизвестное поле: " + parts[0] + ". Допустимые поля: albums, participants, sales, tracks.");
+            return;
+        }
+        int k;
+        try {
+            k = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            System.out.println("k должно быть целым числом.");
+            return;
+        }
+        if (k <= 0) {
+            System.out.println("k должно быть больше 0.");
+            return;
+        }
+
+        int[] ids;
+        if (field == Field.ALBUMS_COUNT) {
+            ids = largest ? albumsCountIndex.topIds(k) : albumsCountIndex.bottomIds(k);
+        } else {
+            ids = columns.top(field.column, k, largest);
+        }
+        if (ids.length == 0) {
+            System.out.println("Ни у одной группы поле не указано.");
+            return;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            MusicBand band = bands.get(ids[i]);
+            System.out.println((i + 1) + ". " + value(field, band) + ": " + band);
+        }
+    }
+
+    private static String value(Field field, MusicBand band) {
+        switch (field) {
+            case ALBUMS_COUNT: return String.valueOf(band.getRawAlbumsCount());
+            case NUMBER_OF_PARTICIPANTS: return String.valueOf(band.getRawNumberOfParticipants());
+            case BEST_ALBUM_SALES: return String.format("%.2f", band.getBestAlbumSales());
+            default: return String.valueOf(band.getBestAlbumTracks());
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
@@ -0,0 +1,43 @@
+package commands;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.spatialIndex;
+
+/**
+ * Класс, выводящий группы, координаты которых лежат в прямоугольнике.
+ */
+public class Within implements Command {
+    /**
+     * Выводит группы внутри прямоугольника с углами (x1, y1) и (x2, y2), включая границы, в порядке ID.
+     * Просматриваются только части пространственного индекса, пересекающие прямоугольник.
+     *
+     * @param args "x1 y1 x2 y2".
+     */
+    @Override
+    public void execute(String args) {
+        String[] parts = args == null ? new String[0] : args.trim().split("\\s+");
+        if (parts.length != 4) {
+            System.out.println("Использование: within {x1} {y1} {x2} {y2}");
+            return;
+        }
+        try {
+            int[] ids = spatialIndex.within(Float.parseFloat(parts[0]), Float.parseFloat(parts[1]),
+                    Float.parseFloat(parts[2]), Float.parseFloat(parts[3]));
+            if (ids.length == 0) {
+                System.out.println("В прямоугольнике нет групп.");
+                return;
+            }
+            for (int id : ids) {
+                System.out.println(bands.get(id));
+            }
+            System.out.println("Найдено групп: " + ids.length);
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат данных для within.");
+        }
+    }
+
+    @Override
+    public Access access() {
+        return Access.READ;
+    }
+}
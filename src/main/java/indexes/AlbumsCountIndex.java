@@ -0,0 +1,113 @@
+package indexes;
+
+import models.MusicBand;
+
+/**
+ * Упорядоченный индекс групп по количеству альбомов.
+ * Группы хранятся в сбалансированном дереве по паре (albumsCount, ID), поэтому минимум
+ * и максимум находятся за O(log n) без просмотра коллекции. Группы с неуказанным
+ * ({@code null}) количеством альбомов в индекс не попадают: их нельзя сравнить с другими.
+ * <p>
+ * Индекс хранит только пары чисел, а не объекты групп, поэтому не удерживает их в памяти
+ * (это важно для хранилища вне кучи, где объекты групп создаются при чтении).
+ */
+public class AlbumsCountIndex implements BandIndex {
+    /**
+     * Ключ - albumsCount в старших 32 битах и инвертированный ID в младших: порядок по возрастанию
+     * albumsCount, при равенстве - по убыванию ID, чтобы last() давал максимум с меньшим ID.
+     */
+    private final LongTreeSet byAlbumsCount = new LongTreeSet();
+
+    @Override
+    public void add(MusicBand band) {
+        if (band.getRawAlbumsCount() != MusicBand.NULL_INT) {
+            byAlbumsCount.add(key(band));
+        }
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        if (band.getRawAlbumsCount() != MusicBand.NULL_INT) {
+            byAlbumsCount.remove(key(band));
+        }
+    }
+
+    @Override
+    public void clear() {
+        byAlbumsCount.clear();
+    }
+
+    /**
+     * Возвращает минимальное количество альбомов в коллекции.
+     * @return минимальное значение или {@code null}, если ни у одной группы оно не указано.
+     */
+    public Integer getMin() {
+        return byAlbumsCount.isEmpty() ? null : (int) (byAlbumsCount.first() >> 32);
+    }
+
+    /**
+     * Возвращает максимальное количество альбомов в коллекции.
+     * @return максимальное значение или {@code null}, если ни у одной группы оно не указано.
+     */
+    public Integer getMax() {
+        return byAlbumsCount.isEmpty() ? null : (int) (byAlbumsCount.last() >> 32);
+    }
+
+    /**
+     * Возвращает ID группы с максимальным количеством альбомов (при равенстве - с меньшим ID).
+     * @return ID группы или {@code null}, если ни у одной группы количество альбомов не указано.
+     */
+    public Integer getMaxId() {
+        return byAlbumsCount.isEmpty() ? null : ~(int) byAlbumsCount.last();
+    }
+
+    /**
+     * Возвращает группы с наибольшим количеством альбомов за O(log n + k).
+     * @param k количество групп.
+     * @return ID групп по убыванию albumsCount (при равенстве - по возрастанию ID).
+     */
+    public int[] topIds(int k) {
+        return ids(byAlbumsCount.last(k));
+    }
+
+    /**
+     * Возвращает группы с наименьшим количеством альбомов за O(log n + k)
+     * в порядке, обратном {@link #topIds(int)}.
+     * @param k количество групп.
+     * @return ID групп по возрастанию albumsCount (при равенстве - по убыванию ID).
+     */
+    public int[] bottomIds(int k) {
+        return ids(byAlbumsCount.first(k));
+    }
+
+    /**
+     * Проверяет, является ли количество альбомов строго меньше минимального в коллекции.
+     * {@code null} не считается минимальным.
+     * @param albumsCount проверяемое количество альбомов.
+     * @return {@code true}, если значение меньше минимума (или коллекция не содержит значений).
+     */
+    public boolean isLessThanMin(Integer albumsCount) {
+        if (albumsCount == null) return false;
+        Integer min = getMin();
+        return min == null || albumsCount < min;
+    }
+
+    /**
+     * @return количество групп в индексе (с указанным количеством альбомов).
+     */
+    public int size() {
+        return byAlbumsCount.size();
+    }
+
+    private static long key(MusicBand band) {
+        return ((long) band.getRawAlbumsCount() << 32) | (~band.getId() & 0xFFFFFFFFL);
+    }
+
+    private static int[] ids(long[] keys) {
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = ~(int) keys[i];
+        }
+        return ids;
+    }
+}
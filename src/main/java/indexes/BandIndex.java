@@ -0,0 +1,28 @@
+package indexes;
+
+import models.MusicBand;
+
+/**
+ * Вторичный индекс над коллекцией музыкальных групп.
+ * Обновляется {@link managers.MusicBandManager} при каждом изменении коллекции,
+ * поэтому команды могут отвечать по индексу, не просматривая все группы.
+ */
+public interface BandIndex {
+
+    /**
+     * Учитывает добавленную группу.
+     * @param band группа, добавленная в коллекцию.
+     */
+    void add(MusicBand band);
+
+    /**
+     * Забывает удалённую группу.
+     * @param band группа, удалённая из коллекции.
+     */
+    void remove(MusicBand band);
+
+    /**
+     * Очищает индекс.
+     */
+    void clear();
+}
@@ -0,0 +1,106 @@
+package indexes;
+
+import models.MusicBand;
+
+/**
+ * Индекс групп по полям лучшего альбома: количеству треков и продажам.
+ * Для каждого поля ведётся {@link CountTree}, поэтому запросы вида
+ * "сколько групп с bestAlbum.tracks меньше x" выполняются за O(log n).
+ */
+public class BestAlbumIndex implements BandIndex {
+
+    /**
+     * Поле лучшего альбома, по которому выполняется подсчёт.
+     */
+    public enum Field {
+        /** Количество треков. */
+        TRACKS,
+        /** Продажи. */
+        SALES;
+
+        /**
+         * Возвращает поле по номеру, который вводит пользователь (1 - треки, 2 - продажи).
+         * @param choice номер поля.
+         * @return поле или {@code null}, если номер неверный.
+         */
+        public static Field fromChoice(int choice) {
+            return choice == 1 ? TRACKS : choice == 2 ? SALES : null;
+        }
+    }
+
+    private final CountTree tracks = new CountTree();
+    private final CountTree sales = new CountTree();
+
+    @Override
+    public void add(MusicBand band) {
+        if (band.hasBestAlbum()) {
+            tracks.add(band.getBestAlbumTracks());
+            sales.add(band.getBestAlbumSales());
+        }
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        if (band.hasBestAlbum()) {
+            tracks.remove(band.getBestAlbumTracks());
+            sales.remove(band.getBestAlbumSales());
+        }
+    }
+
+    @Override
+    public void clear() {
+        tracks.clear();
+        sales.clear();
+    }
+
+    /**
+     * @param field поле альбома.
+     * @return минимальное значение поля или {@code null}, если в индексе нет альбомов.
+     */
+    public Double min(Field field) {
+        return tree(field).first();
+    }
+
+    /**
+     * @param field поле альбома.
+     * @return максимальное значение поля или {@code null}, если в индексе нет альбомов.
+     */
+    public Double max(Field field) {
+        return tree(field).last();
+    }
+
+    /**
+     * @return количество групп с лучшим альбомом в индексе.
+     */
+    public int size() {
+        return tracks.size();
+    }
+
+    /**
+     * @param field поле альбома.
+     * @return количество групп, у которых значение поля меньше {@code value}.
+     */
+    public int countLess(Field field, double value) {
+        return tree(field).countLess(value);
+    }
+
+    /**
+     * @param field поле альбома.
+     * @return количество групп, у которых значение поля больше {@code value}.
+     */
+    public int countGreater(Field field, double value) {
+        return tree(field).countGreater(value);
+    }
+
+    /**
+     * @param field поле альбома.
+     * @return количество групп, у которых значение поля лежит в отрезке {@code [from, to]}.
+     */
+    public int countBetween(Field field, double from, double to) {
+        return tree(field).countBetween(from, to);
+    }
+
+    private CountTree tree(Field field) {
+        return field == Field.TRACKS ? tracks : sales;
+    }
+}
@@ -0,0 +1,301 @@
+package indexes;
+
+import models.IntIntHashMap;
+import models.MusicBand;
+
+import java.util.Arrays;
+
+/**
+ * Колоночная копия числовых полей коллекции (структура массивов).
+ * <p>
+ * Для каждой группы в параллельных массивах хранятся ID, albumsCount, numberOfParticipants,
+ * bestAlbum.tracks, bestAlbum.sales и координаты. Агрегаты, для которых нет отдельного индекса,
+ * выполняются простыми циклами по одному массиву примитивов: данные идут в памяти подряд,
+ * без перехода по ссылкам на объекты групп, и JIT может развернуть и векторизовать такие циклы.
+ * <p>
+ * Строки хранятся плотно: при удалении на место удалённой строки переносится последняя,
+ * а таблица ID → номер строки позволяет найти её за O(1). Отсутствующие целые значения
+ * хранятся как {@link MusicBand#NULL_INT}, продажи группы без лучшего альбома - как NaN;
+ * такие строки не попадают ни в одно условие сравнения.
+ */
+public class ColumnStore implements BandIndex {
+    /** Примерный объём памяти на строку: семь массивов по 4 байта и запись таблицы ID. */
+    public static final int BYTES_PER_ROW = 44;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Числовое поле группы, по которому выполняется просмотр.
+     */
+    public enum Column {
+        ALBUMS_COUNT,
+        NUMBER_OF_PARTICIPANTS,
+        BEST_ALBUM_TRACKS,
+        BEST_ALBUM_SALES,
+        X,
+        Y
+    }
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] albumsCount = new int[INITIAL_CAPACITY];
+    private int[] participants = new int[INITIAL_CAPACITY];
+    private int[] tracks = new int[INITIAL_CAPACITY];
+    private float[] sales = new float[INITIAL_CAPACITY];
+    private float[] x = new float[INITIAL_CAPACITY];
+    private float[] y = new float[INITIAL_CAPACITY];
+    private final IntIntHashMap rows = new IntIntHashMap();
+
+    @Override
+    public void add(MusicBand band) {
+        if (rows.containsKey(band.getId())) return;
+        if (size == ids.length) {
+            grow(size + (size >> 1) + 1);
+        }
+        int row = size++;
+        ids[row] = band.getId();
+        albumsCount[row] = band.getRawAlbumsCount();
+        participants[row] = band.getRawNumberOfParticipants();
+        tracks[row] = band.hasBestAlbum() ? band.getBestAlbumTracks() : MusicBand.NULL_INT;
+        sales[row] = band.hasBestAlbum() ? band.getBestAlbumSales() : Float.NaN;
+        x[row] = band.getX();
+        y[row] = band.getY();
+        rows.put(band.getId(), row);
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        int row = rows.remove(band.getId());
+        if (row == IntIntHashMap.NO_VALUE) return;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            albumsCount[row] = albumsCount[last];
+            participants[row] = participants[last];
+            tracks[row] = tracks[last];
+            sales[row] = sales[last];
+            x[row] = x[last];
+            y[row] = y[last];
+            rows.put(ids[row], row);
+        }
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        rows.clear();
+    }
+
+    /**
+     * @return количество строк (групп).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Считает группы, у которых значение поля строго меньше заданного.
+     * @param column поле.
+     * @param value граница.
+     * @return количество групп; группы без значения не учитываются.
+     */
+    public int countLess(Column column, double value) {
+        if (isFloat(column)) {
+            return countBetween(floats(column), Double.NEGATIVE_INFINITY, Math.nextDown(value));
+        }
+        return countBetween(ints(column), MusicBand.NULL_INT + 1L, (long) Math.ceil(value) - 1);
+    }
+
+    /**
+     * Считает группы, у которых значение поля строго больше заданного.
+     * @param column поле.
+     * @param value граница.
+     * @return количество групп; группы без значения не учитываются.
+     */
+    public int countGreater(Column column, double value) {
+        if (isFloat(column)) {
+            return countBetween(floats(column), Math.nextUp(value), Double.POSITIVE_INFINITY);
+        }
+        return countBetween(ints(column), (long) Math.floor(value) + 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Считает группы, у которых значение поля лежит в отрезке {@code [from, to]}.
+     * @param column поле.
+     * @param from нижняя граница (включительно).
+     * @param to верхняя граница (включительно).
+     * @return количество групп; группы без значения не учитываются.
+     */
+    public int countBetween(Column column, double from, double to) {
+        if (isFloat(column)) {
+            return countBetween(floats(column), from, to);
+        }
+        return countBetween(ints(column), Math.max((long) Math.ceil(from), MusicBand.NULL_INT + 1L), (long) Math.floor(to));
+    }
+
+    /**
+     * @return минимальное albumsCount или {@code null}, если ни у одной группы оно не указано.
+     */
+    public Integer getMinAlbumsCount() {
+        int min = Integer.MAX_VALUE;
+        boolean found = false;
+        for (int i = 0; i < size; i++) {
+            int value = albumsCount[i];
+            if (value != MusicBand.NULL_INT) {
+                found = true;
+                min = Math.min(min, value);
+            }
+        }
+        return found ? min : null;
+    }
+
+    /**
+     * @return ID группы с максимальным albumsCount (при равенстве - с меньшим ID)
+     * или {@code null}, если ни у одной группы оно не указано.
+     */
+    public Integer getMaxAlbumsCountId() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            int value = albumsCount[i];
+            if (value == MusicBand.NULL_INT) continue;
+            if (best < 0 || value > albumsCount[best] || (value == albumsCount[best] && ids[i] < ids[best])) {
+                best = i;
+            }
+        }
+        return best < 0 ? null : ids[best];
+    }
+
+    /**
+     * Выбирает группы с наибольшими или наименьшими значениями поля одним проходом по колонке
+     * с кучей из {@code k} строк, за O(n log k) без сортировки и копирования колонки.
+     * @param column поле.
+     * @param k количество групп.
+     * @param largest {@code true} - наибольшие значения, {@code false} - наименьшие.
+     * @return ID групп: для наибольших - по убыванию значения, при равенстве по возрастанию ID;
+     * для наименьших - в обратном порядке. Группы без значения не учитываются.
+     */
+    public int[] top(Column column, int k, boolean largest) {
+        int[] intValues = isFloat(column) ? null : ints(column);
+        float[] floatValues = isFloat(column) ? floats(column) : null;
+        // в корне кучи - худшая из отобранных строк
+        int[] heap = new int[Math.max(0, Math.min(k, size))];
+        int count = 0;
+        for (int row = 0; row < size && heap.length > 0; row++) {
+            double value = intValues != null ? intValues[row] : floatValues[row];
+            if (intValues != null ? intValues[row] == MusicBand.NULL_INT : Double.isNaN(value)) continue;
+            if (count < heap.length) {
+                int i = count++;
+                while (i > 0 && better(heap[(i - 1) >>> 1], row, intValues, floatValues, largest)) {
+                    heap[i] = heap[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                heap[i] = row;
+            } else if (better(row, heap[0], intValues, floatValues, largest)) {
+                siftDown(heap, count, row, intValues, floatValues, largest);
+            }
+        }
+        int[] result = new int[count];
+        // худшая строка извлекается из корня и занимает последнее свободное место
+        for (int last = count - 1; last >= 0; last--) {
+            result[last] = ids[heap[0]];
+            siftDown(heap, last, heap[last], intValues, floatValues, largest);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает указанные значения целочисленного поля, отсортированные по возрастанию.
+     * @param column целочисленное поле.
+     * @return новый массив значений без отсутствующих.
+     * @throws IllegalArgumentException если поле не целочисленное.
+     */
+    public int[] sortedValues(Column column) {
+        if (isFloat(column)) throw new IllegalArgumentException("Поле " + column + " не целочисленное.");
+        int[] source = ints(column);
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int value = source[i];
+            result[count] = value;
+            count += value != MusicBand.NULL_INT ? 1 : 0;
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int countBetween(int[] column, long from, long to) {
+        if (from > to) return 0;
+        // границы уже лежат в диапазоне int, поэтому цикл сравнивает значения без расширения до long
+        int low = (int) Math.max(from, Integer.MIN_VALUE);
+        int high = (int) Math.min(to, Integer.MAX_VALUE);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int value = column[i];
+            count += (value >= low & value <= high) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private int countBetween(float[] column, double from, double to) {
+        if (!(from <= to)) return 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double value = column[i];
+            count += (value >= from & value <= to) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private void siftDown(int[] heap, int count, int row, int[] intValues, float[] floatValues, boolean largest) {
+        int i = 0;
+        while (2 * i + 1 < count) {
+            int child = 2 * i + 1;
+            if (child + 1 < count && better(heap[child], heap[child + 1], intValues, floatValues, largest)) child++;
+            if (!better(row, heap[child], intValues, floatValues, largest)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (count > 0) heap[i] = row;
+    }
+
+    /**
+     * @return {@code true}, если строка {@code a} стоит в выдаче выше строки {@code b}.
+     */
+    private boolean better(int a, int b, int[] intValues, float[] floatValues, boolean largest) {
+        int cmp = intValues != null ? Integer.compare(intValues[a], intValues[b]) : Float.compare(floatValues[a], floatValues[b]);
+        if (cmp == 0) cmp = Integer.compare(ids[b], ids[a]);
+        return largest ? cmp > 0 : cmp < 0;
+    }
+
+    private static boolean isFloat(Column column) {
+        return column == Column.BEST_ALBUM_SALES || column == Column.X || column == Column.Y;
+    }
+
+    private int[] ints(Column column) {
+        switch (column) {
+            case ALBUMS_COUNT: return albumsCount;
+            case NUMBER_OF_PARTICIPANTS: return participants;
+            case BEST_ALBUM_TRACKS: return tracks;
+            default: throw new IllegalArgumentException("Поле " + column + " не целочисленное.");
+        }
+    }
+
+    private float[] floats(Column column) {
+        switch (column) {
+            case BEST_ALBUM_SALES: return sales;
+            case X: return x;
+            case Y: return y;
+            default: throw new IllegalArgumentException("Поле " + column + " не дробное.");
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        albumsCount = Arrays.copyOf(albumsCount, capacity);
+        participants = Arrays.copyOf(participants, capacity);
+        tracks = Arrays.copyOf(tracks, capacity);
+        sales = Arrays.copyOf(sales, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+    }
+}
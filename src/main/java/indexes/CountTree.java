@@ -0,0 +1,232 @@
+package indexes;
+
+/**
+ * Мультимножество чисел с подсчётом ранга (дерево порядковых статистик).
+ * <p>
+ * Это АВЛ-дерево по различным значениям: каждый узел хранит кратность своего значения
+ * и общее количество элементов в поддереве. Добавление, удаление и запросы
+ * "сколько элементов меньше x" выполняются за O(log n) независимо от размера коллекции.
+ */
+public class CountTree {
+
+    private static final class Node {
+        final double key;
+        int count = 1;
+        int total = 1;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(double key) {
+            this.key = key;
+        }
+    }
+
+    private Node root;
+
+    /**
+     * Добавляет значение.
+     * @param key значение.
+     */
+    public void add(double key) {
+        root = insert(root, key);
+    }
+
+    /**
+     * Удаляет одно вхождение значения, если оно есть.
+     * @param key значение.
+     */
+    public void remove(double key) {
+        root = delete(root, key);
+    }
+
+    /**
+     * Удаляет все значения.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * @return количество значений с учётом кратности.
+     */
+    public int size() {
+        return total(root);
+    }
+
+    /**
+     * @return минимальное значение или {@code null}, если дерево пусто.
+     */
+    public Double first() {
+        if (root == null) return null;
+        Node node = root;
+        while (node.left != null) node = node.left;
+        return node.key;
+    }
+
+    /**
+     * @return максимальное значение или {@code null}, если дерево пусто.
+     */
+    public Double last() {
+        if (root == null) return null;
+        Node node = root;
+        while (node.right != null) node = node.right;
+        return node.key;
+    }
+
+    /**
+     * Считает значения строго меньше заданного.
+     * @param key граница.
+     * @return количество значений {@code < key}.
+     */
+    public int countLess(double key) {
+        int result = 0;
+        Node node = root;
+        while (node != null) {
+            if (Double.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                result += total(node.left) + node.count;
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает значения, меньшие или равные заданному.
+     * @param key граница.
+     * @return количество значений {@code <= key}.
+     */
+    public int countLessOrEqual(double key) {
+        int result = 0;
+        Node node = root;
+        while (node != null) {
+            if (Double.compare(key, node.key) < 0) {
+                node = node.left;
+            } else {
+                result += total(node.left) + node.count;
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает значения строго больше заданного.
+     * @param key граница.
+     * @return количество значений {@code > key}.
+     */
+    public int countGreater(double key) {
+        return size() - countLessOrEqual(key);
+    }
+
+    /**
+     * Считает значения в отрезке {@code [from, to]}.
+     * @param from нижняя граница (включительно).
+     * @param to верхняя граница (включительно).
+     * @return количество значений в отрезке; 0, если {@code from > to}.
+     */
+    public int countBetween(double from, double to) {
+        if (Double.compare(from, to) > 0) return 0;
+        return countLessOrEqual(to) - countLess(from);
+    }
+
+    private static Node insert(Node node, double key) {
+        if (node == null) return new Node(key);
+        int cmp = Double.compare(key, node.key);
+        if (cmp == 0) {
+            node.count++;
+            node.total++;
+            return node;
+        }
+        if (cmp < 0) {
+            node.left = insert(node.left, key);
+        } else {
+            node.right = insert(node.right, key);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, double key) {
+        if (node == null) return null;
+        int cmp = Double.compare(key, node.key);
+        if (cmp < 0) {
+            node.left = delete(node.left, key);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, key);
+        } else if (node.count > 1) {
+            node.count--;
+            node.total--;
+            return node;
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // узел заменяется минимальным узлом правого поддерева
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = right;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) return node.right;
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.total = total(node.left) + total(node.right) + node.count;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int total(Node node) {
+        return node == null ? 0 : node.total;
+    }
+}
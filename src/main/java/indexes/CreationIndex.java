@@ -0,0 +1,193 @@
+package indexes;
+
+import models.MusicBand;
+
+import java.util.Arrays;
+
+/**
+ * Индекс групп по времени создания (миллисекунды эпохи).
+ * <p>
+ * Пары (время, ID) хранятся упорядоченными в блоках до {@value #CHUNK_CAPACITY} элементов
+ * (параллельные массивы {@code long[]} и {@code int[]}), а блоки - в массиве, упорядоченном
+ * по последнему ключу. Поиск блока и позиции в нём - двоичный, поэтому выборка интервала
+ * времени стоит O(log n + k). Группы обычно создаются в порядке времени, так что добавление
+ * почти всегда попадает в конец последнего блока и не сдвигает элементы.
+ */
+public class CreationIndex implements BandIndex {
+    private static final int CHUNK_CAPACITY = 512;
+
+    private static final class Chunk {
+        final long[] times = new long[CHUNK_CAPACITY];
+        final int[] ids = new int[CHUNK_CAPACITY];
+        int size;
+    }
+
+    /** Блоки в порядке ключей; пустых блоков не бывает. */
+    private Chunk[] chunks = new Chunk[16];
+    private int chunkCount;
+    private int size;
+
+    @Override
+    public void add(MusicBand band) {
+        long time = band.getCreationMillis();
+        int id = band.getId();
+        int c = Math.min(findChunk(time, id), chunkCount - 1);
+        if (c < 0) {
+            insertChunk(0, new Chunk());
+            c = 0;
+        }
+        Chunk chunk = chunks[c];
+        int position = search(chunk, time, id);
+        if (position >= 0) return;
+        position = -position - 1;
+        System.arraycopy(chunk.times, position, chunk.times, position + 1, chunk.size - position);
+        System.arraycopy(chunk.ids, position, chunk.ids, position + 1, chunk.size - position);
+        chunk.times[position] = time;
+        chunk.ids[position] = id;
+        chunk.size++;
+        size++;
+        if (chunk.size == CHUNK_CAPACITY) {
+            // полный блок делится пополам
+            Chunk upper = new Chunk();
+            int half = CHUNK_CAPACITY / 2;
+            upper.size = CHUNK_CAPACITY - half;
+            System.arraycopy(chunk.times, half, upper.times, 0, upper.size);
+            System.arraycopy(chunk.ids, half, upper.ids, 0, upper.size);
+            chunk.size = half;
+            insertChunk(c + 1, upper);
+        }
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        long time = band.getCreationMillis();
+        int id = band.getId();
+        int c = findChunk(time, id);
+        if (c == chunkCount) return;
+        Chunk chunk = chunks[c];
+        int position = search(chunk, time, id);
+        if (position < 0) return;
+        System.arraycopy(chunk.times, position + 1, chunk.times, position, chunk.size - position - 1);
+        System.arraycopy(chunk.ids, position + 1, chunk.ids, position, chunk.size - position - 1);
+        chunk.size--;
+        size--;
+        if (chunk.size == 0) {
+            System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c - 1);
+            chunks[--chunkCount] = null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        chunks = new Chunk[16];
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * @return количество групп в индексе.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return время создания самой старой группы или {@code null}, если индекс пуст.
+     */
+    public Long getOldest() {
+        return chunkCount == 0 ? null : chunks[0].times[0];
+    }
+
+    /**
+     * @return время создания самой новой группы или {@code null}, если индекс пуст.
+     */
+    public Long getNewest() {
+        if (chunkCount == 0) return null;
+        Chunk last = chunks[chunkCount - 1];
+        return last.times[last.size - 1];
+    }
+
+    /**
+     * Возвращает группы, созданные в отрезке времени.
+     * @param from начало отрезка (включительно), миллисекунды эпохи.
+     * @param to конец отрезка (включительно), миллисекунды эпохи.
+     * @return ID групп в порядке времени создания (при равном времени - по возрастанию ID).
+     */
+    public int[] between(long from, long to) {
+        if (from > to || chunkCount == 0) return new int[0];
+        int[] result = new int[16];
+        int count = 0;
+        int c = findChunk(from, Integer.MIN_VALUE);
+        int position = c == chunkCount ? 0 : -search(chunks[c], from, Integer.MIN_VALUE) - 1;
+        for (; c < chunkCount; c++, position = 0) {
+            Chunk chunk = chunks[c];
+            for (int i = position; i < chunk.size; i++) {
+                if (chunk.times[i] > to) return Arrays.copyOf(result, count);
+                if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                result[count++] = chunk.ids[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Возвращает группы, созданные раньше заданного момента.
+     * @param time момент, миллисекунды эпохи.
+     * @return ID групп в порядке времени создания.
+     */
+    public int[] olderThan(long time) {
+        return time == Long.MIN_VALUE ? new int[0] : between(Long.MIN_VALUE, time - 1);
+    }
+
+    /**
+     * @return номер первого блока, последний ключ которого не меньше заданного, или {@code chunkCount}.
+     */
+    private int findChunk(long time, int id) {
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Chunk chunk = chunks[middle];
+            if (compare(chunk.times[chunk.size - 1], chunk.ids[chunk.size - 1], time, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return позиция ключа в блоке или {@code -(позиция вставки) - 1}, как у {@link Arrays#binarySearch}.
+     */
+    private static int search(Chunk chunk, long time, int id) {
+        int low = 0;
+        int high = chunk.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compare(chunk.times[middle], chunk.ids[middle], time, id);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int compare(long time, int id, long otherTime, int otherId) {
+        int cmp = Long.compare(time, otherTime);
+        return cmp != 0 ? cmp : Integer.compare(id, otherId);
+    }
+
+    private void insertChunk(int index, Chunk chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        chunks[index] = chunk;
+        chunkCount++;
+    }
+}
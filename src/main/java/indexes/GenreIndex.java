@@ -0,0 +1,148 @@
+package indexes;
+
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбиение коллекции по жанрам.
+ * <p>
+ * Для каждого жанра ведётся своя часть ({@link Partition}) со счётчиками, суммами и собственными
+ * экземплярами индексов ({@link AlbumsCountIndex}, {@link BestAlbumIndex}, {@link ParticipantsHistogram}).
+ * Поэтому статистика по жанрам отдаётся за O(число жанров), а агрегаты с фильтром по жанру
+ * обращаются только к индексам нужной части. Группы без жанра ни в одну часть не попадают.
+ */
+public class GenreIndex implements BandIndex {
+
+    /**
+     * Часть коллекции с одним жанром.
+     */
+    public static class Partition {
+        private final AlbumsCountIndex albumsCount = new AlbumsCountIndex();
+        private final BestAlbumIndex bestAlbum = new BestAlbumIndex();
+        private final ParticipantsHistogram participants = new ParticipantsHistogram();
+        private final List<BandIndex> indexes = List.of(albumsCount, bestAlbum, participants);
+        private int size;
+        private int participantsCount;
+        private long albumsSum;
+        private long participantsSum;
+        private long tracksSum;
+        private double salesSum;
+
+        private void add(MusicBand band) {
+            size++;
+            if (band.getRawAlbumsCount() != MusicBand.NULL_INT) albumsSum += band.getRawAlbumsCount();
+            if (band.getRawNumberOfParticipants() != MusicBand.NULL_INT) {
+                participantsCount++;
+                participantsSum += band.getRawNumberOfParticipants();
+            }
+            if (band.hasBestAlbum()) {
+                tracksSum += band.getBestAlbumTracks();
+                salesSum += band.getBestAlbumSales();
+            }
+            for (BandIndex index : indexes) {
+                index.add(band);
+            }
+        }
+
+        private void remove(MusicBand band) {
+            size--;
+            if (band.getRawAlbumsCount() != MusicBand.NULL_INT) albumsSum -= band.getRawAlbumsCount();
+            if (band.getRawNumberOfParticipants() != MusicBand.NULL_INT) {
+                participantsCount--;
+                participantsSum -= band.getRawNumberOfParticipants();
+            }
+            if (band.hasBestAlbum()) {
+                tracksSum -= band.getBestAlbumTracks();
+                salesSum -= band.getBestAlbumSales();
+            }
+            for (BandIndex index : indexes) {
+                index.remove(band);
+            }
+        }
+
+        private void clear() {
+            size = 0;
+            participantsCount = 0;
+            albumsSum = 0;
+            participantsSum = 0;
+            tracksSum = 0;
+            salesSum = 0;
+            for (BandIndex index : indexes) {
+                index.clear();
+            }
+        }
+
+        /** @return количество групп жанра. */
+        public int size() { return size; }
+        /** @return количество групп жанра с указанным albumsCount. */
+        public int getAlbumsCountSize() { return albumsCount.size(); }
+        /** @return сумма albumsCount по группам жанра. */
+        public long getAlbumsSum() { return albumsSum; }
+        /** @return количество групп жанра с указанным числом участников. */
+        public int getParticipantsSize() { return participantsCount; }
+        /** @return сумма числа участников по группам жанра. */
+        public long getParticipantsSum() { return participantsSum; }
+        /** @return количество групп жанра с лучшим альбомом. */
+        public int getBestAlbumSize() { return bestAlbum.size(); }
+        /** @return сумма треков лучших альбомов. */
+        public long getTracksSum() { return tracksSum; }
+        /** @return сумма продаж лучших альбомов. */
+        public double getSalesSum() { return salesSum; }
+
+        /** @return индекс albumsCount групп жанра. */
+        public AlbumsCountIndex getAlbumsCountIndex() { return albumsCount; }
+        /** @return индекс полей лучшего альбома групп жанра. */
+        public BestAlbumIndex getBestAlbumIndex() { return bestAlbum; }
+        /** @return гистограмма числа участников групп жанра. */
+        public ParticipantsHistogram getParticipantsHistogram() { return participants; }
+    }
+
+    private final Map<MusicGenre, Partition> partitions = new EnumMap<>(MusicGenre.class);
+
+    public GenreIndex() {
+        for (MusicGenre genre : MusicGenre.values()) {
+            partitions.put(genre, new Partition());
+        }
+    }
+
+    @Override
+    public void add(MusicBand band) {
+        if (band.getGenre() != null) {
+            partitions.get(band.getGenre()).add(band);
+        }
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        if (band.getGenre() != null) {
+            partitions.get(band.getGenre()).remove(band);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Partition partition : partitions.values()) {
+            partition.clear();
+        }
+    }
+
+    /**
+     * @param genre жанр.
+     * @return часть коллекции с этим жанром.
+     */
+    public Partition get(MusicGenre genre) {
+        return partitions.get(genre);
+    }
+
+    /**
+     * @return части коллекции в порядке объявления жанров.
+     */
+    public Map<MusicGenre, Partition> getPartitions() {
+        return Collections.unmodifiableMap(partitions);
+    }
+}
@@ -0,0 +1,245 @@
+package indexes;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Упорядоченное множество чисел {@code long} без объектов на элемент.
+ * <p>
+ * Это АВЛ-дерево, узлы которого лежат в параллельных массивах (ключ, левый и правый потомок,
+ * высота), а освобождённые узлы переиспользуются через список свободных. Добавление, удаление,
+ * минимум и максимум выполняются за O(log n), а элемент занимает около 17 байт
+ * вместо примерно 56 у {@code TreeSet<Long>}.
+ */
+public class LongTreeSet {
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    private int[] left = new int[DEFAULT_CAPACITY];
+    private int[] right = new int[DEFAULT_CAPACITY];
+    private byte[] height = new byte[DEFAULT_CAPACITY];
+    private int root = NIL;
+    private int size;
+    private int nodes;
+    private int free = NIL;
+    /** Результат последней операции: изменилось ли множество. */
+    private boolean changed;
+
+    /**
+     * Добавляет значение.
+     * @param key значение.
+     * @return {@code false}, если значение уже было в множестве.
+     */
+    public boolean add(long key) {
+        changed = false;
+        root = insert(root, key);
+        if (changed) size++;
+        return changed;
+    }
+
+    /**
+     * Удаляет значение.
+     * @param key значение.
+     * @return {@code false}, если значения не было в множестве.
+     */
+    public boolean remove(long key) {
+        changed = false;
+        root = delete(root, key);
+        if (changed) size--;
+        return changed;
+    }
+
+    /**
+     * @return минимальное значение.
+     * @throws NoSuchElementException если множество пусто.
+     */
+    public long first() {
+        if (root == NIL) throw new NoSuchElementException();
+        int node = root;
+        while (left[node] != NIL) node = left[node];
+        return keys[node];
+    }
+
+    /**
+     * @return максимальное значение.
+     * @throws NoSuchElementException если множество пусто.
+     */
+    public long last() {
+        if (root == NIL) throw new NoSuchElementException();
+        int node = root;
+        while (right[node] != NIL) node = right[node];
+        return keys[node];
+    }
+
+    /**
+     * Возвращает до {@code k} наименьших значений за O(log n + k).
+     * @param k количество значений.
+     * @return значения по возрастанию.
+     */
+    public long[] first(int k) {
+        return walk(k, true);
+    }
+
+    /**
+     * Возвращает до {@code k} наибольших значений за O(log n + k).
+     * @param k количество значений.
+     * @return значения по убыванию.
+     */
+    public long[] last(int k) {
+        return walk(k, false);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все значения, сохраняя выделенные массивы.
+     */
+    public void clear() {
+        root = NIL;
+        free = NIL;
+        size = 0;
+        nodes = 0;
+    }
+
+    // Массивы могут быть заменены при выделении узла, поэтому ссылка на потомка
+    // сначала сохраняется в переменную и только потом записывается в массив.
+
+    private int insert(int node, long key) {
+        if (node == NIL) {
+            changed = true;
+            return allocate(key);
+        }
+        if (key < keys[node]) {
+            int child = insert(left[node], key);
+            left[node] = child;
+        } else if (key > keys[node]) {
+            int child = insert(right[node], key);
+            right[node] = child;
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private int delete(int node, long key) {
+        if (node == NIL) return NIL;
+        if (key < keys[node]) {
+            left[node] = delete(left[node], key);
+        } else if (key > keys[node]) {
+            right[node] = delete(right[node], key);
+        } else {
+            changed = true;
+            if (left[node] == NIL || right[node] == NIL) {
+                int child = left[node] == NIL ? right[node] : left[node];
+                release(node);
+                return child;
+            }
+            // ключ узла заменяется минимальным ключом правого поддерева
+            int successor = right[node];
+            while (left[successor] != NIL) successor = left[successor];
+            keys[node] = keys[successor];
+            right[node] = delete(right[node], keys[successor]);
+        }
+        return balance(node);
+    }
+
+    private int balance(int node) {
+        update(node);
+        int factor = height(left[node]) - height(right[node]);
+        if (factor > 1) {
+            if (height(left[left[node]]) < height(right[left[node]])) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(right[right[node]]) < height(left[right[node]])) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(int node) {
+        height[node] = (byte) (Math.max(height(left[node]), height(right[node])) + 1);
+    }
+
+    private int height(int node) {
+        return node == NIL ? 0 : height[node];
+    }
+
+    /**
+     * Симметричный обход с явным стеком: глубина АВЛ-дерева не превышает 1.44 log n, поэтому стека
+     * из 64 узлов хватает для любого размера множества.
+     */
+    private long[] walk(int k, boolean ascending) {
+        long[] result = new long[Math.max(0, Math.min(k, size))];
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int count = 0;
+        while (count < result.length) {
+            while (node != NIL) {
+                stack[depth++] = node;
+                node = ascending ? left[node] : right[node];
+            }
+            node = stack[--depth];
+            result[count++] = keys[node];
+            node = ascending ? right[node] : left[node];
+        }
+        return result;
+    }
+
+    private int allocate(long key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (nodes == keys.length) {
+                int capacity = nodes + (nodes >> 1) + 1;
+                keys = Arrays.copyOf(keys, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                height = Arrays.copyOf(height, capacity);
+            }
+            node = nodes++;
+        }
+        keys[node] = key;
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+    }
+}
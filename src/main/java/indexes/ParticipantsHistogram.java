@@ -0,0 +1,178 @@
+package indexes;
+
+import models.MusicBand;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Гистограмма количества участников: значение → сколько групп с таким значением.
+ * <p>
+ * Различные значения хранятся отсортированными в массиве {@code int[]} вместе с
+ * массивом счётчиков, поэтому вывод в порядке возрастания не требует ни сортировки,
+ * ни упаковки в {@link Integer} при каждом вызове, а пропуск первых элементов
+ * (offset) идёт по счётчикам, а не по каждой группе. Количество различных значений
+ * невелико, поэтому вставка нового значения со сдвигом массива обходится дёшево.
+ */
+public class ParticipantsHistogram implements BandIndex {
+
+    /**
+     * Получатель значений гистограммы при постраничном обходе.
+     */
+    public interface Visitor {
+        /**
+         * @param value  значение.
+         * @param repeat сколько раз значение попало на страницу.
+         * @param count  сколько всего групп имеют это значение.
+         */
+        void visit(int value, int repeat, int count);
+
+        /**
+         * @param repeat сколько групп с неуказанным значением попало на страницу.
+         * @param count  сколько всего групп с неуказанным значением.
+         */
+        void visitNull(int repeat, int count);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int distinct;
+    private int nulls;
+
+    @Override
+    public void add(MusicBand band) {
+        int value = band.getRawNumberOfParticipants();
+        if (value == MusicBand.NULL_INT) {
+            nulls++;
+            return;
+        }
+        int index = Arrays.binarySearch(values, 0, distinct, value);
+        if (index >= 0) {
+            counts[index]++;
+            return;
+        }
+        index = -index - 1;
+        if (distinct == values.length) {
+            values = Arrays.copyOf(values, distinct * 2);
+            counts = Arrays.copyOf(counts, distinct * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, distinct - index);
+        System.arraycopy(counts, index, counts, index + 1, distinct - index);
+        values[index] = value;
+        counts[index] = 1;
+        distinct++;
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        int participants = band.getRawNumberOfParticipants();
+        if (participants == MusicBand.NULL_INT) {
+            if (nulls > 0) nulls--;
+            return;
+        }
+        int index = Arrays.binarySearch(values, 0, distinct, participants);
+        if (index < 0) return;
+        if (--counts[index] == 0) {
+            System.arraycopy(values, index + 1, values, index, distinct - index - 1);
+            System.arraycopy(counts, index + 1, counts, index, distinct - index - 1);
+            distinct--;
+        }
+    }
+
+    @Override
+    public void clear() {
+        values = new int[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        distinct = 0;
+        nulls = 0;
+    }
+
+    /**
+     * Сливает гистограммы частей коллекции (например, шардов, см. {@link ShardIndex}) в новую гистограмму
+     * за O(число частей × число различных значений): счётчики одинаковых значений складываются.
+     * @param parts гистограммы частей.
+     * @return гистограмма всей коллекции.
+     */
+    public static ParticipantsHistogram merge(Collection<ParticipantsHistogram> parts) {
+        ParticipantsHistogram result = new ParticipantsHistogram();
+        for (ParticipantsHistogram part : parts) {
+            int[] values = new int[Math.max(INITIAL_CAPACITY, result.distinct + part.distinct)];
+            int[] counts = new int[values.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < result.distinct || j < part.distinct) {
+                if (j == part.distinct || (i < result.distinct && result.values[i] < part.values[j])) {
+                    values[n] = result.values[i];
+                    counts[n++] = result.counts[i++];
+                } else if (i == result.distinct || part.values[j] < result.values[i]) {
+                    values[n] = part.values[j];
+                    counts[n++] = part.counts[j++];
+                } else {
+                    values[n] = result.values[i];
+                    counts[n++] = result.counts[i++] + part.counts[j++];
+                }
+            }
+            result.values = values;
+            result.counts = counts;
+            result.distinct = n;
+            result.nulls += part.nulls;
+        }
+        return result;
+    }
+
+    /**
+     * @return минимальное указанное значение или {@code null}, если значений нет.
+     */
+    public Integer getMin() {
+        return distinct == 0 ? null : values[0];
+    }
+
+    /**
+     * @return максимальное указанное значение или {@code null}, если значений нет.
+     */
+    public Integer getMax() {
+        return distinct == 0 ? null : values[distinct - 1];
+    }
+
+    /**
+     * @return количество различных указанных значений.
+     */
+    public int getDistinctCount() {
+        return distinct;
+    }
+
+    /**
+     * Обходит значения в порядке возрастания начиная с позиции {@code offset} и не более {@code limit} штук.
+     * Группы без указанного значения идут в конце.
+     *
+     * @param offset   сколько первых элементов пропустить.
+     * @param limit    сколько элементов выдать максимум.
+     * @param distinct {@code true} - каждое значение считается одним элементом,
+     *                 {@code false} - значение повторяется столько раз, сколько групп его имеют.
+     * @param visitor  получатель значений.
+     */
+    public void forEach(long offset, long limit, boolean distinct, Visitor visitor) {
+        long skip = offset;
+        long left = limit;
+        for (int i = 0; i < this.distinct && left > 0; i++) {
+            long size = distinct ? 1 : counts[i];
+            if (skip >= size) {
+                skip -= size;
+                continue;
+            }
+            long take = Math.min(size - skip, left);
+            skip = 0;
+            left -= take;
+            visitor.visit(values[i], (int) take, counts[i]);
+        }
+        if (nulls > 0 && left > 0) {
+            long size = distinct ? 1 : nulls;
+            if (skip < size) {
+                visitor.visitNull((int) Math.min(size - skip, left), nulls);
+            }
+        }
+    }
+}
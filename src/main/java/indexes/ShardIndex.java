@@ -0,0 +1,162 @@
+package indexes;
+
+import models.MusicBand;
+import models.ShardedBandStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Индексы для агрегатов по шардам хранилища ({@link ShardedBandStore}).
+ * <p>
+ * Как и у {@link GenreIndex}, для каждой части коллекции ведутся свои экземпляры индексов, только
+ * части здесь - шарды: группа попадает в часть того же шарда, что и в хранилище. Агрегатные запросы
+ * выполняются на всех частях параллельно ({@link #gather(Function)}), а частичные результаты объединяются:
+ * счётчики складываются, максимумы сравниваются, гистограммы сливаются.
+ * Пока хранилище не разбито на шарды (частей 0), индекс ничего не делает.
+ */
+public class ShardIndex implements BandIndex {
+
+    /**
+     * Часть коллекции, лежащая в одном шарде.
+     */
+    public static class Partition {
+        private final AlbumsCountIndex albumsCount = new AlbumsCountIndex();
+        private final BestAlbumIndex bestAlbum = new BestAlbumIndex();
+        private final ParticipantsHistogram participants = new ParticipantsHistogram();
+        private final List<BandIndex> indexes = List.of(albumsCount, bestAlbum, participants);
+        private int size;
+
+        private void add(MusicBand band) {
+            size++;
+            for (BandIndex index : indexes) {
+                index.add(band);
+            }
+        }
+
+        private void remove(MusicBand band) {
+            size--;
+            for (BandIndex index : indexes) {
+                index.remove(band);
+            }
+        }
+
+        private void clear() {
+            size = 0;
+            for (BandIndex index : indexes) {
+                index.clear();
+            }
+        }
+
+        /** @return количество групп в шарде. */
+        public int size() { return size; }
+        /** @return индекс albumsCount групп шарда. */
+        public AlbumsCountIndex getAlbumsCountIndex() { return albumsCount; }
+        /** @return индекс полей лучшего альбома групп шарда. */
+        public BestAlbumIndex getBestAlbumIndex() { return bestAlbum; }
+        /** @return гистограмма числа участников групп шарда. */
+        public ParticipantsHistogram getParticipantsHistogram() { return participants; }
+    }
+
+    private Partition[] partitions = new Partition[0];
+
+    @Override
+    public void add(MusicBand band) {
+        if (partitions.length > 0) {
+            partitions[ShardedBandStore.shardOf(band.getId(), partitions.length)].add(band);
+        }
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        if (partitions.length > 0) {
+            partitions[ShardedBandStore.shardOf(band.getId(), partitions.length)].remove(band);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Partition partition : partitions) {
+            partition.clear();
+        }
+    }
+
+    /**
+     * @return число частей (0, если хранилище не разбито на шарды).
+     */
+    public int getShardCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Меняет число частей вслед за {@link ShardedBandStore#resize(int)}: перенесённые группы
+     * убираются из частей прежних шардов и добавляются в части новых.
+     * @param shardCount новое число шардов.
+     * @param moved группы, сменившие шард.
+     */
+    public void resize(int shardCount, Collection<MusicBand> moved) {
+        Partition[] old = partitions;
+        for (MusicBand band : moved) {
+            if (old.length > 0) old[ShardedBandStore.shardOf(band.getId(), old.length)].remove(band);
+        }
+        partitions = Arrays.copyOf(old, shardCount);
+        for (int i = old.length; i < shardCount; i++) {
+            partitions[i] = new Partition();
+        }
+        for (MusicBand band : moved) {
+            partitions[ShardedBandStore.shardOf(band.getId(), shardCount)].add(band);
+        }
+    }
+
+    /**
+     * Выполняет запрос на всех частях параллельно.
+     * @param query запрос к одной части.
+     * @return результаты частей в порядке номеров шардов.
+     */
+    public <T> List<T> gather(Function<Partition, T> query) {
+        return Arrays.stream(partitions).parallel().map(query).collect(Collectors.toList());
+    }
+
+    /**
+     * @return количество групп с полем лучшего альбома меньше заданного значения - сумма по шардам.
+     */
+    public int countLess(BestAlbumIndex.Field field, double value) {
+        int count = 0;
+        for (int partial : gather(partition -> partition.getBestAlbumIndex().countLess(field, value))) {
+            count += partial;
+        }
+        return count;
+    }
+
+    /**
+     * @return ID группы с максимальным количеством альбомов (при равенстве - с меньшим ID)
+     * среди максимумов шардов или {@code null}, если количество альбомов нигде не указано.
+     */
+    public Integer getMaxAlbumsCountId() {
+        long best = Long.MIN_VALUE;
+        for (long key : gather(partition -> {
+            AlbumsCountIndex index = partition.getAlbumsCountIndex();
+            // ключ как в AlbumsCountIndex: albumsCount, при равенстве больше ключ у меньшего ID
+            return index.size() == 0 ? Long.MIN_VALUE
+                    : ((long) index.getMax() << 32) | (~index.getMaxId() & 0xFFFFFFFFL);
+        })) {
+            best = Math.max(best, key);
+        }
+        return best == Long.MIN_VALUE ? null : ~(int) best;
+    }
+
+    /**
+     * @return гистограмма числа участников всей коллекции, слитая из гистограмм шардов.
+     */
+    public ParticipantsHistogram mergeParticipants() {
+        List<ParticipantsHistogram> parts = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            parts.add(partition.getParticipantsHistogram());
+        }
+        return ParticipantsHistogram.merge(parts);
+    }
+}
@@ -0,0 +1,434 @@
+package indexes;
+
+import models.MusicBand;
+
+import java.util.Arrays;
+
+/**
+ * Пространственный индекс по координатам групп (k-d дерево с листьями-корзинами).
+ * <p>
+ * Внутренний узел делит точки по одной оси: слева лежат точки, у которых пара (координата, ID)
+ * меньше границы узла, справа - остальные. ID участвует в сравнении, поэтому даже группы
+ * с одинаковыми координатами делятся поровну. Лист хранит до {@value #LEAF_CAPACITY} точек
+ * (ID и координаты) в массивах примитивов и при переполнении делится по медиане.
+ * Каждый узел помнит охватывающий прямоугольник своих точек и наименьший ID, что позволяет
+ * отбрасывать целые поддеревья при поиске.
+ * <p>
+ * Балансировка как у scapegoat-дерева: если после добавления одно из поддеревьев узла стало заметно
+ * больше другого, поддерево перестраивается по медианам, а после массовых удалений перестраивается
+ * всё дерево. Поэтому глубина остаётся O(log n) при любом порядке добавления, поиск ближайших
+ * соседей выполняется в среднем за O(log n + k), а запрос прямоугольника - за O(√n + k),
+ * где k - размер ответа.
+ */
+public class SpatialIndex implements BandIndex {
+    private static final int LEAF_CAPACITY = 16;
+    /** Допустимая доля точек узла в одном поддереве. */
+    private static final double BALANCE = 0.7;
+
+    private static final class Node {
+        /** Число точек в поддереве. */
+        int size;
+        /**
+         * Охватывающий прямоугольник и наименьший ID. При удалении точек они не сужаются,
+         * поэтому остаются верной, хотя и не точной, оценкой до следующей перестройки.
+         */
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        int minId = Integer.MAX_VALUE;
+        /** Ось деления: 0 - x, 1 - y; у листа не используется. */
+        int axis;
+        float split;
+        int splitId;
+        Node left;
+        Node right;
+        /** Точки листа; у внутреннего узла {@code null}. */
+        int[] ids;
+        float[] xs;
+        float[] ys;
+
+        boolean isLeaf() {
+            return ids != null;
+        }
+
+        boolean goesLeft(int id, float x, float y) {
+            float value = axis == 0 ? x : y;
+            return value < split || (value == split && id < splitId);
+        }
+
+        void extend(int id, float x, float y) {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            minId = Math.min(minId, id);
+        }
+    }
+
+    private Node root = emptyLeaf();
+    /** Путь от корня до листа в последнем добавлении или удалении. */
+    private Node[] path = new Node[32];
+    /** Наибольший размер дерева после последней полной перестройки. */
+    private int builtSize;
+
+    @Override
+    public void add(MusicBand band) {
+        int id = band.getId();
+        float x = band.getX();
+        float y = band.getY();
+        int depth = 0;
+        Node node = root;
+        while (!node.isLeaf()) {
+            push(depth++, node);
+            node = node.goesLeft(id, x, y) ? node.left : node.right;
+        }
+        if (indexOf(node, id) >= 0) return;
+        for (int i = 0; i < depth; i++) {
+            path[i].size++;
+            path[i].extend(id, x, y);
+        }
+        node.ids[node.size] = id;
+        node.xs[node.size] = x;
+        node.ys[node.size] = y;
+        node.size++;
+        node.extend(id, x, y);
+        if (node.size > LEAF_CAPACITY) {
+            rebuild(node);
+        }
+        // перестраивается самый верхний узел, потерявший баланс
+        for (int i = 0; i < depth; i++) {
+            Node parent = path[i];
+            if (Math.max(parent.left.size, parent.right.size) > BALANCE * parent.size + LEAF_CAPACITY) {
+                rebuild(parent);
+                break;
+            }
+        }
+        builtSize = Math.max(builtSize, root.size);
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        int id = band.getId();
+        int depth = 0;
+        Node node = root;
+        while (!node.isLeaf()) {
+            push(depth++, node);
+            node = node.goesLeft(id, band.getX(), band.getY()) ? node.left : node.right;
+        }
+        int position = indexOf(node, id);
+        if (position < 0) return;
+        for (int i = 0; i < depth; i++) {
+            path[i].size--;
+        }
+        int last = --node.size;
+        node.ids[position] = node.ids[last];
+        node.xs[position] = node.xs[last];
+        node.ys[position] = node.ys[last];
+        if (root.size < builtSize / 2) {
+            rebuild(root);
+            builtSize = root.size;
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = emptyLeaf();
+        builtSize = 0;
+    }
+
+    /**
+     * @return количество групп в индексе.
+     */
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * Ищет группы, ближайшие к точке, по евклидову расстоянию.
+     * @param x координата X точки.
+     * @param y координата Y точки.
+     * @param k количество групп.
+     * @return ID не более чем {@code k} ближайших групп в порядке возрастания расстояния
+     * (при равном расстоянии - в порядке возрастания ID).
+     */
+    public int[] nearest(double x, double y, int k) {
+        if (k <= 0 || root.size == 0) return new int[0];
+        Neighbours neighbours = new Neighbours(Math.min(k, root.size));
+        nearest(root, x, y, neighbours);
+        return neighbours.sorted();
+    }
+
+    /**
+     * Ищет группы в прямоугольнике; границы включаются, порядок углов не важен.
+     * @return ID групп в порядке возрастания.
+     */
+    public int[] within(double x1, double y1, double x2, double y2) {
+        IdList result = new IdList();
+        within(root, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), result);
+        int[] ids = Arrays.copyOf(result.ids, result.size);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private void nearest(Node node, double x, double y, Neighbours neighbours) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                double dx = node.xs[i] - x;
+                double dy = node.ys[i] - y;
+                neighbours.offer(dx * dx + dy * dy, node.ids[i]);
+            }
+            return;
+        }
+        double leftDistance = distance(node.left, x, y);
+        double rightDistance = distance(node.right, x, y);
+        boolean leftFirst = leftDistance <= rightDistance;
+        Node near = leftFirst ? node.left : node.right;
+        Node far = leftFirst ? node.right : node.left;
+        if (neighbours.accepts(near, leftFirst ? leftDistance : rightDistance)) {
+            nearest(near, x, y, neighbours);
+        }
+        if (neighbours.accepts(far, leftFirst ? rightDistance : leftDistance)) {
+            nearest(far, x, y, neighbours);
+        }
+    }
+
+    /**
+     * @return квадрат расстояния от точки до охватывающего прямоугольника узла.
+     */
+    private static double distance(Node node, double x, double y) {
+        if (node.size == 0) return Double.POSITIVE_INFINITY;
+        double dx = Math.max(Math.max(node.minX - x, x - node.maxX), 0);
+        double dy = Math.max(Math.max(node.minY - y, y - node.maxY), 0);
+        return dx * dx + dy * dy;
+    }
+
+    private void within(Node node, double minX, double minY, double maxX, double maxY, IdList result) {
+        if (node.size == 0 || node.minX > maxX || node.maxX < minX || node.minY > maxY || node.maxY < minY) return;
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                float x = node.xs[i];
+                float y = node.ys[i];
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) result.add(node.ids[i]);
+            }
+            return;
+        }
+        if (node.minX >= minX && node.maxX <= maxX && node.minY >= minY && node.maxY <= maxY) {
+            // поддерево целиком внутри прямоугольника
+            collectIds(node, result);
+            return;
+        }
+        within(node.left, minX, minY, maxX, maxY, result);
+        within(node.right, minX, minY, maxX, maxY, result);
+    }
+
+    private static void collectIds(Node node, IdList result) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                result.add(node.ids[i]);
+            }
+            return;
+        }
+        collectIds(node.left, result);
+        collectIds(node.right, result);
+    }
+
+    /**
+     * Перестраивает поддерево по медианам; узел заменяется на месте, поэтому ссылка родителя не меняется.
+     */
+    private static void rebuild(Node node) {
+        int size = node.size;
+        int[] ids = new int[size];
+        float[] xs = new float[size];
+        float[] ys = new float[size];
+        collect(node, ids, xs, ys, 0);
+        Node built = build(ids, xs, ys, 0, size);
+        node.size = built.size;
+        node.minX = built.minX;
+        node.minY = built.minY;
+        node.maxX = built.maxX;
+        node.maxY = built.maxY;
+        node.minId = built.minId;
+        node.axis = built.axis;
+        node.split = built.split;
+        node.splitId = built.splitId;
+        node.left = built.left;
+        node.right = built.right;
+        node.ids = built.ids;
+        node.xs = built.xs;
+        node.ys = built.ys;
+    }
+
+    private static int collect(Node node, int[] ids, float[] xs, float[] ys, int offset) {
+        if (node.isLeaf()) {
+            System.arraycopy(node.ids, 0, ids, offset, node.size);
+            System.arraycopy(node.xs, 0, xs, offset, node.size);
+            System.arraycopy(node.ys, 0, ys, offset, node.size);
+            return offset + node.size;
+        }
+        offset = collect(node.left, ids, xs, ys, offset);
+        return collect(node.right, ids, xs, ys, offset);
+    }
+
+    private static Node build(int[] ids, float[] xs, float[] ys, int from, int to) {
+        Node node = new Node();
+        for (int i = from; i < to; i++) {
+            node.extend(ids[i], xs[i], ys[i]);
+        }
+        node.size = to - from;
+        if (node.size <= LEAF_CAPACITY) {
+            node.ids = Arrays.copyOf(Arrays.copyOfRange(ids, from, to), LEAF_CAPACITY + 1);
+            node.xs = Arrays.copyOf(Arrays.copyOfRange(xs, from, to), LEAF_CAPACITY + 1);
+            node.ys = Arrays.copyOf(Arrays.copyOfRange(ys, from, to), LEAF_CAPACITY + 1);
+            return node;
+        }
+        // делится более протяжённая сторона прямоугольника
+        node.axis = node.maxX - node.minX >= node.maxY - node.minY ? 0 : 1;
+        int middle = (from + to) >>> 1;
+        select(ids, xs, ys, node.axis == 0 ? xs : ys, from, to, middle);
+        node.split = node.axis == 0 ? xs[middle] : ys[middle];
+        node.splitId = ids[middle];
+        node.left = build(ids, xs, ys, from, middle);
+        node.right = build(ids, xs, ys, middle, to);
+        return node;
+    }
+
+    /**
+     * Переставляет точки так, что на позиции {@code k} оказывается k-я по порядку пара (значение, ID),
+     * слева от неё - меньшие пары, справа - большие.
+     */
+    private static void select(int[] ids, float[] xs, float[] ys, float[] values, int from, int to, int k) {
+        while (to - from > 1) {
+            swap(ids, xs, ys, (from + to) >>> 1, to - 1);
+            float pivotValue = values[to - 1];
+            int pivotId = ids[to - 1];
+            int store = from;
+            for (int i = from; i < to - 1; i++) {
+                if (values[i] < pivotValue || (values[i] == pivotValue && ids[i] < pivotId)) {
+                    swap(ids, xs, ys, store++, i);
+                }
+            }
+            swap(ids, xs, ys, store, to - 1);
+            if (k < store) {
+                to = store;
+            } else if (k > store) {
+                from = store + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(int[] ids, float[] xs, float[] ys, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        float x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        float y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+    }
+
+    private static int indexOf(Node leaf, int id) {
+        for (int i = 0; i < leaf.size; i++) {
+            if (leaf.ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private void push(int depth, Node node) {
+        if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+        path[depth] = node;
+    }
+
+    private static Node emptyLeaf() {
+        Node leaf = new Node();
+        leaf.ids = new int[LEAF_CAPACITY + 1];
+        leaf.xs = new float[LEAF_CAPACITY + 1];
+        leaf.ys = new float[LEAF_CAPACITY + 1];
+        return leaf;
+    }
+
+    /**
+     * k ближайших точек: куча с максимумом по расстоянию (и ID) в корне.
+     */
+    private static final class Neighbours {
+        private final double[] distances;
+        private final int[] ids;
+        private int size;
+
+        Neighbours(int capacity) {
+            distances = new double[capacity];
+            ids = new int[capacity];
+        }
+
+        /**
+         * @return может ли в поддереве на данном расстоянии найтись точка лучше текущей k-й.
+         */
+        boolean accepts(Node node, double distance) {
+            if (node.size == 0) return false;
+            if (size < ids.length) return true;
+            return distance < distances[0] || (distance == distances[0] && node.minId < ids[0]);
+        }
+
+        void offer(double distance, int id) {
+            if (size < ids.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!greater(distance, id, distances[parent], ids[parent])) break;
+                    distances[i] = distances[parent];
+                    ids[i] = ids[parent];
+                    i = parent;
+                }
+                distances[i] = distance;
+                ids[i] = id;
+            } else if (greater(distances[0], ids[0], distance, id)) {
+                siftDown(distance, id, size);
+            }
+        }
+
+        int[] sorted() {
+            int[] result = new int[size];
+            for (int count = size; count > 0; count--) {
+                result[count - 1] = ids[0];
+                siftDown(distances[count - 1], ids[count - 1], count - 1);
+            }
+            return result;
+        }
+
+        private void siftDown(double distance, int id, int size) {
+            if (size == 0) return;
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && greater(distances[child + 1], ids[child + 1], distances[child], ids[child])) {
+                    child++;
+                }
+                if (!greater(distances[child], ids[child], distance, id)) break;
+                distances[i] = distances[child];
+                ids[i] = ids[child];
+                i = child;
+            }
+            distances[i] = distance;
+            ids[i] = id;
+        }
+
+        private static boolean greater(double distance, int id, double otherDistance, int otherId) {
+            return distance > otherDistance || (distance == otherDistance && id > otherId);
+        }
+    }
+
+    private static final class IdList {
+        int[] ids = new int[LEAF_CAPACITY];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
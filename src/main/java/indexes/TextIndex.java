@@ -0,0 +1,535 @@
+package indexes;
+
+import models.IntIntHashMap;
+import models.MusicBand;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Полнотекстовый индекс по name, description и bestAlbum.name.
+ * <p>
+ * Текст делится на слова (последовательности букв и цифр) и приводится к нижнему регистру.
+ * Словарь слов - префиксное дерево: узел слова хранит список вхождений (инвертированный индекс) -
+ * таблицу ID группы → количество вхождений слова в каждое из трёх полей, упакованное в одно число.
+ * Поэтому поиск по слову стоит O(длина слова + число найденных групп), а поиск по префиксу
+ * обходит только поддерево префикса.
+ * <p>
+ * Результаты ранжируются по схеме TF-IDF: редкие слова весят больше частых, совпадение
+ * в названии группы - больше, чем в названии альбома или описании.
+ */
+public class TextIndex implements BandIndex {
+
+    /**
+     * Индексируемое текстовое поле и его вес при ранжировании.
+     */
+    public enum Field {
+        NAME(3, 0, 10),
+        BEST_ALBUM_NAME(2, 10, 10),
+        DESCRIPTION(1, 20, 11);
+
+        private final int weight;
+        private final int shift;
+        private final int mask;
+
+        Field(int weight, int shift, int bits) {
+            this.weight = weight;
+            this.shift = shift;
+            this.mask = (1 << bits) - 1;
+        }
+
+        /**
+         * @param band группа.
+         * @return текст поля или {@code null}.
+         */
+        public String of(MusicBand band) {
+            switch (this) {
+                case NAME: return band.getName();
+                case BEST_ALBUM_NAME: return band.getBestAlbumName();
+                default: return band.getDescription();
+            }
+        }
+
+        int count(int packed) {
+            return (packed >>> shift) & mask;
+        }
+
+        int pack(int count) {
+            return Math.min(count, mask) << shift;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    /** Сигнатура сохранённого индекса ("MBT1"). */
+    private static final int MAGIC = 0x4D425431;
+
+    /**
+     * Узел префиксного дерева. Дети упорядочены по символу, поэтому ищутся двоичным поиском.
+     */
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        /** Вхождения слова, которое заканчивается в этом узле, или {@code null}. */
+        IntIntHashMap postings;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) return children[index];
+            index = -index - 1;
+            Node child = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = label;
+            newChildren[index] = child;
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) return;
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return postings == null && labels.length == 0;
+        }
+    }
+
+    /**
+     * Результат поиска: общее количество найденных групп и первые из них в порядке убывания
+     * релевантности (при равенстве - по возрастанию ID).
+     */
+    public static final class Result {
+        private final int total;
+        private final int[] ids;
+        private final double[] scores;
+
+        private Result(int total, int[] ids, double[] scores) {
+            this.total = total;
+            this.ids = ids;
+            this.scores = scores;
+        }
+
+        /** @return количество найденных групп. */
+        public int size() { return total; }
+        /** @return количество упорядоченных первых групп. */
+        public int ranked() { return ids.length; }
+        /** @return ID группы на заданном месте. */
+        public int id(int rank) { return ids[rank]; }
+        /** @return релевантность группы на заданном месте. */
+        public double score(int rank) { return scores[rank]; }
+    }
+
+    private Node root = new Node();
+    private int documents;
+    private int terms;
+    /** Пока индекс приостановлен, изменения коллекции в нём не отражаются (см. {@link #setSuspended}). */
+    private boolean suspended;
+
+    @Override
+    public void add(MusicBand band) {
+        if (suspended) return;
+        boolean added = false;
+        for (Map.Entry<String, Integer> entry : countTerms(band).entrySet()) {
+            Node node = root;
+            String term = entry.getKey();
+            for (int i = 0; i < term.length(); i++) {
+                node = node.addChild(term.charAt(i));
+            }
+            if (node.postings == null) {
+                node.postings = new IntIntHashMap(1);
+                terms++;
+            }
+            if (node.postings.putIfAbsent(band.getId(), entry.getValue()) == IntIntHashMap.NO_VALUE) added = true;
+        }
+        if (added) documents++;
+    }
+
+    @Override
+    public void remove(MusicBand band) {
+        if (suspended) return;
+        boolean removed = false;
+        for (String term : countTerms(band).keySet()) {
+            removed |= remove(root, term, 0, band.getId());
+        }
+        if (removed) documents--;
+    }
+
+    @Override
+    public void clear() {
+        if (suspended) return;
+        root = new Node();
+        documents = 0;
+        terms = 0;
+    }
+
+    /**
+     * Приостанавливает или возобновляет обновление индекса. Используется при запуске:
+     * пока коллекция загружается, индекс не строится, а затем читается из файла или строится заново.
+     * @param suspended {@code true}, чтобы приостановить обновление.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Строит индекс заново по группам коллекции.
+     * @param bands группы.
+     */
+    public void rebuild(Iterable<MusicBand> bands) {
+        clear();
+        for (MusicBand band : bands) {
+            add(band);
+        }
+    }
+
+    /**
+     * @return количество проиндексированных групп.
+     */
+    public int getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return количество различных слов.
+     */
+    public int getTerms() {
+        return terms;
+    }
+
+    /**
+     * Ищет группы, в названии которых для каждого слова запроса есть слово, начинающееся с него.
+     * Полное совпадение слова весит вдвое больше совпадения по префиксу.
+     * @param prefix начало названия (одно или несколько слов).
+     * @param top сколько первых групп упорядочить.
+     * @return найденные группы.
+     */
+    public Result findByName(String prefix, int top) {
+        List<String> words = tokenize(prefix);
+        if (words.isEmpty()) return new Result(0, new int[0], new double[0]);
+        Scores scores = new Scores();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            // для каждой группы засчитывается лучшее совпадение слова запроса
+            IntIntHashMap best = new IntIntHashMap();
+            Node node = find(word);
+            if (node != null) {
+                forEachTerm(node, (postings, exact) -> postings.forEach((id, packed) -> {
+                    if (Field.NAME.count(packed) == 0) return;
+                    int quality = exact ? 2 : 1;
+                    if (best.get(id) < quality) best.put(id, quality);
+                }));
+            }
+            int round = i;
+            best.forEach((id, quality) -> scores.addIfMatched(id, quality, round));
+        }
+        return scores.result(words.size(), top);
+    }
+
+    /**
+     * Ищет группы хотя бы с одним словом запроса в любом из полей.
+     * Слово, оканчивающееся на {@code *}, ищется как префикс.
+     * @param query слова запроса.
+     * @param top сколько первых групп упорядочить.
+     * @return найденные группы, ранжированные по TF-IDF.
+     */
+    public Result search(String query, int top) {
+        Scores scores = new Scores();
+        for (String token : query.trim().split("\\s+")) {
+            boolean prefix = token.endsWith("*");
+            for (String word : tokenize(prefix ? token.substring(0, token.length() - 1) : token)) {
+                Node node = find(word);
+                if (node == null) continue;
+                if (prefix) {
+                    forEachTerm(node, (postings, exact) -> score(postings, scores));
+                } else if (node.postings != null) {
+                    score(node.postings, scores);
+                }
+            }
+        }
+        return scores.result(1, top);
+    }
+
+    /**
+     * Записывает индекс.
+     * @param out поток вывода.
+     * @throws IOException если запись не удалась.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(documents);
+        out.writeInt(terms);
+        StringBuilder term = new StringBuilder();
+        writeTerms(root, term, out);
+    }
+
+    /**
+     * Заменяет содержимое индекса прочитанным.
+     * @param in поток ввода.
+     * @throws IOException если индекс не удалось прочитать или он повреждён.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Неверная сигнатура файла индекса.");
+        Node loaded = new Node();
+        int loadedDocuments = in.readInt();
+        int loadedTerms = in.readInt();
+        for (int t = 0; t < loadedTerms; t++) {
+            String term = in.readUTF();
+            int count = in.readInt();
+            if (term.isEmpty() || count <= 0) throw new IOException("Файл индекса повреждён.");
+            Node node = loaded;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.addChild(term.charAt(i));
+            }
+            node.postings = new IntIntHashMap(count);
+            for (int i = 0; i < count; i++) {
+                node.postings.put(in.readInt(), in.readInt());
+            }
+        }
+        root = loaded;
+        documents = loadedDocuments;
+        terms = loadedTerms;
+    }
+
+    /**
+     * Делит текст на слова в нижнем регистре.
+     * @param text текст или {@code null}.
+     * @return слова в порядке следования.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return слово → количество вхождений в поля группы, упакованное по {@link Field}.
+     */
+    private static Map<String, Integer> countTerms(MusicBand band) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Field field : FIELDS) {
+            Map<String, Integer> fieldCounts = new HashMap<>();
+            for (String word : tokenize(field.of(band))) {
+                fieldCounts.merge(word, 1, Integer::sum);
+            }
+            fieldCounts.forEach((word, count) -> counts.merge(word, field.pack(count), Integer::sum));
+        }
+        return counts;
+    }
+
+    private boolean remove(Node node, String term, int depth, int id) {
+        if (depth == term.length()) {
+            if (node.postings == null || node.postings.remove(id) == IntIntHashMap.NO_VALUE) return false;
+            if (node.postings.size() == 0) {
+                node.postings = null;
+                terms--;
+            }
+            return true;
+        }
+        char label = term.charAt(depth);
+        Node child = node.child(label);
+        if (child == null) return false;
+        boolean removed = remove(child, term, depth + 1, id);
+        // опустевшие ветви дерева удаляются
+        if (child.isEmpty()) node.removeChild(label);
+        return removed;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private interface TermVisitor {
+        void visit(IntIntHashMap postings, boolean exact);
+    }
+
+    /**
+     * Обходит все слова поддерева узла префикса.
+     */
+    private static void forEachTerm(Node prefix, TermVisitor visitor) {
+        List<Node> stack = new ArrayList<>();
+        stack.add(prefix);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            if (node.postings != null) visitor.visit(node.postings, node == prefix);
+            stack.addAll(Arrays.asList(node.children));
+        }
+    }
+
+    private void score(IntIntHashMap postings, Scores scores) {
+        double idf = Math.log(1 + (documents - postings.size() + 0.5) / (postings.size() + 0.5));
+        postings.forEach((id, packed) -> {
+            double weight = 0;
+            for (Field field : FIELDS) {
+                int count = field.count(packed);
+                // вклад повторов слова в поле насыщается, как в BM25
+                weight += field.weight * count / (count + 1.2);
+            }
+            scores.add(id, idf * weight);
+        });
+    }
+
+    private static void writeTerms(Node node, StringBuilder term, DataOutput out) throws IOException {
+        if (node.postings != null) {
+            out.writeUTF(term.toString());
+            out.writeInt(node.postings.size());
+            IOException[] failure = new IOException[1];
+            node.postings.forEach((id, packed) -> {
+                if (failure[0] != null) return;
+                try {
+                    out.writeInt(id);
+                    out.writeInt(packed);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+        }
+        for (int i = 0; i < node.labels.length; i++) {
+            term.append(node.labels[i]);
+            writeTerms(node.children[i], term, out);
+            term.setLength(term.length() - 1);
+        }
+    }
+
+    /**
+     * Накопитель релевантности: ID → номер строки в параллельных массивах.
+     */
+    private static final class Scores {
+        private final IntIntHashMap rows = new IntIntHashMap();
+        private int[] ids = new int[16];
+        private double[] values = new double[16];
+        /** Сколько слов запроса совпало у группы (для поиска, где должны совпасть все слова). */
+        private int[] matched = new int[16];
+        private int size;
+
+        void add(int id, double value) {
+            int row = row(id);
+            values[row] += value;
+            matched[row] = 1;
+        }
+
+        /**
+         * Учитывает совпадение слова номер {@code round}, если группа совпала со всеми предыдущими словами.
+         */
+        void addIfMatched(int id, double value, int round) {
+            int row = round == 0 ? row(id) : rows.get(id);
+            if (row == IntIntHashMap.NO_VALUE || matched[row] != round) return;
+            values[row] += value;
+            matched[row]++;
+        }
+
+        /**
+         * Отбирает {@code top} лучших строк кучей, в корне которой худшая из отобранных,
+         * поэтому полная сортировка всех найденных групп не нужна.
+         * @param required сколько слов запроса должно совпасть.
+         * @param top сколько первых групп упорядочить.
+         */
+        Result result(int required, int top) {
+            int[] heap = new int[Math.max(0, Math.min(top, size))];
+            int count = 0;
+            int total = 0;
+            for (int row = 0; row < size; row++) {
+                if (matched[row] < required) continue;
+                total++;
+                if (count < heap.length) {
+                    heap[count++] = row;
+                    for (int i = count - 1; i > 0 && worse(heap[i], heap[(i - 1) / 2]); i = (i - 1) / 2) {
+                        swap(heap, i, (i - 1) / 2);
+                    }
+                } else if (heap.length > 0 && worse(heap[0], row)) {
+                    heap[0] = row;
+                    siftDown(heap, count);
+                }
+            }
+            int[] resultIds = new int[count];
+            double[] resultScores = new double[count];
+            // худшая строка извлекается из корня и занимает последнее свободное место
+            for (int last = count - 1; last >= 0; last--) {
+                resultIds[last] = ids[heap[0]];
+                resultScores[last] = values[heap[0]];
+                heap[0] = heap[last];
+                siftDown(heap, last);
+            }
+            return new Result(total, resultIds, resultScores);
+        }
+
+        /**
+         * @return {@code true}, если строка {@code a} должна стоять в выдаче ниже строки {@code b}.
+         */
+        private boolean worse(int a, int b) {
+            return values[a] != values[b] ? values[a] < values[b] : ids[a] > ids[b];
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && worse(heap[child + 1], heap[child])) child++;
+                if (!worse(heap[child], heap[i])) break;
+                swap(heap, i, child);
+                i = child;
+            }
+        }
+
+        private static void swap(int[] heap, int i, int j) {
+            int row = heap[i];
+            heap[i] = heap[j];
+            heap[j] = row;
+        }
+
+        private int row(int id) {
+            int row = rows.get(id);
+            if (row != IntIntHashMap.NO_VALUE) return row;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                matched = Arrays.copyOf(matched, size * 2);
+            }
+            ids[size] = id;
+            rows.put(id, size);
+            return size++;
+        }
+    }
+}
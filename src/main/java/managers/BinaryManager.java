@@ -0,0 +1,210 @@
+package managers;
+
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static managers.MusicBandManager.*;
+
+/**
+ * Класс, отвечающий за сохранение и загрузку коллекции в компактном двоичном формате.
+ * <p>
+ * Формат (big-endian):
+ * <pre>
+ * заголовок:  magic "MBBN" (4) | версия (4) | число групп (4) | число строк (4)
+ * строки:     [длина UTF-8 (4) | байты] * число строк - каждая строка хранится один раз
+ * записи:     по {@value #RECORD_SIZE} байт на группу:
+ *             id (4) | name (4) | x (4) | y (4) | epochSecond (8) | nano (4) | zone (4) |
+ *             numberOfParticipants (4) | albumsCount (4) | description (4) | genre (1) |
+ *             bestAlbum.name (4) | bestAlbum.sales (4) | bestAlbum.tracks (4)
+ * </pre>
+ * Строковые поля записей - индексы в таблице строк ({@value #NO_STRING}, если строки нет - например,
+ * у группы без лучшего альбома), {@code null} у чисел - {@link MusicBand#NULL_INT}.
+ * Файл читается через отображение в память ({@link FileChannel#map}), без разбора текста.
+ */
+public class BinaryManager {
+    /** Сигнатура двоичного файла коллекции ("MBBN"). */
+    public static final int MAGIC = 0x4D42424E;
+    /** Текущая версия формата. */
+    public static final int VERSION = 1;
+    /** Расширение файла по умолчанию для команд save_binary/load_binary. */
+    public static final String BINARY_SUFFIX = ".bin";
+    /** Размер записи одной группы в байтах. */
+    public static final int RECORD_SIZE = 57;
+    /** Индекс строкового поля, значение которого отсутствует. */
+    private static final int NO_STRING = -1;
+    private static final int HEADER_SIZE = 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Проверяет, записан ли файл в двоичном формате (по сигнатуре в заголовке).
+     * @param file проверяемый файл.
+     * @return {@code true}, если файл начинается с {@link #MAGIC}.
+     */
+    public static boolean isBinaryFile(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) return false;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Сохраняет коллекцию в двоичный файл. Запись идёт через временный файл с fsync
+     * и атомарным переименованием, как и у {@link XMLManager#saveToFile}.
+     * @param file файл, в который записывается коллекция.
+     * @param collection сохраняемая коллекция.
+     * @throws IOException если коллекцию не удалось записать.
+     */
+    public static void saveToFile(File file, Collection<MusicBand> collection) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (MusicBand band : collection) {
+            intern(band.getName(), indexes, strings);
+            intern(band.getCreationZone().getId(), indexes, strings);
+            intern(band.getDescription(), indexes, strings);
+            intern(band.getBestAlbumName(), indexes, strings);
+        }
+
+        File temp = new File(file.getPath() + XMLManager.TEMP_SUFFIX);
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(collection.size());
+                out.writeInt(strings.size());
+                for (String value : strings) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                for (MusicBand band : collection) {
+                    writeRecord(out, band, indexes);
+                }
+                out.flush();
+                stream.getChannel().force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        XMLManager.syncDirectory(file);
+    }
+
+    /**
+     * Загружает коллекцию из двоичного файла, заменяя текущую.
+     * @param file файл с данными.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public static void loadFromFile(File file) throws IOException {
+        long started = System.nanoTime();
+        List<MusicBand> loaded = readFile(file);
+        replaceBands(loaded);
+        System.out.println("Коллекция загружена из двоичного файла: "
+                + XMLManager.formatThroughput(loaded.size(), file.length(), System.nanoTime() - started));
+    }
+
+    /**
+     * Читает все группы из двоичного файла.
+     * @param file файл с данными.
+     * @return группы в порядке их следования в файле.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public static List<MusicBand> readFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Файл слишком большой для отображения в память: " + channel.size() + " байт.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является двоичным файлом коллекции.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия двоичного формата: " + version);
+            }
+            int count = buffer.getInt();
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (buffer.remaining() < (long) count * RECORD_SIZE) {
+                throw new IOException("Файл обрезан: ожидалось " + count + " записей.");
+            }
+
+            ZoneId[] zones = new ZoneId[strings.length];
+            MusicGenre[] genres = MusicGenre.values();
+            List<MusicBand> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = buffer.getInt();
+                String name = strings[buffer.getInt()];
+                float x = buffer.getFloat();
+                float y = buffer.getFloat();
+                long creationMillis = buffer.getLong() * 1000 + buffer.getInt() / 1_000_000;
+                int zone = buffer.getInt();
+                if (zones[zone] == null) {
+                    zones[zone] = ZoneId.of(strings[zone]);
+                }
+                int numberOfParticipants = buffer.getInt();
+                int albumsCount = buffer.getInt();
+                String description = strings[buffer.getInt()];
+                MusicGenre genre = genres[buffer.get()];
+                int albumName = buffer.getInt();
+                result.add(new MusicBand(id, name, x, y, creationMillis, zones[zone], numberOfParticipants,
+                        albumsCount, description, genre, albumName == NO_STRING ? null : strings[albumName],
+                        buffer.getFloat(), buffer.getInt()));
+            }
+            return result;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Двоичный файл повреждён.", e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, MusicBand band, Map<String, Integer> indexes) throws IOException {
+        long millis = band.getCreationMillis();
+        out.writeInt(band.getId());
+        out.writeInt(indexes.get(band.getName()));
+        out.writeFloat(band.getX());
+        out.writeFloat(band.getY());
+        out.writeLong(Math.floorDiv(millis, 1000));
+        out.writeInt(Math.floorMod(millis, 1000) * 1_000_000);
+        out.writeInt(indexes.get(band.getCreationZone().getId()));
+        out.writeInt(band.getRawNumberOfParticipants());
+        out.writeInt(band.getRawAlbumsCount());
+        out.writeInt(indexes.get(band.getDescription()));
+        out.writeByte(band.getGenre().ordinal());
+        out.writeInt(band.hasBestAlbum() ? indexes.get(band.getBestAlbumName()) : NO_STRING);
+        out.writeFloat(band.getBestAlbumSales());
+        out.writeInt(band.getBestAlbumTracks());
+    }
+
+    private static void intern(String value, Map<String, Integer> indexes, List<String> strings) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package managers;
+
+import commands.Command;
+
+import java.io.PrintStream;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Класс, выполняющий команды с блокировкой по виду доступа к коллекции ({@link Command#access()}).
+ * <p>
+ * Коллекция и все индексы меняются вместе одной командой, поэтому изменяющие команды конфликтуют
+ * между собой и с читающими и выполняются монопольно. Читающие команды захватывают блокировку
+ * чтения своей полосы {@link StripedReadWriteLock} и выполняются параллельно, не касаясь общих счётчиков.
+ * Команды, которым хватает снимка коллекции ({@link models.BandSnapshot}), выполняются без блокировки
+ * и не задерживают запись, даже если выводят всю коллекцию.
+ */
+public class CommandExecutor {
+    /** Системное свойство с числом полос блокировки (по умолчанию - удвоенное число процессоров). */
+    public static final String STRIPES_PROPERTY = "musicbands.lock.stripes";
+
+    private static final StripedReadWriteLock lock = new StripedReadWriteLock(
+            Integer.getInteger(STRIPES_PROPERTY, 2 * Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Выполняет команду в текущем потоке под нужной ей блокировкой.
+     * На ведомом узле репликации изменяющие команды не выполняются.
+     * @param command команда.
+     * @param args аргументы команды или {@code null}.
+     */
+    public static void execute(Command command, String args) {
+        if (command.modifiesCollection() && ReplicationFollower.isRunning()) {
+            System.out.println(ReplicationFollower.READ_ONLY_MESSAGE);
+            return;
+        }
+        switch (command.access()) {
+            case NONE:
+                command.execute(args);
+                break;
+            case READ:
+                read(() -> {
+                    command.execute(args);
+                    return null;
+                });
+                break;
+            default:
+                write(() -> {
+                    command.execute(args);
+                    return null;
+                });
+        }
+    }
+
+    /**
+     * Выполняет чтение коллекции под блокировкой чтения полосы текущего потока.
+     * @param action читающее действие.
+     * @return результат действия.
+     */
+    public static <T> T read(Supplier<T> action) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return action.get();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Выполняет изменение коллекции монопольно.
+     * @param action изменяющее действие.
+     * @return результат действия.
+     */
+    public static <T> T write(Supplier<T> action) {
+        lock.lockWrite();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockWrite();
+        }
+    }
+
+    /**
+     * Выполняет команду, направляя её вывод в заданный поток вывода (только для текущего потока,
+     * см. {@link ThreadOutput}).
+     * @param command команда.
+     * @param args аргументы команды или {@code null}.
+     * @param out поток вывода команды.
+     */
+    public static void execute(Command command, String args, PrintStream out) {
+        PrintStream previous = ThreadOutput.redirect(out);
+        try {
+            execute(command, args);
+        } finally {
+            out.flush();
+            ThreadOutput.redirect(previous);
+        }
+    }
+
+    /**
+     * @return блокировка, которой команды разделяют доступ к коллекции.
+     */
+    public static StripedReadWriteLock getLock() {
+        return lock;
+    }
+}
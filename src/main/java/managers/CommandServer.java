@@ -0,0 +1,353 @@
+package managers;
+
+import commands.Command;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервер, принимающий команды по TCP.
+ * <p>
+ * Протокол строковый: клиент отправляет команду с аргументами одной строкой в UTF-8, как в консоли,
+ * сервер отвечает выводом команды и строкой {@value #END_OF_RESPONSE}. Строки ответа, начинающиеся с точки,
+ * передаются с дополнительной точкой в начале (как в SMTP), поэтому конец ответа распознаётся однозначно.
+ * Команды одного соединения выполняются по очереди, команды разных соединений - параллельно
+ * через {@link CommandExecutor}, а их вывод собирается отдельно для каждой команды (см. {@link ThreadOutput}).
+ * <p>
+ * Все соединения обслуживает один поток с {@link Selector}: он читает строки, отправляет команды в пул
+ * рабочих потоков и пишет готовые ответы, не блокируясь. Простаивающее соединение занимает только
+ * объект {@link Connection} без собственных буферов, так что процесс держит тысячи подключённых клиентов.
+ * Команды, которые в консоли запрашивают ввод ({@link Command#promptsForInput(String)}), принимают параметры
+ * одной строкой (как в скриптах), exit закрывает соединение.
+ * <p>
+ * Сервер не проверяет, кто подключился, а команды читают и пишут файлы на стороне сервера, поэтому
+ * по умолчанию порт открывается только на локальном адресе; другой адрес задаётся явно.
+ */
+public class CommandServer {
+    /** Строка, завершающая ответ на команду. */
+    public static final String END_OF_RESPONSE = ".";
+    /** Системное свойство с числом рабочих потоков. */
+    public static final String WORKERS_PROPERTY = "musicbands.server.workers";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    /** Сколько принятых строк может ждать выполнения, прежде чем сервер перестанет читать соединение. */
+    private static final int MAX_QUEUED_LINES = 64;
+    private static final String BAND_FORMAT = "{name} {x} {y} {participants} {albums} {description} {genre} {album} {sales} {tracks}";
+    /** Формат аргументов, которыми по сети заменяется ввод с консоли. */
+    private static final Map<String, String> INLINE_FORMATS = Map.of(
+            "add", BAND_FORMAT,
+            "add_if_min", BAND_FORMAT,
+            "count_less_than_best_album", "{1|2} {value} [genre]");
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Состояние соединения. Все поля, кроме {@link #response}, меняет только поток селектора.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        /** Начало строки, ещё не завершённой переводом строки. */
+        byte[] partial = EMPTY;
+        int partialLength;
+        final ArrayDeque<String> lines = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        /** Команда соединения выполняется в рабочем потоке. */
+        boolean busy;
+        /** Соединение закрывается после отправки ответов. */
+        boolean closing;
+        /** Ответ, подготовленный рабочим потоком. */
+        volatile ByteBuffer response;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ExecutorService workers;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    /** Соединения, команды которых завершились; разбираются потоком селектора. */
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Открывает порт для подключений на локальном адресе.
+     * @param port номер порта.
+     * @throws IOException если порт не удалось открыть.
+     */
+    public CommandServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Открывает порт для подключений.
+     * @param address адрес, на котором принимаются подключения.
+     * @param port номер порта.
+     * @throws IOException если порт не удалось открыть.
+     */
+    public CommandServer(InetAddress address, int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(address, port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(
+                Integer.getInteger(WORKERS_PROPERTY, Math.max(4, Runtime.getRuntime().availableProcessors())),
+                task -> {
+                    Thread thread = new Thread(task, "command-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ThreadOutput.install();
+    }
+
+    /**
+     * Обслуживает подключения в текущем потоке; не возвращает управление, пока сервер работает.
+     * @throws IOException при ошибке селектора.
+     */
+    public void run() throws IOException {
+        InetSocketAddress local = (InetSocketAddress) server.getLocalAddress();
+        System.out.println("Сервер принимает команды на " + local.getAddress().getHostAddress() + ", порт " + local.getPort() + ".");
+        while (server.isOpen()) {
+            selector.select();
+            Connection done;
+            while ((done = completed.poll()) != null) {
+                finish(done);
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) continue;
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) read(connection);
+                    if (key.isValid() && key.isWritable()) write(connection);
+                } catch (IOException e) {
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        readBuffer.clear();
+        int read = connection.channel.read(readBuffer);
+        if (read < 0) {
+            // клиент закрыл свою сторону: ответы на уже принятые команды ещё отправляются
+            connection.closing = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            if (!connection.busy && connection.lines.isEmpty() && connection.output.isEmpty()) close(connection);
+            return;
+        }
+        byte[] data = readBuffer.array();
+        int start = 0;
+        for (int i = 0; i < read; i++) {
+            if (data[i] != '\n') continue;
+            connection.lines.add(line(connection, data, start, i));
+            start = i + 1;
+        }
+        if (read - start + connection.partialLength > MAX_LINE_LENGTH) {
+            connection.lines.clear();
+            connection.partialLength = 0;
+            connection.closing = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            enqueue(connection, frame(("Ошибка: строка длиннее " + MAX_LINE_LENGTH + " байт, соединение закрыто.\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+            return;
+        }
+        if (start < read) {
+            int length = connection.partialLength + read - start;
+            if (connection.partial.length < length) {
+                connection.partial = Arrays.copyOf(connection.partial, Math.max(length, 2 * connection.partial.length));
+            }
+            System.arraycopy(data, start, connection.partial, connection.partialLength, read - start);
+            connection.partialLength = length;
+        }
+        if (connection.lines.size() >= MAX_QUEUED_LINES) {
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        dispatch(connection);
+    }
+
+    /**
+     * @return строка из накопленного начала и байтов {@code [from, to)} без завершающего {@code \r}.
+     */
+    private static String line(Connection connection, byte[] data, int from, int to) {
+        if (to > from && data[to - 1] == '\r') to--;
+        String line;
+        if (connection.partialLength == 0) {
+            line = new String(data, from, to - from, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = Arrays.copyOf(connection.partial, connection.partialLength + to - from);
+            System.arraycopy(data, from, bytes, connection.partialLength, to - from);
+            line = new String(bytes, StandardCharsets.UTF_8);
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            connection.partial = EMPTY;
+            connection.partialLength = 0;
+        }
+        return line;
+    }
+
+    /**
+     * Отправляет следующую строку соединения на выполнение, если его предыдущая команда завершилась.
+     */
+    private void dispatch(Connection connection) {
+        if (connection.busy || connection.lines.isEmpty() || !connection.key.isValid()) return;
+        String line = connection.lines.poll().trim();
+        if (connection.lines.size() < MAX_QUEUED_LINES && !connection.closing) {
+            connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+        }
+        // exit с любыми аргументами закрывает только соединение, а не сервер
+        if (line.split("\\s+", 2)[0].equals("exit")) {
+            connection.lines.clear();
+            connection.closing = true;
+            enqueue(connection, frame("Соединение закрыто.\n".getBytes(StandardCharsets.UTF_8)));
+            return;
+        }
+        connection.busy = true;
+        workers.execute(() -> {
+            connection.response = execute(line);
+            completed.add(connection);
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * Вызывается в потоке селектора после выполнения команды соединения.
+     */
+    private void finish(Connection connection) {
+        connection.busy = false;
+        if (!connection.key.isValid()) return;
+        ByteBuffer response = connection.response;
+        connection.response = null;
+        enqueue(connection, response);
+        dispatch(connection);
+    }
+
+    private void enqueue(Connection connection, ByteBuffer response) {
+        connection.output.add(response);
+        try {
+            write(connection);
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    private void write(Connection connection) throws IOException {
+        while (!connection.output.isEmpty()) {
+            ByteBuffer buffer = connection.output.peek();
+            connection.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.output.poll();
+        }
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+        if (connection.closing && !connection.busy && connection.lines.isEmpty()) close(connection);
+    }
+
+    private void close(Connection connection) {
+        if (!connection.key.isValid()) return;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Выполняет строку команды в рабочем потоке и возвращает оформленный ответ.
+     */
+    private static ByteBuffer execute(String line) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+        if (!line.isEmpty()) {
+            String[] parts = line.split(" ", 2);
+            String name = parts[0];
+            String args = parts.length > 1 ? parts[1].trim() : null;
+            Command command = InputManager.commands.get(name);
+            if (command == null) {
+                out.println("Неизвестная команда. Введите 'help' для справки.");
+            } else if (command.consoleOnly()) {
+                out.println("Команда " + name + " доступна только из консоли сервера.");
+            } else if (command.promptsForInput(args)) {
+                out.println("По сети команда " + name + " принимает параметры одной строкой: " + name + " "
+                        + INLINE_FORMATS.getOrDefault(name, "{аргументы}"));
+            } else {
+                try {
+                    CommandExecutor.execute(command, args, out);
+                } catch (Exception e) {
+                    out.println("Ошибка при выполнении команды: " + e.getMessage());
+                }
+            }
+        }
+        out.flush();
+        return frame(bytes.toByteArray());
+    }
+
+    /**
+     * Оформляет вывод команды как ответ протокола: удваивает точку в начале строк
+     * и добавляет завершающую строку {@value #END_OF_RESPONSE}.
+     */
+    static ByteBuffer frame(byte[] output) {
+        int extra = 0;
+        boolean lineStart = true;
+        for (byte b : output) {
+            if (lineStart && b == '.') extra++;
+            lineStart = b == '\n';
+        }
+        byte[] framed = new byte[output.length + extra + (lineStart ? 2 : 3)];
+        int position = 0;
+        if (extra == 0) {
+            System.arraycopy(output, 0, framed, 0, output.length);
+            position = output.length;
+        } else {
+            lineStart = true;
+            for (byte b : output) {
+                if (lineStart && b == '.') framed[position++] = '.';
+                framed[position++] = b;
+                lineStart = b == '\n';
+            }
+        }
+        if (!lineStart) framed[position++] = '\n';
+        framed[position++] = '.';
+        framed[position] = '\n';
+        return ByteBuffer.wrap(framed);
+    }
+}
@@ -0,0 +1,360 @@
+package managers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import commands.GenreFilter;
+import indexes.BestAlbumIndex;
+import models.Album;
+import models.BandSnapshot;
+import models.Coordinates;
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.initializationDate;
+
+/**
+ * HTTP API с ответами в JSON на встроенном HTTP-сервере JDK.
+ * <pre>
+ * GET    /bands?after={id}&amp;limit={n}     страница групп в порядке ID (после группы after, до 1000 за раз)
+ * GET    /bands/{id}                       группа по ID
+ * POST   /bands                            добавить группу (тело - объект группы без id и creationDate)
+ * DELETE /bands/{id}                       удалить группу
+ * GET    /info                             сведения о коллекции
+ * GET    /aggregates/count-less-than-best-album?field=tracks|sales&amp;value={v}[&amp;genre={g}]
+ * GET    /aggregates/max-by-albums-count[?genre={g}]
+ * </pre>
+ * Поиск по ID и агрегаты выполняются под блокировкой чтения, изменения - монопольно (см. {@link CommandExecutor}).
+ * Список берёт под блокировкой чтения только снимок коллекции ({@link BandSnapshot}) и обходит его без блокировок.
+ * Как и сервер команд, API не проверяет клиентов, поэтому по умолчанию порт открывается только на локальном адресе.
+ * Каждый запрос обслуживается в своём виртуальном потоке, если JVM их поддерживает (JDK 21 и новее),
+ * иначе - пулом из {@value #THREADS_PROPERTY} потоков.
+ */
+public class HttpApi {
+    /** Системное свойство с числом потоков, если виртуальные потоки недоступны. */
+    public static final String THREADS_PROPERTY = "musicbands.http.threads";
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final HttpServer server;
+    private final boolean virtualThreads;
+
+    /**
+     * Открывает порт на локальном адресе и запускает сервер; запросы обрабатываются в фоновых потоках.
+     * @param port номер порта.
+     * @throws IOException если порт не удалось открыть.
+     */
+    public HttpApi(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Открывает порт и запускает сервер; запросы обрабатываются в фоновых потоках.
+     * @param address адрес, на котором принимаются запросы.
+     * @param port номер порта.
+     * @throws IOException если порт не удалось открыть.
+     */
+    public HttpApi(InetAddress address, int port) throws IOException {
+        // без TCP_NODELAY заголовки и тело ответа уходят разными пакетами, и клиент с отложенным
+        // подтверждением ждёт второй около 40 мс; свойство читается при первом создании сервера
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(address, port), 1024);
+        ExecutorService executor = virtualThreadExecutor();
+        virtualThreads = executor != null;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(
+                    Integer.getInteger(THREADS_PROPERTY, 4 * Runtime.getRuntime().availableProcessors()), task -> {
+                        Thread thread = new Thread(task, "http-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        server.setExecutor(executor);
+        server.createContext("/bands", this::bands);
+        server.createContext("/info", exchange -> handle(exchange, "GET", () -> info()));
+        server.createContext("/aggregates/count-less-than-best-album",
+                exchange -> handle(exchange, "GET", () -> countLessThanBestAlbum(query(exchange))));
+        server.createContext("/aggregates/max-by-albums-count",
+                exchange -> handle(exchange, "GET", () -> maxByAlbumsCount(query(exchange))));
+        server.start();
+    }
+
+    /**
+     * @return порт, на котором принимаются запросы.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return {@code true}, если запросы обслуживаются виртуальными потоками.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Останавливает сервер.
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Создаёт исполнитель «виртуальный поток на задачу» через отражение, чтобы код собирался и на JDK 17.
+     * @return исполнитель или {@code null}, если виртуальные потоки недоступны.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // JDK 17 или JDK 19-20 без --enable-preview
+            return null;
+        }
+    }
+
+    /** Ответ обработчика: код состояния и тело в JSON. */
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private interface Handler {
+        Response handle() throws IOException;
+    }
+
+    private static Response ok(CharSequence body) {
+        return new Response(200, body.toString());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.string(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = exchange.getRequestMethod().equals(method) ? handler.handle()
+                    : error(405, "Метод " + exchange.getRequestMethod() + " не поддерживается");
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (Exception e) {
+            response = error(500, "Ошибка при выполнении запроса: " + e.getMessage());
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void bands(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/bands") || path.equals("/bands/")) {
+            if (method.equals("POST")) {
+                handle(exchange, "POST", () -> add(exchange));
+            } else {
+                handle(exchange, "GET", () -> list(query(exchange)));
+            }
+            return;
+        }
+        int id;
+        try {
+            id = Integer.parseInt(path.substring("/bands/".length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            handle(exchange, method, () -> error(404, "Ресурс не найден: " + path));
+            return;
+        }
+        if (method.equals("DELETE")) {
+            handle(exchange, "DELETE", () -> remove(id));
+        } else {
+            handle(exchange, "GET", () -> get(id));
+        }
+    }
+
+    private static Response list(Map<String, String> query) {
+        int after = intParameter(query, "after", -1);
+        int limit = intParameter(query, "limit", DEFAULT_LIMIT);
+        if (limit <= 0 || limit > MAX_LIMIT) throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        // хранилище без собственных версий копируется в снимок, поэтому снимок берётся под блокировкой
+        BandSnapshot snapshot = CommandExecutor.read(bands::snapshot);
+        StringBuilder out = new StringBuilder(64 + limit * 320);
+        out.append("{\"total\":").append(snapshot.size()).append(",\"bands\":[");
+        Iterator<MusicBand> iterator = snapshot.iteratorAfter(after);
+        int count = 0;
+        int last = -1;
+        while (count < limit && iterator.hasNext()) {
+            MusicBand band = iterator.next();
+            if (count++ > 0) out.append(',');
+            Json.band(out, band);
+            last = band.getId();
+        }
+        out.append("],\"next\":").append(iterator.hasNext() ? String.valueOf(last) : "null").append('}');
+        return ok(out);
+    }
+
+    private static Response get(int id) {
+        MusicBand band = CommandExecutor.read(() -> bands.get(id));
+        return band == null ? error(404, "Группа с ID " + id + " не найдена") : ok(Json.band(new StringBuilder(), band));
+    }
+
+    private static Response info() {
+        return CommandExecutor.read(() -> {
+            StringBuilder out = new StringBuilder("{\"type\":");
+            Json.string(out, bands.getClass().getSimpleName()).append(",\"initializationDate\":");
+            Json.string(out, initializationDate.toString()).append(",\"size\":").append(bands.size())
+                    .append(",\"storage\":");
+            return ok(Json.string(out, bands.describeStorage()).append('}'));
+        });
+    }
+
+    private static Response countLessThanBestAlbum(Map<String, String> query) {
+        String field = query.get("field");
+        BestAlbumIndex.Field indexField = "tracks".equals(field) ? BestAlbumIndex.Field.TRACKS
+                : "sales".equals(field) ? BestAlbumIndex.Field.SALES : null;
+        if (indexField == null) throw new IllegalArgumentException("field должен быть tracks или sales");
+        String value = query.get("value");
+        if (value == null) throw new IllegalArgumentException("не указан параметр value");
+        double threshold;
+        try {
+            threshold = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("value должен быть числом");
+        }
+        MusicGenre genre = genre(query);
+        int count = CommandExecutor.read(() -> GenreFilter.countLess(genre, indexField, threshold));
+        return ok("{\"count\":" + count + "}");
+    }
+
+    private static Response maxByAlbumsCount(Map<String, String> query) {
+        MusicGenre genre = genre(query);
+        MusicBand band = CommandExecutor.read(() -> {
+            Integer id = GenreFilter.maxAlbumsCountId(genre);
+            return id == null ? null : bands.get(id);
+        });
+        return ok(Json.band(new StringBuilder("{\"band\":"), band).append('}'));
+    }
+
+    private static Response add(HttpExchange exchange) throws IOException {
+        if (ReplicationFollower.isRunning()) return error(403, ReplicationFollower.READ_ONLY_MESSAGE);
+        Object parsed = Json.parse(body(exchange));
+        if (!(parsed instanceof Map)) throw new IllegalArgumentException("ожидался объект группы");
+        Map<?, ?> fields = (Map<?, ?>) parsed;
+        Map<?, ?> coordinates = object(fields, "coordinates");
+        Map<?, ?> album = object(fields, "bestAlbum");
+        String genreName = string(fields, "genre");
+        MusicGenre genre = genreName == null ? null : MusicGenre.fromString(genreName);
+        if (genreName != null && genre == null) throw new IllegalArgumentException("неизвестный жанр: " + genreName);
+        String name = string(fields, "name");
+        Integer participants = integer(fields, "numberOfParticipants");
+        Integer albums = integer(fields, "albumsCount");
+        String description = string(fields, "description");
+        Coordinates point = new Coordinates((float) number(coordinates, "x"), (float) number(coordinates, "y"));
+        Integer tracks = integer(album, "tracks");
+        if (tracks == null) throw new IllegalArgumentException("поле tracks должно быть числом");
+        Album bestAlbum = new Album(string(album, "name"), (float) number(album, "sales"), tracks);
+        MusicBand band = CommandExecutor.write(() -> {
+            MusicBand created = new MusicBand(name, point, participants, albums, description, genre, bestAlbum);
+            MusicBandManager.addBand(created);
+            return created;
+        });
+        return new Response(201, Json.band(new StringBuilder(), band).toString());
+    }
+
+    private static Response remove(int id) {
+        if (ReplicationFollower.isRunning()) return error(403, ReplicationFollower.READ_ONLY_MESSAGE);
+        MusicBand band = CommandExecutor.write(() -> MusicBandManager.removeBandById(id));
+        return band == null ? error(404, "Группа с ID " + id + " не найдена")
+                : ok(Json.band(new StringBuilder("{\"removed\":"), band).append('}'));
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) throw new IllegalArgumentException("тело запроса длиннее " + MAX_BODY + " байт");
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> result = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) return result;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " должен быть целым числом");
+        }
+    }
+
+    private static MusicGenre genre(Map<String, String> query) {
+        String value = query.get("genre");
+        if (value == null || value.isEmpty()) return null;
+        MusicGenre genre = MusicGenre.fromString(value);
+        if (genre == null) throw new IllegalArgumentException("неизвестный жанр: " + value);
+        return genre;
+    }
+
+    private static Map<?, ?> object(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Map)) throw new IllegalArgumentException("поле " + name + " должно быть объектом");
+        return (Map<?, ?>) value;
+    }
+
+    private static String string(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) throw new IllegalArgumentException("поле " + name + " должно быть строкой");
+        return (String) value;
+    }
+
+    private static double number(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Double)) throw new IllegalArgumentException("поле " + name + " должно быть числом");
+        return (Double) value;
+    }
+
+    private static Integer integer(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value == null) return null;
+        double number = number(fields, name);
+        if (number != Math.rint(number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("поле " + name + " должно быть целым числом");
+        }
+        return (int) number;
+    }
+}
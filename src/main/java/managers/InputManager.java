@@ -21,20 +21,49 @@ public class InputManager {
             new AbstractMap.SimpleEntry<>("add_if_min", new AddIfMin()),
             new AbstractMap.SimpleEntry<>("max_by_albums_count", new MaxByAlbumsCount()),
             new AbstractMap.SimpleEntry<>("count_less_than_best_album", new CountLessThanBestAlbum()),
+            new AbstractMap.SimpleEntry<>("count_greater_than", new CountGreaterThan()),
+            new AbstractMap.SimpleEntry<>("count_between", new CountBetween()),
             new AbstractMap.SimpleEntry<>("print_field_ascending_number_of_participants", new PrintFieldAscendingNumberOfParticipants()),
             new AbstractMap.SimpleEntry<>("info", new Info()),
             new AbstractMap.SimpleEntry<>("show", new Show()),
             new AbstractMap.SimpleEntry<>("add", new Add()),
             new AbstractMap.SimpleEntry<>("clear", new Clear()),
             new AbstractMap.SimpleEntry<>("save", new Save()),
+            new AbstractMap.SimpleEntry<>("save_status", new SaveStatus()),
+            new AbstractMap.SimpleEntry<>("replication_status", new ReplicationStatus()),
+            new AbstractMap.SimpleEntry<>("rebalance", new Rebalance()),
+            new AbstractMap.SimpleEntry<>("save_binary", new SaveBinary()),
+            new AbstractMap.SimpleEntry<>("load_binary", new LoadBinary()),
+            new AbstractMap.SimpleEntry<>("load_benchmark", new LoadBenchmark()),
+            new AbstractMap.SimpleEntry<>("memory", new Memory()),
+            new AbstractMap.SimpleEntry<>("stats_by_genre", new StatsByGenre()),
+            new AbstractMap.SimpleEntry<>("nearest", new Nearest()),
+            new AbstractMap.SimpleEntry<>("within", new Within()),
+            new AbstractMap.SimpleEntry<>("find_by_name", new FindByName()),
+            new AbstractMap.SimpleEntry<>("search", new Search()),
+            new AbstractMap.SimpleEntry<>("created_between", new CreatedBetween()),
+            new AbstractMap.SimpleEntry<>("remove_older_than", new RemoveOlderThan()),
+            new AbstractMap.SimpleEntry<>("top", new Top(true)),
+            new AbstractMap.SimpleEntry<>("bottom", new Top(false)),
             new AbstractMap.SimpleEntry<>("execute_script", new ExecuteScript()),
             new AbstractMap.SimpleEntry<>("exit", new Exit())
     );
 
+    /** Поток, читающий команды с консоли; {@code null}, пока цикл команд не запущен. */
+    private static volatile Thread consoleThread;
+
+    /**
+     * @return {@code true}, если текущий поток выполняет команды, введённые с консоли.
+     */
+    public static boolean isConsoleThread() {
+        return Thread.currentThread() == consoleThread;
+    }
+
     /**
      * Запускает цикл обработки команд пользователя.
      */
     public static void startCommandLoop() {
+        consoleThread = Thread.currentThread();
 
         while (true) {
             System.out.print("Введите команду: ");
@@ -50,7 +79,7 @@ public class InputManager {
             Command cmd = commands.get(cmdName);
             if (cmd != null) {
                 try {
-                    cmd.execute(args);
+                    CommandExecutor.execute(cmd, args);
                 } catch (Exception e) {
                     System.out.println("Ошибка при выполнении команды: " + e.getMessage());
                 }
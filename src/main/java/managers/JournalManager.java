@@ -0,0 +1,440 @@
+package managers;
+
+import models.MusicBand;
+import models.MusicGenre;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+import static managers.MusicBandManager.*;
+
+/**
+ * Класс, ведущий журнал изменений коллекции рядом с XML-файлом.
+ * При сохранении в журнал дописываются только изменения, сделанные после предыдущего сохранения,
+ * поэтому стоимость {@code save} пропорциональна объёму правок, а не размеру коллекции.
+ * При запуске журнал применяется поверх последнего снимка (XML-файла), а когда он
+ * превышает порог, коллекция целиком записывается в новый снимок и журнал очищается.
+ */
+public class JournalManager {
+    /** Суффикс файла журнала: журнал лежит рядом с файлом коллекции. */
+    public static final String JOURNAL_SUFFIX = ".journal";
+    /** Суффикс журнала, который сейчас сворачивается в новый снимок. */
+    public static final String COMPACTING_SUFFIX = ".compacting";
+    /** Системное свойство с порогом размера журнала в байтах. */
+    public static final String THRESHOLD_PROPERTY = "musicbands.journal.threshold";
+    private static final long DEFAULT_THRESHOLD = 8L << 20;
+    /** Сигнатура файла журнала ("MBJ1"). */
+    private static final int MAGIC = 0x4D424A31;
+    /** Максимальный размер одной записи; всё, что больше, считается повреждением. */
+    private static final int MAX_RECORD_SIZE = 1 << 24;
+    /** Длина, которой записывается отсутствующая строка (группа без лучшего альбома). */
+    private static final int NO_STRING = -1;
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+    private static final byte REMOVE_ALL = 4;
+    /** Сколько ID помещается в одну запись массового удаления (с запасом до {@link #MAX_RECORD_SIZE}). */
+    private static final int REMOVE_ALL_BATCH = MAX_RECORD_SIZE / Integer.BYTES - 2;
+
+    /** Записи, ещё не сброшенные в файл журнала. */
+    private static final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private static final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private static final DataOutputStream recordOut = new DataOutputStream(record);
+    private static int pendingRecords;
+    /** Коллекция была заменена целиком, и следующее сохранение должно записать снимок. */
+    private static boolean snapshotRequired;
+
+    /**
+     * Возвращает файл журнала для текущего файла коллекции.
+     * @return файл журнала.
+     */
+    public static File getJournalFile() {
+        return new File(filePath + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Возвращает журнал, который сворачивается в снимок фоновой записью.
+     * Он существует, пока запись снимка не завершилась успешно.
+     * @return файл сворачиваемого журнала.
+     */
+    public static File getCompactingFile() {
+        return new File(filePath + JOURNAL_SUFFIX + COMPACTING_SUFFIX);
+    }
+
+    /**
+     * Возвращает количество изменений, ещё не записанных в журнал.
+     * @return количество несохранённых записей.
+     */
+    public static int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Запоминает добавление группы.
+     * @param band добавленная группа.
+     */
+    public static void logAdd(MusicBand band) {
+        try {
+            startRecord(ADD);
+            writeBand(recordOut, band);
+            finishRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Запоминает удаление группы.
+     * @param id идентификатор удалённой группы.
+     */
+    public static void logRemove(int id) {
+        try {
+            startRecord(REMOVE);
+            recordOut.writeInt(id);
+            finishRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Запоминает удаление нескольких групп: ID записываются подряд, а не отдельными записями.
+     * @param ids идентификаторы удалённых групп.
+     */
+    public static void logRemoveAll(int[] ids) {
+        try {
+            for (int from = 0; from < ids.length; from += REMOVE_ALL_BATCH) {
+                int to = Math.min(ids.length, from + REMOVE_ALL_BATCH);
+                startRecord(REMOVE_ALL);
+                recordOut.writeInt(to - from);
+                for (int i = from; i < to; i++) {
+                    recordOut.writeInt(ids[i]);
+                }
+                finishRecord();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Запоминает очистку коллекции.
+     */
+    public static void logClear() {
+        try {
+            startRecord(CLEAR);
+            finishRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Сохраняет несохранённые изменения: дописывает их в конец журнала и сбрасывает его на диск.
+     * Если снимка ещё нет или журнал превысил порог, дополнительно запускается фоновая запись
+     * коллекции целиком (см. {@link #compact()}).
+     * @throws Exception если данные не удалось записать.
+     */
+    public static void commit() throws Exception {
+        File journal = getJournalFile();
+        boolean snapshotNeeded = snapshotRequired || !new File(filePath).exists()
+                || journal.length() + pending.size() > getThreshold();
+
+        int written = pendingRecords;
+        if (written > 0) {
+            appendPending(journal);
+        }
+        if (snapshotNeeded && !SnapshotWriter.isRunning()) {
+            compact();
+            System.out.println("Запущено фоновое сохранение коллекции в файл (статус: save_status).");
+        } else if (written > 0) {
+            System.out.println("Изменения сохранены в журнал: " + written + " записей (" + journal.length() + " байт).");
+        } else {
+            System.out.println("Нет несохранённых изменений.");
+        }
+    }
+
+    /**
+     * Запускает фоновую запись коллекции целиком в XML-файл.
+     * Текущий журнал переименовывается в {@code .compacting} и удаляется только после того,
+     * как новый снимок атомарно заменит файл; новые изменения пишутся уже в свежий журнал.
+     * Вызывающий код должен предварительно сбросить несохранённые записи в журнал.
+     * @throws Exception если журнал не удалось подготовить.
+     */
+    public static void compact() throws Exception {
+        File journal = getJournalFile();
+        File compacting = getCompactingFile();
+        if (journal.exists()) {
+            if (compacting.exists()) {
+                // предыдущая запись снимка не удалась: её журнал ещё нужен, дописываем к нему текущий
+                appendJournal(journal, compacting);
+                Files.delete(journal.toPath());
+            } else {
+                Files.move(journal.toPath(), compacting.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        SnapshotWriter.submit(bands.snapshot(), new File(filePath), compacting);
+        snapshotRequired = false;
+    }
+
+    /**
+     * Отмечает, что коллекция была заменена целиком (например, загружена из другого файла):
+     * накопленные записи больше не описывают её, и следующее сохранение запишет полный снимок,
+     * а ведомые получат снимок заново.
+     */
+    public static void requireSnapshot() {
+        pending.reset();
+        pendingRecords = 0;
+        snapshotRequired = true;
+        ReplicationLeader.reset();
+    }
+
+    /**
+     * Применяет журнал поверх загруженного снимка.
+     * Записи идемпотентны (добавление пропускается, если ID уже есть, удаление отсутствующей
+     * группы ничего не делает), поэтому повторное применение журнала к более новому снимку безопасно.
+     * Повреждённый хвост журнала (например, после аварийного завершения) отбрасывается.
+     */
+    public static void replay() {
+        replay(getCompactingFile());
+        replay(getJournalFile());
+    }
+
+    private static void replay(File journal) {
+        if (!journal.isFile() || journal.length() == 0) return;
+
+        int applied = 0;
+        long valid = 0;
+        boolean truncated = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("Файл журнала повреждён и не будет применён: " + journal);
+                return;
+            }
+            valid = Integer.BYTES;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    truncated = true;
+                    break;
+                }
+                int checksum = in.readInt();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksum != checksum(payload, length)) {
+                    truncated = true;
+                    break;
+                }
+                apply(payload);
+                applied++;
+                valid += 2L * Integer.BYTES + length;
+            }
+        } catch (EOFException e) {
+            truncated = true;
+        } catch (Exception e) {
+            System.err.println("Ошибка применения журнала: " + e.getMessage());
+            return;
+        }
+
+        if (truncated) {
+            try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+                file.setLength(valid);
+            } catch (IOException e) {
+                System.err.println("Не удалось обрезать повреждённый журнал: " + e.getMessage());
+            }
+            System.out.println("Повреждённый хвост журнала отброшен: " + journal);
+        }
+        System.out.println("Применено записей журнала " + journal.getName() + ": " + applied);
+    }
+
+    /**
+     * Возвращает порог размера журнала, после которого он сворачивается в снимок.
+     * @return порог в байтах.
+     */
+    public static long getThreshold() {
+        return Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Дописывает несохранённые записи в конец журнала и сбрасывает его на диск.
+     * @param journal файл журнала.
+     * @throws IOException если запись не удалась.
+     */
+    private static void appendPending(File journal) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            if (out.getChannel().size() == 0) {
+                new DataOutputStream(out).writeInt(MAGIC);
+            }
+            pending.writeTo(out);
+            out.getChannel().force(false);
+        }
+        pending.reset();
+        pendingRecords = 0;
+    }
+
+    /**
+     * Дописывает записи одного журнала (без заголовка) в конец другого.
+     */
+    private static void appendJournal(File from, File to) throws IOException {
+        try (FileChannel source = FileChannel.open(from.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(to.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = Integer.BYTES;
+            while (position < source.size()) {
+                position += source.transferTo(position, source.size() - position, target);
+            }
+            target.force(false);
+        }
+    }
+
+    private static void startRecord(byte type) throws IOException {
+        record.reset();
+        recordOut.writeByte(type);
+    }
+
+    /**
+     * Дописывает подготовленную запись в буфер несохранённых изменений в формате
+     * [длина][CRC32][тип, данные] и передаёт её ведомым (см. {@link ReplicationLeader}).
+     */
+    private static void finishRecord() throws IOException {
+        recordOut.flush();
+        byte[] payload = record.toByteArray();
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(2 * Integer.BYTES + payload.length);
+        DataOutputStream out = new DataOutputStream(frame);
+        out.writeInt(payload.length);
+        out.writeInt(checksum(payload, payload.length));
+        out.write(payload);
+        frame.writeTo(pending);
+        pendingRecords++;
+        ReplicationLeader.publish(frame.toByteArray());
+    }
+
+    /**
+     * Применяет данные одной записи (без длины и контрольной суммы) к коллекции без записи в журнал.
+     * @param payload тип записи и её данные.
+     * @throws IOException если запись повреждена.
+     */
+    static void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case ADD:
+                MusicBand band = readBand(in);
+                if (!bands.containsId(band.getId())) {
+                    insertBand(band);
+                }
+                break;
+            case REMOVE:
+                deleteBand(in.readInt());
+                break;
+            case CLEAR:
+                deleteAll();
+                break;
+            case REMOVE_ALL:
+                int[] ids = new int[in.readInt()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = in.readInt();
+                }
+                deleteBands(ids);
+                break;
+            default:
+                throw new IOException("Неизвестный тип записи журнала: " + type);
+        }
+    }
+
+    static int checksum(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Записывает все поля группы, включая ID и дату создания.
+     * @param out поток записи.
+     * @param band группа.
+     * @throws IOException если запись не удалась.
+     */
+    static void writeBand(DataOutput out, MusicBand band) throws IOException {
+        out.writeInt(band.getId());
+        writeString(out, band.getName());
+        out.writeFloat(band.getX());
+        out.writeFloat(band.getY());
+        long millis = band.getCreationMillis();
+        out.writeLong(Math.floorDiv(millis, 1000));
+        out.writeInt(Math.floorMod(millis, 1000) * 1_000_000);
+        writeString(out, band.getCreationZone().getId());
+        out.writeInt(band.getRawNumberOfParticipants());
+        out.writeInt(band.getRawAlbumsCount());
+        writeString(out, band.getDescription());
+        out.writeByte(band.getGenre().ordinal());
+        writeString(out, band.getBestAlbumName());
+        out.writeFloat(band.getBestAlbumSales());
+        out.writeInt(band.getBestAlbumTracks());
+    }
+
+    /**
+     * Читает группу, записанную {@link #writeBand(DataOutput, MusicBand)}.
+     * @param in поток чтения.
+     * @return восстановленная группа.
+     * @throws IOException если данные повреждены.
+     */
+    static MusicBand readBand(DataInput in) throws IOException {
+        int id = in.readInt();
+        String name = readString(in);
+        float x = in.readFloat();
+        float y = in.readFloat();
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        long creationMillis = seconds * 1000 + nanos / 1_000_000;
+        ZoneId zone = ZoneId.of(readString(in));
+        int numberOfParticipants = in.readInt();
+        int albumsCount = in.readInt();
+        String description = readString(in);
+        MusicGenre genre = MusicGenre.values()[in.readByte()];
+        return new MusicBand(id, name, x, y, creationMillis, zone, numberOfParticipants, albumsCount,
+                description, genre, readString(in), in.readFloat(), in.readInt());
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == NO_STRING) return null;
+        if (length < 0 || length > MAX_RECORD_SIZE) throw new IOException("Повреждённая строка в записи журнала");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,213 @@
+package managers;
+
+import models.MusicBand;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Минимальная запись и разбор JSON для HTTP API ({@link HttpApi}) без сторонних библиотек.
+ * Разбор поддерживает объекты, массивы, строки, числа, {@code true}, {@code false} и {@code null};
+ * числа возвращаются как {@link Double}, объекты - как {@link Map}, массивы - как {@link List}.
+ */
+class Json {
+
+    /**
+     * Дописывает строку в кавычках с экранированием.
+     */
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) return out.append("null");
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Дописывает группу объектом с теми же полями, что и в XML-файле коллекции.
+     */
+    static StringBuilder band(StringBuilder out, MusicBand band) {
+        if (band == null) return out.append("null");
+        out.append("{\"id\":").append(band.getId()).append(",\"name\":");
+        string(out, band.getName());
+        out.append(",\"coordinates\":{\"x\":").append(band.getX()).append(",\"y\":").append(band.getY())
+                .append("},\"creationDate\":");
+        string(out, band.getCreationDate().toString());
+        out.append(",\"numberOfParticipants\":").append(band.getNumberOfParticipants())
+                .append(",\"albumsCount\":").append(band.getAlbumsCount())
+                .append(",\"description\":");
+        string(out, band.getDescription());
+        out.append(",\"genre\":");
+        string(out, band.getGenre() == null ? null : band.getGenre().name());
+        if (!band.hasBestAlbum()) return out.append(",\"bestAlbum\":null}");
+        out.append(",\"bestAlbum\":{\"name\":");
+        string(out, band.getBestAlbumName());
+        return out.append(",\"sales\":").append(band.getBestAlbumSales())
+                .append(",\"tracks\":").append(band.getBestAlbumTracks()).append("}}");
+    }
+
+    /**
+     * Разбирает JSON-документ.
+     * @param text текст документа.
+     * @return значение верхнего уровня.
+     * @throws IllegalArgumentException если документ некорректен.
+     */
+    static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipSpaces();
+        if (parser.position != text.length()) throw parser.error("лишние символы после значения");
+        return value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipSpaces();
+            if (position == text.length()) throw error("неожиданный конец");
+            char c = text.charAt(position);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            position++;
+            skipSpaces();
+            if (peek() == '}') {
+                position++;
+                return result;
+            }
+            while (true) {
+                skipSpaces();
+                if (peek() != '"') throw error("ожидалось имя поля");
+                String key = string();
+                skipSpaces();
+                expect(':');
+                result.put(key, value());
+                skipSpaces();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return result;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> result = new ArrayList<>();
+            position++;
+            skipSpaces();
+            if (peek() == ']') {
+                position++;
+                return result;
+            }
+            while (true) {
+                result.add(value());
+                skipSpaces();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return result;
+                }
+            }
+        }
+
+        private String string() {
+            position++;
+            StringBuilder result = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') return result.toString();
+                if (c != '\\') {
+                    result.append(c);
+                    continue;
+                }
+                if (position == text.length()) break;
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n': result.append('\n'); break;
+                    case 'r': result.append('\r'); break;
+                    case 't': result.append('\t'); break;
+                    case 'b': result.append('\b'); break;
+                    case 'f': result.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("неполная escape-последовательность");
+                        try {
+                            result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("некорректная escape-последовательность");
+                        }
+                        position += 4;
+                        break;
+                    default: result.append(escaped);
+                }
+            }
+            throw error("незакрытая строка");
+        }
+
+        private Double number() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) position++;
+            try {
+                return Double.valueOf(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("некорректное значение");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, position)) throw error("некорректное значение");
+            position += word.length();
+            return value;
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("ожидалось '" + c + "'");
+            position++;
+        }
+
+        void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Некорректный JSON в позиции " + position + ": " + message);
+        }
+    }
+}
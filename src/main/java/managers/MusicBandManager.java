@@ -1,7 +1,19 @@
 package managers;
 
+import indexes.AlbumsCountIndex;
+import indexes.BandIndex;
+import indexes.BestAlbumIndex;
+import indexes.ColumnStore;
+import indexes.CreationIndex;
+import indexes.GenreIndex;
+import indexes.ParticipantsHistogram;
+import indexes.ShardIndex;
+import indexes.SpatialIndex;
+import indexes.TextIndex;
 import models.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.*;
 
@@ -14,9 +26,41 @@ import static managers.XMLManager.loadFromFile;
 public class MusicBandManager {
     public static final Scanner scanner = new Scanner(System.in);
     public static MusicBandManager manager;
-    public static Queue<MusicBand> bands;
-    public static Map<Integer, MusicBand> bandsById;
+    /** Системное свойство с числом слотов пула строк. */
+    public static final String STRING_POOL_PROPERTY = "musicbands.strings.pool";
+    private static final int DEFAULT_STRING_POOL_SIZE = 1 << 16;
+    /** Системное свойство с типом хранилища: {@code heap} (по умолчанию), {@code offheap} или {@code sharded}. */
+    public static final String STORE_PROPERTY = "musicbands.store";
+    /** Системное свойство с числом шардов хранилища {@code sharded} (по умолчанию - число процессоров). */
+    public static final String SHARDS_PROPERTY = "musicbands.shards";
+    /** Системное свойство с каталогом для файлов хранилища вне кучи. */
+    public static final String STORE_DIR_PROPERTY = "musicbands.store.dir";
+    /** Коллекция групп: очередь по ID с доступом по ID (см. {@link BandStore}). */
+    public static BandStore bands;
     public static String filePath;
+    /** Индекс по количеству альбомов для add_if_min и max_by_albums_count. */
+    public static final AlbumsCountIndex albumsCountIndex = new AlbumsCountIndex();
+    /** Индекс по полям лучшего альбома для count_less_than_best_album и связанных команд. */
+    public static final BestAlbumIndex bestAlbumIndex = new BestAlbumIndex();
+    /** Гистограмма количества участников для print_field_ascending_number_of_participants. */
+    public static final ParticipantsHistogram participantsHistogram = new ParticipantsHistogram();
+    /** Колоночная копия числовых полей для агрегатов, не покрытых отдельными индексами. */
+    public static final ColumnStore columns = new ColumnStore();
+    /** Разбиение по жанрам для stats_by_genre и агрегатов с фильтром по жанру. */
+    public static final GenreIndex genreIndex = new GenreIndex();
+    /** Пространственный индекс по координатам для nearest и within. */
+    public static final SpatialIndex spatialIndex = new SpatialIndex();
+    /** Полнотекстовый индекс по названиям и описанию для find_by_name и search. */
+    public static final TextIndex textIndex = new TextIndex();
+    /** Индекс по времени создания для created_between и remove_older_than. */
+    public static final CreationIndex creationIndex = new CreationIndex();
+    /** Индексы агрегатов по шардам; ведутся, только если хранилище разбито на шарды. */
+    public static final ShardIndex shardIndex = new ShardIndex();
+    /** Все вторичные индексы, которые обновляются при изменении коллекции. */
+    private static final List<BandIndex> indexes = List.of(albumsCountIndex, bestAlbumIndex, participantsHistogram, columns,
+            genreIndex, spatialIndex, textIndex, creationIndex, shardIndex);
+    /** Пул, через который проходят строки всех добавляемых и загружаемых групп. */
+    public static final StringPool stringPool = new StringPool(Integer.getInteger(STRING_POOL_PROPERTY, DEFAULT_STRING_POOL_SIZE));
     public static ZonedDateTime initializationDate;
     public static final String ERROR_EMPTY_NAME = "Ошибка! Название не может быть пустым.";
     public static final String ERROR_INVALID_NUMBER = "Ошибка! Введите целое число.";
@@ -40,10 +84,193 @@ public class MusicBandManager {
      */
     public MusicBandManager(String filePath) {
         MusicBandManager.filePath = filePath;
+        bands = createStore();
         MusicBandCollectionWrapper.bands = bands;
-        bandsById = new HashMap<>();
         initializationDate = ZonedDateTime.now();
+        TextIndexManager.beforeLoad();
         loadFromFile();
+        TextIndexManager.afterLoad();
+        JournalManager.replay();
+    }
+
+    /**
+     * Создаёт хранилище коллекции выбранного при запуске типа (свойство {@value #STORE_PROPERTY}).
+     * Если хранилище вне кучи создать не удалось, используется хранилище в куче.
+     * @return пустое хранилище.
+     */
+    private static BandStore createStore() {
+        String type = System.getProperty(STORE_PROPERTY, "heap");
+        if (type.equalsIgnoreCase("offheap")) {
+            String directory = System.getProperty(STORE_DIR_PROPERTY);
+            try {
+                return new OffHeapBandStore(directory == null ? null : new File(directory));
+            } catch (IOException e) {
+                System.err.println("Не удалось создать хранилище вне кучи: " + e.getMessage()
+                        + ". Используется хранилище в куче.");
+            }
+        } else if (type.equalsIgnoreCase("sharded")) {
+            int shards = Integer.getInteger(SHARDS_PROPERTY, Runtime.getRuntime().availableProcessors());
+            if (shards >= 1) {
+                shardIndex.resize(shards, List.of());
+                return new ShardedBandStore(shards);
+            }
+            System.err.println("Некорректное число шардов: " + shards + ". Используется хранилище в куче.");
+        } else if (!type.equalsIgnoreCase("heap")) {
+            System.err.println("Неизвестный тип хранилища: " + type + ". Используется хранилище в куче.");
+        }
+        return new MusicBandHeap();
+    }
+
+    /**
+     * Добавляет группу в коллекцию и записывает изменение в журнал.
+     * @param band добавляемая группа.
+     */
+    public static void addBand(MusicBand band) {
+        if (insertBand(band)) {
+            JournalManager.logAdd(band);
+        }
+    }
+
+    /**
+     * Удаляет группу по её ID и записывает изменение в журнал.
+     * @param id идентификатор группы.
+     * @return удалённая группа или {@code null}, если группы с таким ID нет.
+     */
+    public static MusicBand removeBandById(int id) {
+        MusicBand band = deleteBand(id);
+        if (band != null) {
+            JournalManager.logRemove(id);
+        }
+        return band;
+    }
+
+    /**
+     * Удаляет первый элемент коллекции и записывает изменение в журнал.
+     * @return удалённая группа или {@code null}, если коллекция пуста.
+     */
+    public static MusicBand pollBand() {
+        MusicBand band = bands.poll();
+        if (band != null) {
+            unindex(band);
+            JournalManager.logRemove(band.getId());
+        }
+        return band;
+    }
+
+    /**
+     * Удаляет группы, созданные раньше заданного момента, и записывает удаление в журнал одной записью.
+     * Группы находятся по индексу времени создания, а удаляются из хранилища разом
+     * (см. {@link BandStore#removeAllById(int[])}).
+     * @param millis момент в миллисекундах эпохи.
+     * @return количество удалённых групп.
+     */
+    public static int removeBandsOlderThan(long millis) {
+        int[] ids = creationIndex.olderThan(millis);
+        if (ids.length == 0) return 0;
+        if (ids.length == bands.size()) {
+            clearBands();
+            return ids.length;
+        }
+        int removed = deleteBands(ids);
+        JournalManager.logRemoveAll(ids);
+        return removed;
+    }
+
+    /**
+     * Очищает коллекцию и записывает изменение в журнал.
+     */
+    public static void clearBands() {
+        deleteAll();
+        JournalManager.logClear();
+    }
+
+    /**
+     * Добавляет группу в коллекцию без записи в журнал (используется при загрузке и восстановлении).
+     * @param band добавляемая группа.
+     * @return {@code false}, если группа с таким ID уже есть в коллекции.
+     */
+    static boolean insertBand(MusicBand band) {
+        MusicBand.registerId(band.getId());
+        if (!bands.add(band)) return false;
+        band.canonicalizeStrings(stringPool);
+        for (BandIndex index : indexes) {
+            index.add(band);
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет группу по ID без записи в журнал.
+     * @param id идентификатор группы.
+     * @return удалённая группа или {@code null}.
+     */
+    static MusicBand deleteBand(int id) {
+        MusicBand band = bands.removeById(id);
+        if (band != null) {
+            unindex(band);
+        }
+        return band;
+    }
+
+    /**
+     * Удаляет группы по ID без записи в журнал.
+     * @param ids идентификаторы групп; отсутствующие ID пропускаются.
+     * @return количество удалённых групп.
+     */
+    static int deleteBands(int[] ids) {
+        List<MusicBand> removed = bands.removeAllById(ids);
+        for (MusicBand band : removed) {
+            unindex(band);
+        }
+        return removed.size();
+    }
+
+    /**
+     * Очищает коллекцию без записи в журнал.
+     */
+    static void deleteAll() {
+        bands.clear();
+        for (BandIndex index : indexes) {
+            index.clear();
+        }
+    }
+
+    /**
+     * Заменяет коллекцию загруженными группами и перестраивает индексы.
+     * Группы с повторяющимся ID пропускаются.
+     * @param loaded загруженные группы.
+     */
+    static void replaceBands(Collection<MusicBand> loaded) {
+        bands.replaceAll(loaded);
+        for (BandIndex index : indexes) {
+            index.clear();
+        }
+        for (MusicBand band : bands) {
+            MusicBand.registerId(band.getId());
+            band.canonicalizeStrings(stringPool);
+            for (BandIndex index : indexes) {
+                index.add(band);
+            }
+        }
+    }
+
+    /**
+     * Меняет число шардов хранилища и переносит группы, сменившие шард, вместе с их индексами агрегатов.
+     * Содержимое коллекции не меняется, поэтому в журнал ничего не записывается.
+     * @param shardCount новое число шардов.
+     * @return количество перенесённых групп или -1, если хранилище не разбито на шарды.
+     */
+    public static int rebalanceShards(int shardCount) {
+        if (!(bands instanceof ShardedBandStore)) return -1;
+        List<MusicBand> moved = ((ShardedBandStore) bands).resize(shardCount);
+        shardIndex.resize(shardCount, moved);
+        return moved.size();
+    }
+
+    private static void unindex(MusicBand band) {
+        for (BandIndex index : indexes) {
+            index.remove(band);
+        }
     }
     /**
      * Запрашивает ввод строки у пользователя.
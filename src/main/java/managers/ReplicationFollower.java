@@ -0,0 +1,188 @@
+package managers;
+
+import models.MusicBand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ведомый узел репликации: получает изменения коллекции от ведущего ({@link ReplicationLeader})
+ * и применяет их к своей коллекции. Пока ведомый запущен, команды, изменяющие коллекцию, отклоняются
+ * (см. {@link CommandExecutor}), а читающие выполняются как обычно.
+ * <p>
+ * Записи применяются пачками под блокировкой записи, так что читающие команды видят коллекцию
+ * только между пачками. После разрыва соединения ведомый переподключается и продолжает с последней
+ * применённой записи; если ведущий её уже не хранит или был перезапущен, ведомый получает снимок коллекции.
+ */
+public class ReplicationFollower {
+    /** Сообщение для изменяющих команд на ведомом. */
+    public static final String READ_ONLY_MESSAGE = "Ведомый узел доступен только для чтения: изменения выполняются на ведущем.";
+    private static final int RETRY_MILLIS = 1000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private static volatile InetSocketAddress leader;
+    private static volatile boolean connected;
+    /** Эпоха ведущего и номер последней применённой записи; меняет только поток репликации. */
+    private static volatile long epoch;
+    private static volatile long applied;
+    /** Номер последней записи ведущего из последнего полученного сообщения. */
+    private static volatile long leaderSequence;
+    /** Задержка между появлением записи у ведущего и её применением, по последней пачке. */
+    private static volatile long applyDelayMillis;
+    private static volatile long lastMessageAt;
+    private static volatile int snapshots;
+    private static volatile int reconnects;
+
+    /**
+     * Начинает получать изменения от ведущего в фоновом потоке.
+     * @param address адрес, на котором ведущий принимает ведомых.
+     */
+    public static void start(InetSocketAddress address) {
+        leader = address;
+        Thread thread = new Thread(ReplicationFollower::run, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return {@code true}, если процесс работает ведомым и изменения коллекции запрещены.
+     */
+    public static boolean isRunning() {
+        return leader != null;
+    }
+
+    /**
+     * Выводит состояние подключения и отставание от ведущего.
+     */
+    public static void printStatus() {
+        long last = leaderSequence;
+        long done = applied;
+        System.out.println("Роль: ведомый (ведущий " + leader.getHostString() + ":" + leader.getPort() + "), "
+                + (connected ? "подключён" : "нет подключения") + ", эпоха " + Long.toHexString(epoch));
+        System.out.println("Применена запись " + done + " из " + last + ", отставание " + Math.max(0, last - done)
+                + " записей, задержка применения " + applyDelayMillis + " мс");
+        long silence = lastMessageAt == 0 ? -1 : System.currentTimeMillis() - lastMessageAt;
+        System.out.println("Последнее сообщение от ведущего: " + (silence < 0 ? "не было" : silence + " мс назад")
+                + ", снимков получено " + snapshots + ", переподключений " + reconnects);
+    }
+
+    private static void run() {
+        while (true) {
+            boolean wasConnected = false;
+            try (Socket socket = new Socket()) {
+                socket.connect(leader, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                // ведущий шлёт пульс каждую секунду; долгое молчание означает, что соединение потеряно
+                socket.setSoTimeout(10 * ReplicationLeader.HEARTBEAT_MILLIS);
+                connected = true;
+                follow(socket);
+            } catch (IOException e) {
+                // ведущий недоступен или соединение разорвано
+            } finally {
+                if (connected) {
+                    connected = false;
+                    wasConnected = true;
+                    reconnects++;
+                }
+            }
+            // после разрыва работавшего соединения (например, при смене эпохи) переподключаемся сразу
+            if (wasConnected) continue;
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void follow(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeInt(ReplicationLeader.MAGIC);
+        out.writeLong(epoch);
+        out.writeLong(applied);
+        out.flush();
+        while (true) {
+            byte type = in.readByte();
+            switch (type) {
+                case ReplicationLeader.SNAPSHOT:
+                    receiveSnapshot(in);
+                    break;
+                case ReplicationLeader.RECORDS:
+                    receiveRecords(in);
+                    break;
+                case ReplicationLeader.HEARTBEAT:
+                    leaderSequence = in.readLong();
+                    in.readLong();
+                    break;
+                default:
+                    throw new IOException("Неизвестный тип сообщения репликации: " + type);
+            }
+            lastMessageAt = System.currentTimeMillis();
+            out.writeLong(applied);
+            out.flush();
+        }
+    }
+
+    private static void receiveSnapshot(DataInputStream in) throws IOException {
+        long snapshotEpoch = in.readLong();
+        long sequence = in.readLong();
+        int size = in.readInt();
+        List<MusicBand> loaded = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            loaded.add(JournalManager.readBand(in));
+        }
+        CommandExecutor.write(() -> {
+            MusicBandManager.replaceBands(loaded);
+            return null;
+        });
+        epoch = snapshotEpoch;
+        applied = sequence;
+        leaderSequence = Math.max(leaderSequence, sequence);
+        snapshots++;
+    }
+
+    private static void receiveRecords(DataInputStream in) throws IOException {
+        long first = in.readLong();
+        int count = in.readInt();
+        long last = in.readLong();
+        if (first != applied + 1) throw new IOException("Пропуск в потоке записей: ожидалась " + (applied + 1) + ", получена " + first);
+        byte[][] payloads = new byte[count][];
+        long newest = 0;
+        for (int i = 0; i < count; i++) {
+            newest = in.readLong();
+            int length = in.readInt();
+            int checksum = in.readInt();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (checksum != JournalManager.checksum(payload, length)) throw new IOException("Повреждённая запись репликации");
+            payloads[i] = payload;
+        }
+        IOException[] failure = new IOException[1];
+        CommandExecutor.write(() -> {
+            try {
+                for (byte[] payload : payloads) {
+                    JournalManager.apply(payload);
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+            return null;
+        });
+        if (failure[0] != null) {
+            // пачка применена частично: при переподключении нужен снимок
+            epoch = 0;
+            throw failure[0];
+        }
+        applied = first + count - 1;
+        leaderSequence = last;
+        applyDelayMillis = Math.max(0, System.currentTimeMillis() - newest);
+    }
+}
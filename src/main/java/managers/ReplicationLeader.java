@@ -0,0 +1,333 @@
+package managers;
+
+import models.BandSnapshot;
+import models.MusicBand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static managers.MusicBandManager.bands;
+
+/**
+ * Ведущий узел репликации: передаёт изменения коллекции ведомым процессам ({@link ReplicationFollower}).
+ * <p>
+ * Каждое изменение уже кодируется записью журнала (см. {@link JournalManager}), поэтому ведущий
+ * передаёт ведомым те же записи, нумеруя их подряд. Последние записи хранятся в памяти
+ * (не больше {@value #BACKLOG_PROPERTY} байт): переподключившийся ведомый получает недостающие записи
+ * из этого буфера, а если отстал сильнее, начал работу заново или ведущий перезапущен (другая эпоха) -
+ * сначала получает снимок коллекции, а затем записи после него.
+ * <p>
+ * Протокол (TCP, big-endian): ведомый отправляет {@link #MAGIC}, эпоху и номер последней применённой записи,
+ * затем ведущий шлёт сообщения {@link #SNAPSHOT}, {@link #RECORDS} и {@link #HEARTBEAT}, а ведомый
+ * в ответ - номера применённых записей, по которым ведущий считает отставание.
+ * Ведомые не проверяются, поэтому порт по умолчанию открывается только на локальном адресе.
+ */
+public class ReplicationLeader {
+    /** Системное свойство с размером буфера последних записей в байтах. */
+    public static final String BACKLOG_PROPERTY = "musicbands.replication.backlog";
+    private static final long DEFAULT_BACKLOG = 16L << 20;
+    /** Сигнатура протокола репликации ("MBR1"). */
+    static final int MAGIC = 0x4D425231;
+    static final byte SNAPSHOT = 1;
+    static final byte RECORDS = 2;
+    static final byte HEARTBEAT = 3;
+    /** Интервал отправки пульса, если новых записей нет. */
+    static final int HEARTBEAT_MILLIS = 1000;
+    private static final int MAX_BATCH = 1024;
+
+    /** Запись журнала и время её появления у ведущего. */
+    private static final class Entry {
+        final byte[] frame;
+        final long millis;
+
+        Entry(byte[] frame, long millis) {
+            this.frame = frame;
+            this.millis = millis;
+        }
+    }
+
+    /** Состояние подключённого ведомого. */
+    private static final class Session {
+        final String address;
+        volatile long acknowledged;
+        volatile long acknowledgedAt = System.currentTimeMillis();
+        volatile boolean snapshotSent;
+
+        Session(String address, long acknowledged) {
+            this.address = address;
+            this.acknowledged = acknowledged;
+        }
+    }
+
+    private static final Object lock = new Object();
+    /** Кольцевой буфер последних записей: {@code count} записей начиная с {@code head}. */
+    private static Entry[] backlog = new Entry[1024];
+    private static int head;
+    private static int count;
+    private static long backlogBytes;
+    /** Номер последней записи; записи нумеруются с 1 в пределах эпохи. */
+    private static long sequence;
+    private static long epoch = newEpoch();
+    private static final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private static volatile ServerSocket server;
+
+    /**
+     * Начинает принимать ведомых на заданном порту локального адреса в фоновом потоке.
+     * @param port номер порта.
+     * @return фактический порт (если передан 0).
+     * @throws IOException если порт не удалось открыть.
+     */
+    public static int start(int port) throws IOException {
+        return start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Начинает принимать ведомых на заданном адресе и порту в фоновом потоке.
+     * @param address адрес, на котором принимаются ведомые.
+     * @param port номер порта.
+     * @return фактический порт (если передан 0).
+     * @throws IOException если порт не удалось открыть.
+     */
+    public static int start(InetAddress address, int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.bind(new InetSocketAddress(address, port));
+        server = socket;
+        Thread acceptor = new Thread(() -> {
+            while (!socket.isClosed()) {
+                try {
+                    Socket follower = socket.accept();
+                    Thread thread = new Thread(() -> serve(follower), "replication-" + follower.getRemoteSocketAddress());
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    if (!socket.isClosed()) {
+                        System.err.println("Ошибка подключения ведомого: " + e.getMessage());
+                    }
+                }
+            }
+        }, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return {@code true}, если процесс принимает ведомых.
+     */
+    public static boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Добавляет запись журнала в поток репликации. Вызывается под блокировкой записи коллекции,
+     * поэтому порядок записей совпадает с порядком изменений.
+     * @param frame запись в формате журнала: длина, CRC32 и данные.
+     */
+    static void publish(byte[] frame) {
+        if (server == null) return;
+        synchronized (lock) {
+            if (count == backlog.length) {
+                Entry[] grown = new Entry[count * 2];
+                for (int i = 0; i < count; i++) grown[i] = entry(i);
+                backlog = grown;
+                head = 0;
+            }
+            backlog[(head + count++) & (backlog.length - 1)] = new Entry(frame, System.currentTimeMillis());
+            backlogBytes += frame.length;
+            sequence++;
+            long limit = Long.getLong(BACKLOG_PROPERTY, DEFAULT_BACKLOG);
+            while (backlogBytes > limit && count > 1) {
+                backlogBytes -= backlog[head].frame.length;
+                backlog[head] = null;
+                head = (head + 1) & (backlog.length - 1);
+                count--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Начинает новую эпоху: коллекция заменена целиком, и записи больше не описывают переход
+     * от того, что есть у ведомых. Ведомые отключаются и при переподключении получают снимок.
+     */
+    static void reset() {
+        synchronized (lock) {
+            backlog = new Entry[1024];
+            head = 0;
+            count = 0;
+            backlogBytes = 0;
+            sequence = 0;
+            epoch = newEpoch();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Выводит номер последней записи и отставание каждого подключённого ведомого.
+     */
+    public static void printStatus() {
+        long last;
+        long first;
+        long bytes;
+        long currentEpoch;
+        synchronized (lock) {
+            last = sequence;
+            first = sequence - count + 1;
+            bytes = backlogBytes;
+            currentEpoch = epoch;
+        }
+        System.out.println("Роль: ведущий (порт " + server.getLocalPort() + "), эпоха " + Long.toHexString(currentEpoch));
+        System.out.println("Последняя запись: " + last + ", в буфере записи " + first + ".." + last
+                + " (" + bytes + " байт)");
+        if (sessions.isEmpty()) {
+            System.out.println("Подключённых ведомых нет.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Session session : sessions) {
+            System.out.println("  " + session.address + ": подтверждена запись " + session.acknowledged
+                    + ", отставание " + Math.max(0, last - session.acknowledged) + " записей, подтверждение "
+                    + (now - session.acknowledgedAt) + " мс назад" + (session.snapshotSent ? ", получил снимок" : ""));
+        }
+    }
+
+    /** Возвращает запись буфера по номеру от начала; вызывается под {@link #lock}. */
+    private static Entry entry(int index) {
+        return backlog[(head + index) & (backlog.length - 1)];
+    }
+
+    private static long newEpoch() {
+        long value;
+        do {
+            value = ThreadLocalRandom.current().nextLong();
+        } while (value == 0);
+        return value;
+    }
+
+    /**
+     * Обслуживает одного ведомого до разрыва соединения.
+     */
+    private static void serve(Socket socket) {
+        Session session = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            if (in.readInt() != MAGIC) return;
+            long followerEpoch = in.readLong();
+            long applied = in.readLong();
+
+            long sessionEpoch;
+            long next;
+            boolean snapshot;
+            synchronized (lock) {
+                sessionEpoch = epoch;
+                long first = sequence - count + 1;
+                snapshot = followerEpoch != epoch || applied > sequence || applied + 1 < first;
+                next = applied + 1;
+            }
+            session = new Session(String.valueOf(socket.getRemoteSocketAddress()), applied);
+            sessions.add(session);
+            if (snapshot) {
+                long[] position = sendSnapshot(out);
+                // если эпоха сменилась после снимка, поток записей сразу завершится и ведомый получит новый снимок
+                sessionEpoch = position[0];
+                next = position[1] + 1;
+                session.snapshotSent = true;
+                session.acknowledgedAt = System.currentTimeMillis();
+            }
+            stream(socket, in, out, session, sessionEpoch, next);
+        } catch (IOException e) {
+            // ведомый отключился; при переподключении он продолжит со своей последней записи
+        } finally {
+            if (session != null) sessions.remove(session);
+        }
+    }
+
+    /**
+     * Отправляет снимок коллекции вместе с номером последней вошедшей в него записи.
+     * @return эпоха и номер последней записи, отражённой в снимке.
+     */
+    private static long[] sendSnapshot(DataOutputStream out) throws IOException {
+        long[] position = new long[2];
+        // изменения и их публикация идут под блокировкой записи, так что под блокировкой чтения
+        // снимок и номер записи согласованы
+        BandSnapshot snapshot = CommandExecutor.read(() -> {
+            synchronized (lock) {
+                position[0] = epoch;
+                position[1] = sequence;
+            }
+            return bands.snapshot();
+        });
+        out.writeByte(SNAPSHOT);
+        out.writeLong(position[0]);
+        out.writeLong(position[1]);
+        out.writeInt(snapshot.size());
+        for (MusicBand band : snapshot) {
+            JournalManager.writeBand(out, band);
+        }
+        out.flush();
+        return position;
+    }
+
+    /**
+     * Передаёт записи начиная с {@code next}, пока ведомый подключён и эпоха не сменилась.
+     */
+    private static void stream(Socket socket, DataInputStream in, DataOutputStream out, Session session,
+                               long sessionEpoch, long next) throws IOException {
+        List<Entry> batch = new ArrayList<>();
+        while (!socket.isClosed()) {
+            long last;
+            synchronized (lock) {
+                if (sequence < next && epoch == sessionEpoch) {
+                    try {
+                        lock.wait(HEARTBEAT_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (epoch != sessionEpoch) return;
+                long first = sequence - count + 1;
+                // ведомый отстал больше, чем помещается в буфер: переподключившись, он получит снимок
+                if (next < first) return;
+                last = sequence;
+                batch.clear();
+                if (next <= last) {
+                    int from = (int) (next - first);
+                    int to = (int) Math.min(count, from + (long) MAX_BATCH);
+                    for (int i = from; i < to; i++) batch.add(entry(i));
+                }
+            }
+            if (batch.isEmpty()) {
+                out.writeByte(HEARTBEAT);
+                out.writeLong(last);
+                out.writeLong(System.currentTimeMillis());
+            } else {
+                out.writeByte(RECORDS);
+                out.writeLong(next);
+                out.writeInt(batch.size());
+                out.writeLong(last);
+                for (Entry entry : batch) {
+                    out.writeLong(entry.millis);
+                    out.write(entry.frame);
+                }
+                next += batch.size();
+            }
+            out.flush();
+            while (in.available() >= Long.BYTES) {
+                session.acknowledged = in.readLong();
+                session.acknowledgedAt = System.currentTimeMillis();
+            }
+        }
+    }}
@@ -27,17 +27,38 @@ public class ScriptInputManager {
             new AbstractMap.SimpleEntry<>("remove_head", new RemoveHead()),
             new AbstractMap.SimpleEntry<>("max_by_albums_count", new MaxByAlbumsCount()),
             new AbstractMap.SimpleEntry<>("count_less_than_best_album", new CountLessThanBestAlbum()),
+            new AbstractMap.SimpleEntry<>("count_greater_than", new CountGreaterThan()),
+            new AbstractMap.SimpleEntry<>("count_between", new CountBetween()),
             new AbstractMap.SimpleEntry<>("print_field_ascending_number_of_participants", new PrintFieldAscendingNumberOfParticipants()),
             new AbstractMap.SimpleEntry<>("info", new Info()),
             new AbstractMap.SimpleEntry<>("show", new Show()),
             new AbstractMap.SimpleEntry<>("clear", new Clear()),
             new AbstractMap.SimpleEntry<>("save", new Save()),
+            new AbstractMap.SimpleEntry<>("save_status", new SaveStatus()),
+            new AbstractMap.SimpleEntry<>("replication_status", new ReplicationStatus()),
+            new AbstractMap.SimpleEntry<>("rebalance", new Rebalance()),
+            new AbstractMap.SimpleEntry<>("save_binary", new SaveBinary()),
+            new AbstractMap.SimpleEntry<>("load_binary", new LoadBinary()),
+            new AbstractMap.SimpleEntry<>("load_benchmark", new LoadBenchmark()),
+            new AbstractMap.SimpleEntry<>("memory", new Memory()),
+            new AbstractMap.SimpleEntry<>("stats_by_genre", new StatsByGenre()),
+            new AbstractMap.SimpleEntry<>("nearest", new Nearest()),
+            new AbstractMap.SimpleEntry<>("within", new Within()),
+            new AbstractMap.SimpleEntry<>("find_by_name", new FindByName()),
+            new AbstractMap.SimpleEntry<>("search", new Search()),
+            new AbstractMap.SimpleEntry<>("created_between", new CreatedBetween()),
+            new AbstractMap.SimpleEntry<>("remove_older_than", new RemoveOlderThan()),
+            new AbstractMap.SimpleEntry<>("top", new Top(true)),
+            new AbstractMap.SimpleEntry<>("bottom", new Top(false)),
             new AbstractMap.SimpleEntry<>("execute_script", new ExecuteScript()),
             new AbstractMap.SimpleEntry<>("exit", new Exit()),
             new AbstractMap.SimpleEntry<>("add", new Add()),
             new AbstractMap.SimpleEntry<>("add_if_min", new AddIfMin())
 
     );
+    /** Файл вывода скрипта, пока вывод перенаправлен. */
+    private static PrintStream scriptOut;
+
     public static MusicBand parseMusicBand(String args) {
         try {
 
@@ -68,20 +89,27 @@ public class ScriptInputManager {
         }
     }
 
+    /**
+     * Перенаправляет вывод потока, выполняющего скрипт, в файл вывода скрипта
+     * (см. {@link ThreadOutput}); команды, выполняемые в других потоках, продолжают писать в свой вывод.
+     */
     public static void redirectOutputToFile() {
         try {
-            if (originalOut == null) {
-                originalOut = System.out;
-            }
             PrintStream fileOut = new PrintStream(new FileOutputStream(OUTPUT_FILE, true));
-            System.setOut(fileOut);
+            originalOut = ThreadOutput.redirect(fileOut);
+            scriptOut = fileOut;
         } catch (IOException ignored) {
         }
     }
 
+    /**
+     * Возвращает вывод, который был до {@link #redirectOutputToFile()}, и закрывает файл вывода.
+     */
     public static void restoreOutput() {
-        if (originalOut != null) {
-            System.setOut(originalOut);
+        if (scriptOut != null) {
+            ThreadOutput.redirect(originalOut);
+            scriptOut.close();
+            scriptOut = null;
         }
     }
 
@@ -0,0 +1,111 @@
+package managers;
+
+import models.MusicBand;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.ZonedDateTime;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Класс, записывающий снимки коллекции в файл в фоновом потоке.
+ * Командный цикл передаёт сюда снимок коллекции ({@link models.BandSnapshot}, берётся за O(1))
+ * и сразу продолжает работу, а запись идёт через временный файл с fsync и атомарным переименованием
+ * (см. {@link XMLManager#saveToFile(File, Queue)} и {@link BinaryManager#saveToFile}).
+ */
+public class SnapshotWriter {
+    /**
+     * Состояние последней фоновой записи.
+     */
+    public enum State {
+        /** Фоновых записей ещё не было. */
+        IDLE,
+        /** Запись выполняется. */
+        RUNNING,
+        /** Последняя запись успешно завершена. */
+        DONE,
+        /** Последняя запись завершилась ошибкой. */
+        FAILED
+    }
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile State state = State.IDLE;
+    private static volatile ZonedDateTime startedAt;
+    private static volatile long durationMillis;
+    private static volatile int size;
+    private static volatile String error;
+    private static volatile Future<?> current;
+
+    /**
+     * Запускает фоновую запись снимка.
+     * @param snapshot неизменяемая версия коллекции на момент сохранения.
+     * @param target файл, в который записывается снимок.
+     * @param obsoleteJournal журнал, который становится ненужным после успешной записи
+     *                        (удаляется после переименования), или {@code null}.
+     */
+    public static synchronized void submit(Queue<MusicBand> snapshot, File target, File obsoleteJournal) {
+        state = State.RUNNING;
+        startedAt = ZonedDateTime.now();
+        size = snapshot.size();
+        error = null;
+        current = executor.submit(() -> write(snapshot, target, obsoleteJournal));
+    }
+
+    private static void write(Queue<MusicBand> snapshot, File target, File obsoleteJournal) {
+        long started = System.nanoTime();
+        try {
+            // снимок пишется в том же формате, в котором хранится файл коллекции
+            if (BinaryManager.isBinaryFile(target)) {
+                BinaryManager.saveToFile(target, snapshot);
+            } else {
+                XMLManager.saveToFile(target, snapshot);
+            }
+            if (obsoleteJournal != null) {
+                Files.deleteIfExists(obsoleteJournal.toPath());
+            }
+            if (TextIndexManager.isEnabled()) {
+                TextIndexManager.write(snapshot, target);
+            }
+            durationMillis = (System.nanoTime() - started) / 1_000_000;
+            state = State.DONE;
+        } catch (Exception e) {
+            durationMillis = (System.nanoTime() - started) / 1_000_000;
+            error = e.getMessage();
+            state = State.FAILED;
+        }
+    }
+
+    /**
+     * Ожидает завершения текущей фоновой записи, если она есть.
+     */
+    public static void awaitCompletion() {
+        Future<?> future = current;
+        if (future == null) return;
+        try {
+            future.get();
+        } catch (Exception ignored) {
+            // ошибка записи уже сохранена в error
+        }
+    }
+
+    /**
+     * @return {@code true}, если фоновая запись сейчас выполняется.
+     */
+    public static boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public static State getState() { return state; }
+    public static ZonedDateTime getStartedAt() { return startedAt; }
+    public static long getDurationMillis() { return durationMillis; }
+    public static int getSize() { return size; }
+    public static String getError() { return error; }
+}
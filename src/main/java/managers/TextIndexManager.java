@@ -0,0 +1,130 @@
+package managers;
+
+import indexes.TextIndex;
+import models.MusicBand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static managers.MusicBandManager.bands;
+import static managers.MusicBandManager.filePath;
+import static managers.MusicBandManager.textIndex;
+
+/**
+ * Класс, сохраняющий полнотекстовый индекс рядом с файлом коллекции, чтобы не строить его при запуске.
+ * <p>
+ * Сохранение включается свойством {@value #PERSIST_PROPERTY}. Индекс записывается вместе с каждым снимком
+ * коллекции (см. {@link SnapshotWriter}) по той же копии групп и помечается отпечатком снимка:
+ * размером и временем изменения файла коллекции, количеством групп и суммой хешей их ID.
+ * При запуске индекс читается, только если отпечаток совпал с загруженной коллекцией, иначе строится заново;
+ * изменения из журнала применяются к нему так же, как к остальным индексам.
+ */
+public class TextIndexManager {
+    /** Суффикс файла индекса: индекс лежит рядом с файлом коллекции. */
+    public static final String INDEX_SUFFIX = ".textindex";
+    /** Системное свойство, включающее сохранение индекса. */
+    public static final String PERSIST_PROPERTY = "musicbands.text.persist";
+
+    /**
+     * @return {@code true}, если сохранение индекса включено.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PERSIST_PROPERTY);
+    }
+
+    /**
+     * @return файл индекса для текущего файла коллекции.
+     */
+    public static File getIndexFile() {
+        return new File(filePath + INDEX_SUFFIX);
+    }
+
+    /**
+     * Вызывается перед загрузкой коллекции: если индекс сохраняется, он не строится во время загрузки.
+     */
+    public static void beforeLoad() {
+        if (isEnabled()) textIndex.setSuspended(true);
+    }
+
+    /**
+     * Вызывается после загрузки снимка и до применения журнала: читает сохранённый индекс,
+     * если он соответствует загруженной коллекции, иначе строит индекс заново.
+     */
+    public static void afterLoad() {
+        if (!isEnabled()) return;
+        textIndex.setSuspended(false);
+        File file = getIndexFile();
+        if (file.isFile()) {
+            long started = System.nanoTime();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readLong() == stamp(new File(filePath), bands)) {
+                    textIndex.readFrom(in);
+                    System.out.printf("Полнотекстовый индекс прочитан из файла за %d мс.%n",
+                            (System.nanoTime() - started) / 1_000_000);
+                    return;
+                }
+                System.out.println("Сохранённый полнотекстовый индекс не соответствует коллекции и будет построен заново.");
+            } catch (IOException e) {
+                System.err.println("Не удалось прочитать полнотекстовый индекс: " + e.getMessage());
+            }
+        }
+        textIndex.rebuild(bands);
+    }
+
+    /**
+     * Строит индекс по снимку коллекции и записывает его рядом с файлом снимка
+     * (через временный файл с атомарным переименованием). Вызывается из потока записи снимка
+     * после того, как снимок занял своё место.
+     * @param snapshot группы снимка.
+     * @param target файл снимка.
+     */
+    static void write(Iterable<MusicBand> snapshot, File target) {
+        File file = new File(target.getPath() + INDEX_SUFFIX);
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            TextIndex index = new TextIndex();
+            index.rebuild(snapshot);
+            try (FileOutputStream stream = new FileOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeLong(stamp(target, snapshot));
+                index.writeTo(out);
+                out.flush();
+                stream.getChannel().force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            XMLManager.syncDirectory(file);
+        } catch (IOException e) {
+            // без файла индекс просто будет построен при следующем запуске
+            try {
+                Files.deleteIfExists(temp.toPath());
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * @return отпечаток снимка: файл и множество ID групп.
+     */
+    private static long stamp(File snapshotFile, Iterable<MusicBand> snapshot) {
+        long count = 0;
+        long ids = 0;
+        for (MusicBand band : snapshot) {
+            count++;
+            long hash = band.getId() * 0x9E3779B97F4A7C15L;
+            ids += hash ^ (hash >>> 29);
+        }
+        long stamp = snapshotFile.length();
+        stamp = stamp * 31 + snapshotFile.lastModified();
+        stamp = stamp * 31 + count;
+        return stamp * 31 + ids;
+    }
+}
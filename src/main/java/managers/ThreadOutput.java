@@ -0,0 +1,132 @@
+package managers;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Вывод команд с назначением для каждого потока.
+ * <p>
+ * Команды печатают результат в {@code System.out}. Чтобы команды, выполняемые параллельно,
+ * не смешивали вывод и не упирались в общую блокировку {@link PrintStream}, вместо {@code System.out}
+ * ставится {@link Router}: он не синхронизируется сам, а передаёт каждый вызов потоку вывода,
+ * назначенному текущему потоку через {@link #redirect(PrintStream)}, или исходному {@code System.out}.
+ */
+public class ThreadOutput {
+    private static final ThreadLocal<PrintStream> target = new ThreadLocal<>();
+    private static volatile Router router;
+
+    /**
+     * Ставит {@link Router} вместо {@code System.out}, если он ещё не поставлен.
+     * Прежний {@code System.out} становится выводом по умолчанию.
+     */
+    public static void install() {
+        if (router != null) return;
+        synchronized (ThreadOutput.class) {
+            if (router == null) {
+                router = new Router(System.out);
+                System.setOut(router);
+            }
+        }
+    }
+
+    /**
+     * Назначает поток вывода текущему потоку.
+     * @param out поток вывода или {@code null}, чтобы вернуть исходный {@code System.out}.
+     * @return поток вывода, который был назначен раньше ({@code null} - исходный).
+     */
+    public static PrintStream redirect(PrintStream out) {
+        install();
+        PrintStream previous = target.get();
+        if (out == null) {
+            target.remove();
+        } else {
+            target.set(out);
+        }
+        return previous;
+    }
+
+    /**
+     * {@link PrintStream}, передающий все вызовы потоку вывода текущего потока.
+     */
+    private static final class Router extends PrintStream {
+        private final PrintStream fallback;
+
+        Router(PrintStream fallback) {
+            super(OutputStream.nullOutputStream());
+            this.fallback = fallback;
+        }
+
+        private PrintStream out() {
+            PrintStream out = target.get();
+            return out == null ? fallback : out;
+        }
+
+        @Override public void flush() { out().flush(); }
+        @Override public void close() { out().flush(); }
+        @Override public boolean checkError() { return out().checkError(); }
+        @Override public void write(int b) { out().write(b); }
+        @Override public void write(byte[] buf, int off, int len) { out().write(buf, off, len); }
+        @Override public void print(boolean b) { out().print(b); }
+        @Override public void print(char c) { out().print(c); }
+        @Override public void print(int i) { out().print(i); }
+        @Override public void print(long l) { out().print(l); }
+        @Override public void print(float f) { out().print(f); }
+        @Override public void print(double d) { out().print(d); }
+        @Override public void print(char[] s) { out().print(s); }
+        @Override public void print(String s) { out().print(s); }
+        @Override public void print(Object obj) { out().print(obj); }
+        @Override public void println() { out().println(); }
+        @Override public void println(boolean x) { out().println(x); }
+        @Override public void println(char x) { out().println(x); }
+        @Override public void println(int x) { out().println(x); }
+        @Override public void println(long x) { out().println(x); }
+        @Override public void println(float x) { out().println(x); }
+        @Override public void println(double x) { out().println(x); }
+        @Override public void println(char[] x) { out().println(x); }
+        @Override public void println(String x) { out().println(x); }
+        @Override public void println(Object x) { out().println(x); }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            out().printf(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            out().printf(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            out().format(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            out().format(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            out().append(csq);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            out().append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            out().append(c);
+            return this;
+        }
+    }
+}
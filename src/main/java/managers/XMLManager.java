@@ -4,9 +4,32 @@ import models.MusicBand;
 import models.MusicBandCollectionWrapper;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.PriorityQueue;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static managers.MusicBandManager.*;
 
@@ -16,6 +39,27 @@ import static managers.MusicBandManager.*;
  * Использует JAXB для маршалинга и анмаршалинга коллекции.
  */
 public class XMLManager {
+    /** Имя XML-элемента одной музыкальной группы внутри {@link MusicBandCollectionWrapper}. */
+    public static final String BAND_ELEMENT = "MusicBand";
+    /** Системное свойство с количеством потоков загрузки (по умолчанию - число ядер). */
+    public static final String WORKERS_PROPERTY = "musicbands.load.workers";
+    /** Суффикс временного файла, в который сначала пишется снимок коллекции. */
+    public static final String TEMP_SUFFIX = ".tmp";
+    /** Размер буфера чтения файла. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Через какое количество загруженных групп выводить прогресс. */
+    private static final int PROGRESS_STEP = 100_000;
+    /** Файлы меньше этого размера читаются в один поток. */
+    private static final long PARALLEL_THRESHOLD = 4L << 20;
+    /** Сколько частей файла приходится на один поток (для выравнивания нагрузки). */
+    private static final int CHUNKS_PER_WORKER = 4;
+    /** Максимальный размер одной части: она отображается в память одним буфером. */
+    private static final long MAX_CHUNK_SIZE = 256L << 20;
+
+    private static final byte[] BAND_START = ("<" + BAND_ELEMENT + ">").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BAND_END = ("</" + BAND_ELEMENT + ">").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHUNK_START = "<chunk>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHUNK_END = "</chunk>".getBytes(StandardCharsets.UTF_8);
 
 
     /**
@@ -26,25 +70,376 @@ public class XMLManager {
     }
     /**
      * Загружает коллекцию музыкальных групп из файла.
+     * Формат определяется по заголовку: двоичные файлы читаются {@link BinaryManager},
+     * небольшие XML-файлы - потоково в один поток, большие - параллельно по частям
+     * (см. {@link #loadParallel(File, int)}).
      */
     public static void loadFromFile() {
-        try {
-            File file = new File(filePath);
-            if (!file.exists() || file.length() == 0) return;
+        File file = new File(filePath);
+        if (!file.exists() || file.length() == 0) return;
 
-            JAXBContext context = JAXBContext.newInstance(MusicBandCollectionWrapper.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            MusicBandCollectionWrapper wrapper = (MusicBandCollectionWrapper) unmarshaller.unmarshal(file);
+        if (BinaryManager.isBinaryFile(file)) {
+            try {
+                BinaryManager.loadFromFile(file);
+            } catch (Exception e) {
+                System.err.println("Ошибка загрузки данных: " + e.getMessage());
+            }
+            return;
+        }
+
+        int workers = Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        if (workers > 1 && file.length() >= PARALLEL_THRESHOLD) {
+            loadParallel(file, workers);
+        } else {
+            loadSequential(file);
+        }
+    }
 
-            bands = new PriorityQueue<>(wrapper.getBands());
-            bandsById.clear();
-            for (MusicBand band : bands) {
-                bandsById.put(band.getId(), band);
+    /**
+     * Загружает коллекцию в один поток.
+     * Файл читается потоково (StAX): элементы {@code <MusicBand>} разбираются по одному
+     * и сразу попадают в коллекцию, поэтому в памяти не держится всё дерево документа.
+     * @param file файл с данными.
+     */
+    public static void loadSequential(File file) {
+        long started = System.nanoTime();
+        long total = file.length();
+        int count = 0;
+        deleteAll();
+
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            XMLStreamReader reader = createReader(new BufferedInputStream(in, BUFFER_SIZE));
+            Unmarshaller unmarshaller = JAXBContext.newInstance(MusicBand.class).createUnmarshaller();
+            try {
+                while (reader.hasNext()) {
+                    if (reader.isStartElement() && BAND_ELEMENT.equals(reader.getLocalName())) {
+                        // после unmarshal курсор стоит сразу за </MusicBand>, поэтому next() не нужен
+                        MusicBand band = unmarshaller.unmarshal(reader, MusicBand.class).getValue();
+                        insertBand(band);
+                        if (++count % PROGRESS_STEP == 0) {
+                            printProgress(count, channel.position(), total);
+                        }
+                    } else {
+                        reader.next();
+                    }
+                }
+            } finally {
+                reader.close();
             }
 
-            System.out.println("Коллекция загружена из файла.");
+            System.out.println("Коллекция загружена из файла: " + formatThroughput(count, total, System.nanoTime() - started));
+        } catch (Exception e) {
+            System.err.println("Ошибка загрузки данных: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Загружает коллекцию параллельно: файл делится на части по границам {@code <MusicBand>},
+     * части разбираются в {@link ForkJoinPool}, а результаты склеиваются в порядке следования в файле.
+     * Поэтому итоговая коллекция не зависит от количества потоков.
+     * @param file файл с данными.
+     * @param workers количество потоков разбора.
+     */
+    public static void loadParallel(File file, int workers) {
+        long started = System.nanoTime();
+        try {
+            List<MusicBand> loaded = parseParallel(file, workers, true);
+            replaceBands(loaded);
+            System.out.println("Коллекция загружена из файла (" + workers + " потоков): "
+                    + formatThroughput(loaded.size(), file.length(), System.nanoTime() - started));
         } catch (Exception e) {
             System.err.println("Ошибка загрузки данных: " + e.getMessage());
         }
     }
+
+    /**
+     * Замеряет скорость разбора файла для количества потоков 1, 2, 4, ... до {@code maxWorkers}.
+     * Коллекция при этом не изменяется.
+     * @param file файл с данными.
+     * @param maxWorkers максимальное количество потоков.
+     * @throws Exception если файл не удалось разобрать.
+     */
+    public static void benchmarkLoad(File file, int maxWorkers) throws Exception {
+        maxWorkers = Math.max(maxWorkers, 1);
+        for (int workers = 1; ; workers = Math.min(workers * 2, maxWorkers)) {
+            long started = System.nanoTime();
+            int count = parseParallel(file, workers, false).size();
+            System.out.printf("Потоков: %2d | %s%n", workers, formatThroughput(count, file.length(), System.nanoTime() - started));
+            if (workers == maxWorkers) break;
+        }
+    }
+
+    /**
+     * Разбирает файл по частям в {@code workers} потоков.
+     * @param file файл с данными.
+     * @param workers количество потоков.
+     * @param progress выводить ли прогресс по мере готовности частей.
+     * @return группы в порядке их следования в файле.
+     * @throws Exception если файл не удалось разобрать.
+     */
+    static List<MusicBand> parseParallel(File file, int workers, boolean progress) throws Exception {
+        JAXBContext context = JAXBContext.newInstance(MusicBand.class);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = splitChunks(channel, (long) workers * CHUNKS_PER_WORKER);
+            if (bounds.length < 2) return new ArrayList<>();
+
+            AtomicInteger parsed = new AtomicInteger();
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                List<ForkJoinTask<List<MusicBand>>> tasks = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    tasks.add(pool.submit(() -> {
+                        List<MusicBand> chunk = parseChunk(context, channel, from, to);
+                        int done = parsed.addAndGet(chunk.size());
+                        if (progress && done / PROGRESS_STEP != (done - chunk.size()) / PROGRESS_STEP) {
+                            printProgress(done, to, channel.size());
+                        }
+                        return chunk;
+                    }));
+                }
+
+                List<List<MusicBand>> chunks = new ArrayList<>(tasks.size());
+                for (ForkJoinTask<List<MusicBand>> task : tasks) {
+                    chunks.add(task.join());
+                }
+                List<MusicBand> result = new ArrayList<>(parsed.get());
+                for (List<MusicBand> chunk : chunks) {
+                    result.addAll(chunk);
+                }
+                return result;
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Делит файл на части так, чтобы каждая начиналась с {@code <MusicBand>},
+     * а последняя заканчивалась сразу после последнего {@code </MusicBand>}.
+     * @param channel канал файла.
+     * @param chunks желаемое количество частей.
+     * @return отсортированные границы частей; пустой массив, если в файле нет групп.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    static long[] splitChunks(FileChannel channel, long chunks) throws IOException {
+        long first = indexOf(channel, BAND_START, 0);
+        long last = lastIndexOf(channel, BAND_END);
+        if (first < 0 || last < first) return new long[0];
+        long end = last + BAND_END.length;
+
+        long step = Math.min(Math.max((end - first) / chunks, 1), MAX_CHUNK_SIZE);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(first);
+        for (long target = first + step; target < end; target += step) {
+            long next = indexOf(channel, BAND_START, target);
+            if (next < 0 || next >= end) break;
+            if (next > bounds.get(bounds.size() - 1)) {
+                bounds.add(next);
+            }
+            target = next;
+        }
+        bounds.add(end);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Разбирает одну часть файла. Часть оборачивается во временный корневой элемент,
+     * чтобы StAX-парсер видел корректный XML-документ.
+     */
+    private static List<MusicBand> parseChunk(JAXBContext context, FileChannel channel, long from, long to) throws Exception {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        InputStream body = new ByteBufferInputStream(buffer);
+        InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(CHUNK_START), body, new ByteArrayInputStream(CHUNK_END))));
+
+        List<MusicBand> result = new ArrayList<>();
+        Unmarshaller unmarshaller = context.createUnmarshaller();
+        XMLStreamReader reader = createReader(in);
+        try {
+            while (reader.hasNext()) {
+                if (reader.isStartElement() && BAND_ELEMENT.equals(reader.getLocalName())) {
+                    result.add(unmarshaller.unmarshal(reader, MusicBand.class).getValue());
+                } else {
+                    reader.next();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Ищет первое вхождение последовательности байт начиная с позиции {@code from}.
+     * @return позиция вхождения или -1.
+     */
+    private static long indexOf(FileChannel channel, byte[] pattern, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = from;
+        while (position < channel.size()) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            int found = find(buffer.array(), read, pattern);
+            if (found >= 0) return position + found;
+            if (read < pattern.length) break;
+            // перекрытие, чтобы не потерять вхождение на стыке окон
+            position += read - pattern.length + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Ищет последнее вхождение последовательности байт в файле.
+     * @return позиция вхождения или -1.
+     */
+    private static long lastIndexOf(FileChannel channel, byte[] pattern) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - BUFFER_SIZE);
+            buffer.clear();
+            buffer.limit((int) (end - start));
+            int read = channel.read(buffer, start);
+            if (read <= 0) break;
+            for (int i = read - pattern.length; i >= 0; i--) {
+                if (matches(buffer.array(), i, pattern)) return start + i;
+            }
+            if (start == 0) break;
+            end = start + pattern.length - 1;
+        }
+        return -1;
+    }
+
+    private static int find(byte[] data, int length, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= length; i++) {
+            if (matches(data, i, pattern)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] data, int offset, byte[] pattern) {
+        for (int j = 0; j < pattern.length; j++) {
+            if (data[offset + j] != pattern[j]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Сохраняет коллекцию музыкальных групп в XML-файл целиком.
+     * Данные пишутся во временный файл рядом с целевым, сбрасываются на диск и атомарно
+     * переименовываются, поэтому при сбое посреди записи старый файл остаётся целым.
+     * @param file файл, в который записывается коллекция.
+     * @param collection сохраняемая коллекция.
+     * @throws Exception если коллекцию не удалось записать.
+     */
+    public static void saveToFile(File file, Queue<MusicBand> collection) throws Exception {
+        JAXBContext context = JAXBContext.newInstance(MusicBandCollectionWrapper.class);
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+
+        MusicBandCollectionWrapper wrapper = new MusicBandCollectionWrapper();
+        wrapper.setBands(collection);
+
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+                marshaller.marshal(wrapper, buffered);
+                buffered.flush();
+                out.getChannel().force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        syncDirectory(file);
+    }
+
+    /**
+     * Сбрасывает на диск каталог файла, чтобы переименование пережило сбой питания.
+     * На системах, где каталог нельзя открыть как канал, ничего не делает.
+     * @param file файл, каталог которого нужно сбросить.
+     */
+    static void syncDirectory(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory == null) return;
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    /**
+     * Создаёт потоковый XML-парсер с отключённой обработкой DTD и внешних сущностей.
+     * @param in поток с XML-документом.
+     * @return парсер, установленный на начало документа.
+     * @throws Exception если парсер не удалось создать.
+     */
+    static XMLStreamReader createReader(InputStream in) throws Exception {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in, "UTF-8");
+    }
+
+    /**
+     * Выводит прогресс загрузки.
+     * @param count количество уже загруженных групп.
+     * @param position сколько байт файла прочитано.
+     * @param total размер файла в байтах.
+     */
+    private static void printProgress(int count, long position, long total) {
+        System.out.printf("Загружено групп: %d (%d%%)%n", count, total == 0 ? 100 : position * 100 / total);
+    }
+
+    /**
+     * Форматирует итог загрузки: количество групп, время и пропускную способность.
+     * @param count количество групп.
+     * @param bytes размер файла в байтах.
+     * @param nanos затраченное время в наносекундах.
+     * @return строка вида "N групп за T мс (X групп/с, Y МБ/с)".
+     */
+    static String formatThroughput(int count, long bytes, long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        return String.format("%d групп за %d мс (%.0f групп/с, %.1f МБ/с)",
+                count, nanos / 1_000_000, count / seconds, bytes / 1048576.0 / seconds);
+    }
+
+    /**
+     * Поток чтения поверх {@link ByteBuffer} (например, отображённой в память части файла).
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
\ No newline at end of file
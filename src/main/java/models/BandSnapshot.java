@@ -0,0 +1,169 @@
+package models;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемая версия коллекции музыкальных групп (см. {@link VersionedBandMap}).
+ * <p>
+ * Снимок не копирует данные: он ссылается на замороженный корень дерева, который дальнейшие изменения
+ * коллекции не трогают, поэтому его можно обходить в любом потоке одновременно с записью.
+ * Обход идёт в порядке возрастания ID, голова - группа с минимальным ID, как у очереди коллекции.
+ * Операции изменения не поддерживаются.
+ */
+public final class BandSnapshot extends AbstractQueue<MusicBand> {
+    private final VersionedBandMap.Node root;
+    private final int rootShift;
+    private final int size;
+
+    BandSnapshot(VersionedBandMap.Node root, int rootShift, int size) {
+        this.root = root;
+        this.rootShift = rootShift;
+        this.size = size;
+    }
+
+    /**
+     * Создаёт снимок из произвольного набора групп за O(n) - для хранилищ без собственных версий.
+     *
+     * @param bands группы
+     * @return снимок
+     */
+    public static BandSnapshot copyOf(Collection<MusicBand> bands) {
+        VersionedBandMap map = new VersionedBandMap();
+        for (MusicBand band : bands) {
+            map.put(band);
+        }
+        return map.snapshot();
+    }
+
+    /**
+     * Возвращает группу по ID за O(log₃₂ ID).
+     *
+     * @param id идентификатор группы
+     * @return группа или {@code null}, если в снимке её нет
+     */
+    public MusicBand get(int id) {
+        if (id < 0 || (rootShift < VersionedBandMap.MAX_SHIFT && (id >>> (rootShift + VersionedBandMap.BITS)) != 0)) return null;
+        VersionedBandMap.Node node = root;
+        for (int shift = rootShift; ; shift -= VersionedBandMap.BITS) {
+            int bit = 1 << ((id >>> shift) & VersionedBandMap.MASK);
+            if ((node.bitmap & bit) == 0) return null;
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) return (MusicBand) slot;
+            node = (VersionedBandMap.Node) slot;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MusicBand peek() {
+        if (size == 0) return null;
+        VersionedBandMap.Node node = root;
+        for (int shift = rootShift; shift > 0; shift -= VersionedBandMap.BITS) {
+            node = (VersionedBandMap.Node) node.slots[0];
+        }
+        return (MusicBand) node.slots[0];
+    }
+
+    @Override
+    public boolean offer(MusicBand band) {
+        throw new UnsupportedOperationException("Снимок коллекции нельзя изменять");
+    }
+
+    @Override
+    public MusicBand poll() {
+        throw new UnsupportedOperationException("Снимок коллекции нельзя изменять");
+    }
+
+    /**
+     * Возвращает итератор в порядке возрастания ID. Удаление через итератор не поддерживается.
+     */
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new SnapshotIterator(-1);
+    }
+
+    /**
+     * Возвращает итератор по группам с ID больше заданного, в порядке возрастания ID. Начальная позиция
+     * находится спуском по дереву за O(log₃₂ ID), поэтому постраничный обход по последнему ID страницы
+     * не просматривает предыдущие страницы.
+     *
+     * @param afterId ID, после которого начинается обход; отрицательное значение - с начала
+     * @return итератор
+     */
+    public Iterator<MusicBand> iteratorAfter(int afterId) {
+        return new SnapshotIterator(afterId);
+    }
+
+    private final class SnapshotIterator implements Iterator<MusicBand> {
+        private final VersionedBandMap.Node[] path = new VersionedBandMap.Node[rootShift / VersionedBandMap.BITS + 1];
+        private final int[] positions = new int[path.length];
+        private int depth;
+        private MusicBand next;
+
+        SnapshotIterator(int afterId) {
+            path[0] = root;
+            if (afterId >= 0) seek(afterId);
+            next = advance();
+        }
+
+        /**
+         * Ставит позицию на первую группу с ID больше {@code afterId}.
+         */
+        private void seek(int afterId) {
+            if (rootShift < VersionedBandMap.MAX_SHIFT && (afterId >>> (rootShift + VersionedBandMap.BITS)) != 0) {
+                depth = -1;
+                return;
+            }
+            for (int shift = rootShift; ; shift -= VersionedBandMap.BITS) {
+                VersionedBandMap.Node node = path[depth];
+                int digit = (afterId >>> shift) & VersionedBandMap.MASK;
+                int below = node.bitmap & ((1 << digit) - 1);
+                if (shift == 0) {
+                    // на последнем уровне пропускается и сама группа afterId
+                    positions[depth] = Integer.bitCount(below | (node.bitmap & (1 << digit)));
+                    return;
+                }
+                positions[depth] = Integer.bitCount(below);
+                if ((node.bitmap & (1 << digit)) == 0) return;
+                path[++depth] = (VersionedBandMap.Node) node.slots[positions[depth - 1]];
+            }
+        }
+
+        private MusicBand advance() {
+            while (depth >= 0) {
+                VersionedBandMap.Node node = path[depth];
+                int position = positions[depth];
+                if (position == Integer.bitCount(node.bitmap)) {
+                    if (--depth >= 0) positions[depth]++;
+                } else if (depth == path.length - 1) {
+                    positions[depth]++;
+                    return (MusicBand) node.slots[position];
+                } else {
+                    path[++depth] = (VersionedBandMap.Node) node.slots[position];
+                    positions[depth] = 0;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public MusicBand next() {
+            if (next == null) throw new NoSuchElementException();
+            MusicBand result = next;
+            next = advance();
+            return result;
+        }
+    }
+}
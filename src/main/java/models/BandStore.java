@@ -0,0 +1,80 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Хранилище коллекции музыкальных групп.
+ * <p>
+ * Это очередь с приоритетом по ID (голова - группа с минимальным ID) и доступом по ID.
+ * Реализации различаются тем, где лежат данные: {@link MusicBandHeap} хранит объекты
+ * групп в куче JVM, а {@link OffHeapBandStore} - записи в отображённой в память области,
+ * создавая объекты {@link MusicBand} только при обращении. Группы с повторяющимся ID
+ * не добавляются ({@link #add} возвращает {@code false}).
+ */
+public interface BandStore extends Queue<MusicBand> {
+
+    /**
+     * Возвращает группу по ID.
+     *
+     * @param id идентификатор группы
+     * @return группа или {@code null}, если группы с таким ID нет
+     */
+    MusicBand get(int id);
+
+    /**
+     * Проверяет, есть ли в хранилище группа с заданным ID.
+     *
+     * @param id идентификатор группы
+     * @return {@code true}, если группа есть
+     */
+    boolean containsId(int id);
+
+    /**
+     * Удаляет группу по ID.
+     *
+     * @param id идентификатор группы
+     * @return удалённая группа или {@code null}, если группы с таким ID нет
+     */
+    MusicBand removeById(int id);
+
+    /**
+     * Удаляет группы с заданными ID. Реализация может удалить их разом, без восстановления
+     * порядка очереди после каждой группы.
+     *
+     * @param ids идентификаторы групп; отсутствующие ID пропускаются
+     * @return удалённые группы
+     */
+    default List<MusicBand> removeAllById(int[] ids) {
+        List<MusicBand> removed = new ArrayList<>();
+        for (int id : ids) {
+            MusicBand band = removeById(id);
+            if (band != null) removed.add(band);
+        }
+        return removed;
+    }
+
+    /**
+     * Заменяет содержимое хранилища загруженными группами. Группы с повторяющимся ID пропускаются.
+     *
+     * @param bands новые группы
+     */
+    void replaceAll(Collection<MusicBand> bands);
+
+    /**
+     * Возвращает неизменяемую версию коллекции, которую можно обходить одновременно с изменениями.
+     * По умолчанию группы копируются за O(n); хранилища с собственными версиями возвращают снимок за O(1).
+     *
+     * @return снимок текущего содержимого
+     */
+    default BandSnapshot snapshot() {
+        return BandSnapshot.copyOf(this);
+    }
+
+    /**
+     * @return краткое описание того, где и сколько памяти занимают данные (для команд info и memory)
+     */
+    String describeStorage();
+}
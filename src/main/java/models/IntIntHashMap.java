@@ -0,0 +1,246 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица с ключами и значениями {@code int} и открытой адресацией (линейное пробирование).
+ * Устроена так же, как {@link IntObjectHashMap}, но значения хранятся в массиве {@code int[]},
+ * поэтому запись занимает около 8 байт на слот. Отсутствие значения обозначается {@link #NO_VALUE}.
+ */
+public class IntIntHashMap {
+    /** Значение, которое возвращается для отсутствующего ключа. */
+    public static final int NO_VALUE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Пустой слот обозначается ключом 0, поэтому значение для ключа 0 хранится отдельно. */
+    private static final int FREE_KEY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean hasFreeKey;
+    private int freeKeyValue = NO_VALUE;
+
+    /**
+     * Создаёт пустую таблицу.
+     */
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт таблицу, в которую поместится {@code expected} записей без расширения.
+     *
+     * @param expected ожидаемое количество записей
+     */
+    public IntIntHashMap(int expected) {
+        allocate(tableSizeFor(expected));
+    }
+
+    /**
+     * @param key ключ
+     * @return значение или {@link #NO_VALUE}, если ключа нет
+     */
+    public int get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : NO_VALUE;
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == key) return values[index];
+            if (k == FREE_KEY) return NO_VALUE;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @param key ключ
+     * @return {@code true}, если ключ есть в таблице
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == key) return true;
+            if (k == FREE_KEY) return false;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Связывает значение с ключом.
+     *
+     * @param key   ключ
+     * @param value значение (не {@link #NO_VALUE})
+     * @return предыдущее значение или {@link #NO_VALUE}
+     */
+    public int put(int key, int value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Связывает значение с ключом, только если ключа ещё нет.
+     *
+     * @param key   ключ
+     * @param value значение (не {@link #NO_VALUE})
+     * @return текущее значение или {@link #NO_VALUE}, если значение было добавлено
+     */
+    public int putIfAbsent(int key, int value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Удаляет ключ.
+     *
+     * @param key ключ
+     * @return удалённое значение или {@link #NO_VALUE}, если ключа не было
+     */
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return NO_VALUE;
+            int old = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = NO_VALUE;
+            size--;
+            return old;
+        }
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == FREE_KEY) return NO_VALUE;
+            if (k == key) {
+                int old = values[index];
+                shiftBack(index);
+                size--;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return количество записей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Обходит все записи в произвольном порядке. Изменять таблицу во время обхода нельзя.
+     *
+     * @param visitor получатель записей
+     */
+    public void forEach(Visitor visitor) {
+        if (hasFreeKey) visitor.visit(FREE_KEY, freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Удаляет все записи, сохраняя размер таблицы.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        freeKeyValue = NO_VALUE;
+        size = 0;
+    }
+
+    private int put(int key, int value, boolean onlyIfAbsent) {
+        if (value == NO_VALUE) throw new IllegalArgumentException("Значение " + NO_VALUE + " зарезервировано.");
+        if (key == FREE_KEY) {
+            int old = hasFreeKey ? freeKeyValue : NO_VALUE;
+            if (hasFreeKey && onlyIfAbsent) return old;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return old;
+        }
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == FREE_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > threshold) {
+                    rehash(keys.length * 2);
+                }
+                return NO_VALUE;
+            }
+            if (k == key) {
+                int old = values[index];
+                if (!onlyIfAbsent) values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Удаляет запись из слота, сдвигая назад записи той же цепочки пробирования.
+     */
+    private void shiftBack(int index) {
+        int last = index;
+        int next = (index + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next]);
+            // запись можно перенести в освободившийся слот, если он лежит между её домашним слотом и ней
+            boolean movable = last <= next ? (home <= last || home > next) : (home <= last && home > next);
+            if (movable) {
+                keys[last] = keys[next];
+                values[last] = values[next];
+                last = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[last] = FREE_KEY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int index = slot(key);
+                while (keys[index] != FREE_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int tableSizeFor(int expected) {
+        long needed = Math.max((long) expected * 4 / 3 + 1, DEFAULT_CAPACITY);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+
+    /**
+     * Получатель записей для {@link #forEach(Visitor)}.
+     */
+    public interface Visitor {
+        /**
+         * @param key   ключ
+         * @param value значение
+         */
+        void visit(int key, int value);
+    }
+}
@@ -0,0 +1,235 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица с ключами {@code int} и открытой адресацией (линейное пробирование).
+ * <p>
+ * В отличие от {@code HashMap<Integer, V>}, ключи не упаковываются в {@link Integer},
+ * а для записей не создаются узлы: ключи и значения лежат в двух параллельных массивах.
+ * Удаление выполняется сдвигом следующих записей назад, без "надгробий".
+ * <p>
+ * Память на запись: 4 байта ключа + 4 байта ссылки (при сжатых указателях) на слот,
+ * при заполнении таблицы от 3/8 до 3/4 это 11-21 байт на запись (в среднем около 14),
+ * против примерно 50-60 байт у {@code HashMap<Integer, V>} (узел 32 байта, {@link Integer}
+ * 16 байт и ячейка таблицы).
+ *
+ * @param <V> тип значений
+ */
+public class IntObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Пустой слот обозначается ключом 0, поэтому значение для ключа 0 хранится отдельно. */
+    private static final int FREE_KEY = 0;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+
+    /**
+     * Создаёт пустую таблицу.
+     */
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт таблицу, в которую поместится {@code expected} записей без расширения.
+     *
+     * @param expected ожидаемое количество записей
+     */
+    public IntObjectHashMap(int expected) {
+        allocate(tableSizeFor(expected));
+    }
+
+    /**
+     * @param key ключ
+     * @return значение или {@code null}, если ключа нет
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : null;
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == key) return (V) values[index];
+            if (k == FREE_KEY) return null;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @param key ключ
+     * @return {@code true}, если ключ есть в таблице
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == key) return true;
+            if (k == FREE_KEY) return false;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Связывает значение с ключом.
+     *
+     * @param key   ключ
+     * @param value значение (не {@code null})
+     * @return предыдущее значение или {@code null}
+     */
+    public V put(int key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Связывает значение с ключом, только если ключа ещё нет.
+     *
+     * @param key   ключ
+     * @param value значение (не {@code null})
+     * @return текущее значение или {@code null}, если значение было добавлено
+     */
+    public V putIfAbsent(int key, V value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Удаляет ключ.
+     *
+     * @param key ключ
+     * @return удалённое значение или {@code null}, если ключа не было
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return null;
+            V old = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            size--;
+            return old;
+        }
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == FREE_KEY) return null;
+            if (k == key) {
+                V old = (V) values[index];
+                shiftBack(index);
+                size--;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return количество записей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все записи, сохраняя размер таблицы.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        hasFreeKey = false;
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(int key, V value, boolean onlyIfAbsent) {
+        if (value == null) throw new NullPointerException();
+        if (key == FREE_KEY) {
+            V old = freeKeyValue;
+            if (hasFreeKey && onlyIfAbsent) return old;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return old;
+        }
+        int index = slot(key);
+        while (true) {
+            int k = keys[index];
+            if (k == FREE_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > threshold) {
+                    rehash(keys.length * 2);
+                }
+                return null;
+            }
+            if (k == key) {
+                V old = (V) values[index];
+                if (!onlyIfAbsent) values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Удаляет запись из слота, сдвигая назад записи той же цепочки пробирования.
+     */
+    private void shiftBack(int index) {
+        int last = index;
+        int next = (index + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next]);
+            // запись можно перенести в освободившийся слот, если он лежит между её домашним слотом и ней
+            boolean movable = last <= next ? (home <= last || home > next) : (home <= last && home > next);
+            if (movable) {
+                keys[last] = keys[next];
+                values[last] = values[next];
+                last = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[last] = FREE_KEY;
+        values[last] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int index = slot(key);
+                while (keys[index] != FREE_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int tableSizeFor(int expected) {
+        long needed = Math.max((long) expected * 4 / 3 + 1, DEFAULT_CAPACITY);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+}
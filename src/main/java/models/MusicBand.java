@@ -2,21 +2,44 @@ package models;
 
 import javax.xml.bind.annotation.*;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Класс, представляющий музыкальную группу.
  * Реализует интерфейс {@link Comparable} для сравнения групп по их ID.
+ * <p>
+ * Поля хранятся в компактном виде: координаты и лучший альбом встроены в объект группы,
+ * дата создания хранится как миллисекунды эпохи и номер часового пояса в общей таблице,
+ * а отсутствующие числа обозначаются значением {@link #NULL_INT}. Публичные геттеры
+ * по-прежнему возвращают {@link Coordinates}, {@link Album} и {@link ZonedDateTime}
+ * (они собираются при вызове), а XML-отображение выполняется через аннотированные
+ * свойства с теми же именами элементов, что и раньше.
  */
 @XmlRootElement(name = "MusicBand")
 @XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(propOrder = {"id", "name", "coordinatesXml", "creationDateXml", "numberOfParticipantsXml",
+        "albumsCountXml", "description", "genre", "bestAlbumXml"})
 public class MusicBand implements Comparable<MusicBand> {
 
+    /** Значение, которым в числовых полях обозначается {@code null}. */
+    public static final int NULL_INT = Integer.MIN_VALUE;
+
     /** Счетчик для автоматической генерации уникальных ID. */
     @XmlTransient
     private static final AtomicInteger idCounter = new AtomicInteger(1);
 
+    /** Часовые пояса дат создания; группа хранит только номер пояса в этой таблице. */
+    @XmlTransient
+    private static volatile ZoneId[] zones = new ZoneId[0];
+    @XmlTransient
+    private static final Map<ZoneId, Short> zoneIndexes = new ConcurrentHashMap<>();
+
     /** Уникальный идентификатор группы. */
     @XmlElement
     private int id;
@@ -25,22 +48,29 @@ public class MusicBand implements Comparable<MusicBand> {
     @XmlElement(required = true)
     private String name;
 
-    /** Координаты группы. */
-    @XmlElement
-    private Coordinates coordinates;
+    /** Координата X (не может быть больше 406). */
+    @XmlTransient
+    private float x;
 
-    /** Дата создания группы. */
-    @XmlElement
-    @XmlJavaTypeAdapter(ZonedDateTimeAdapter.class)
-    private ZonedDateTime creationDate;
+    /** Координата Y. */
+    @XmlTransient
+    private float y;
 
-    /** Количество участников группы. Может быть null. */
-    @XmlElement
-    private Integer numberOfParticipants;
+    /** Дата создания группы: миллисекунды эпохи. */
+    @XmlTransient
+    private long creationMillis;
 
-    /** Количество выпущенных альбомов. Может быть null. */
-    @XmlElement
-    private Integer albumsCount;
+    /** Дата создания группы: номер часового пояса в таблице {@link #zones}. */
+    @XmlTransient
+    private short creationZone;
+
+    /** Количество участников группы или {@link #NULL_INT}. */
+    @XmlTransient
+    private int numberOfParticipants = NULL_INT;
+
+    /** Количество выпущенных альбомов или {@link #NULL_INT}. */
+    @XmlTransient
+    private int albumsCount = NULL_INT;
 
     /** Описание группы. */
     @XmlElement(required = true)
@@ -50,9 +80,21 @@ public class MusicBand implements Comparable<MusicBand> {
     @XmlElement(required = true)
     private MusicGenre genre;
 
-    /** Лучший альбом группы. */
-    @XmlElement(required = true)
-    private Album bestAlbum;
+    /** Название лучшего альбома; {@code null}, если альбом не задан. */
+    @XmlTransient
+    private String bestAlbumName;
+
+    /** Продажи лучшего альбома. */
+    @XmlTransient
+    private float bestAlbumSales;
+
+    /** Количество треков лучшего альбома. */
+    @XmlTransient
+    private int bestAlbumTracks;
+
+    /** Позиция группы в массиве {@link MusicBandHeap}; -1, если группа не лежит в очереди. */
+    @XmlTransient
+    transient int heapIndex = -1;
 
     /**
      * Пустой конструктор для JAXB.
@@ -60,7 +102,7 @@ public class MusicBand implements Comparable<MusicBand> {
      */
     public MusicBand() {
         this.id = idCounter.getAndIncrement();
-        this.creationDate = ZonedDateTime.now();
+        setCreationDate(ZonedDateTime.now());
     }
 
     /**
@@ -77,36 +119,281 @@ public class MusicBand implements Comparable<MusicBand> {
      */
     public MusicBand(String name, Coordinates coordinates, Integer numberOfParticipants,
                      Integer albumsCount, String description, MusicGenre genre, Album bestAlbum) {
+        validate(name, coordinates, numberOfParticipants, albumsCount, description, genre, bestAlbum);
+        this.id = idCounter.getAndIncrement();
+        this.name = name;
+        setCoordinates(coordinates);
+        setCreationDate(ZonedDateTime.now());
+        this.numberOfParticipants = toRaw(numberOfParticipants);
+        this.albumsCount = toRaw(albumsCount);
+        this.description = description;
+        this.genre = genre;
+        setBestAlbum(bestAlbum);
+    }
+
+    /**
+     * Восстанавливает ранее сохранённую группу с заданными ID и датой создания
+     * (например, при чтении журнала изменений).
+     *
+     * @param id                 идентификатор группы (должен быть больше 0)
+     * @param name               название группы (не может быть пустым или null)
+     * @param coordinates        координаты группы (не могут быть null)
+     * @param creationDate       дата создания группы (не может быть null)
+     * @param numberOfParticipants количество участников (должно быть больше 0, если не null)
+     * @param albumsCount        количество альбомов (должно быть больше 0, если не null)
+     * @param description        описание группы (не может быть null)
+     * @param genre              жанр группы (не может быть null)
+     * @param bestAlbum          лучший альбом (не может быть null)
+     * @throws IllegalArgumentException если переданы некорректные данные
+     */
+    public MusicBand(int id, String name, Coordinates coordinates, ZonedDateTime creationDate,
+                     Integer numberOfParticipants, Integer albumsCount, String description,
+                     MusicGenre genre, Album bestAlbum) {
+        validate(name, coordinates, numberOfParticipants, albumsCount, description, genre, bestAlbum);
+        if (id <= 0) throw new IllegalArgumentException("ID должен быть > 0!");
+        if (creationDate == null) throw new IllegalArgumentException("Дата создания не может быть null!");
+        this.id = id;
+        this.name = name;
+        setCoordinates(coordinates);
+        setCreationDate(creationDate);
+        this.numberOfParticipants = toRaw(numberOfParticipants);
+        this.albumsCount = toRaw(albumsCount);
+        this.description = description;
+        this.genre = genre;
+        setBestAlbum(bestAlbum);
+        registerId(id);
+    }
+
+    /**
+     * Восстанавливает группу из уже разобранных примитивных полей (например, при чтении
+     * двоичного файла), не создавая промежуточных {@link Coordinates}, {@link Album} и {@link ZonedDateTime}.
+     *
+     * @param id                   идентификатор группы (должен быть больше 0)
+     * @param name                 название группы (не может быть пустым или null)
+     * @param x                    координата X (должна быть ≤ 406)
+     * @param y                    координата Y
+     * @param creationMillis       дата создания в миллисекундах эпохи
+     * @param zone                 часовой пояс даты создания (не может быть null)
+     * @param numberOfParticipants количество участников (больше 0) или {@link #NULL_INT}
+     * @param albumsCount          количество альбомов (больше 0) или {@link #NULL_INT}
+     * @param description          описание группы (не может быть null)
+     * @param genre                жанр группы (не может быть null)
+     * @param bestAlbumName        название лучшего альбома (не может быть пустым) или {@code null}, если альбома нет
+     * @param bestAlbumSales       продажи лучшего альбома (должны быть > 0, если альбом есть)
+     * @param bestAlbumTracks      треки лучшего альбома (должны быть > 0, если альбом есть)
+     * @throws IllegalArgumentException если переданы некорректные данные
+     */
+    public MusicBand(int id, String name, float x, float y, long creationMillis, ZoneId zone,
+                     int numberOfParticipants, int albumsCount, String description, MusicGenre genre,
+                     String bestAlbumName, float bestAlbumSales, int bestAlbumTracks) {
+        if (id <= 0) throw new IllegalArgumentException("ID должен быть > 0!");
+        if (x > 406) throw new IllegalArgumentException("Координата x не может быть > 406!");
+        if (zone == null) throw new IllegalArgumentException("Дата создания не может быть null!");
+        if (bestAlbumName != null) {
+            if (bestAlbumName.isEmpty()) throw new IllegalArgumentException("Имя альбома не может быть пустым!");
+            if (bestAlbumSales <= 0) throw new IllegalArgumentException("Продажи должны быть > 0!");
+            if (bestAlbumTracks <= 0) throw new IllegalArgumentException("Количество треков должно быть > 0!");
+        }
+        validateFields(name, fromRaw(numberOfParticipants), fromRaw(albumsCount), description, genre);
+        this.id = id;
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.creationMillis = creationMillis;
+        this.creationZone = zoneIndex(zone);
+        this.numberOfParticipants = numberOfParticipants;
+        this.albumsCount = albumsCount;
+        this.description = description;
+        this.genre = genre;
+        this.bestAlbumName = bestAlbumName;
+        this.bestAlbumSales = bestAlbumSales;
+        this.bestAlbumTracks = bestAlbumTracks;
+        registerId(id);
+    }
+
+    /** Конструктор для {@link #view}: поля заполняются вызывающим кодом. */
+    private MusicBand(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Собирает объект группы из полей записи хранилища без проверок и без сдвига счётчика ID:
+     * запись уже прошла проверки, когда группа добавлялась.
+     */
+    static MusicBand view(int id, String name, float x, float y, long creationMillis, short creationZone,
+                          int numberOfParticipants, int albumsCount, String description, MusicGenre genre,
+                          String bestAlbumName, float bestAlbumSales, int bestAlbumTracks) {
+        MusicBand band = new MusicBand(id);
+        band.name = name;
+        band.x = x;
+        band.y = y;
+        band.creationMillis = creationMillis;
+        band.creationZone = creationZone;
+        band.numberOfParticipants = numberOfParticipants;
+        band.albumsCount = albumsCount;
+        band.description = description;
+        band.genre = genre;
+        band.bestAlbumName = bestAlbumName;
+        band.bestAlbumSales = bestAlbumSales;
+        band.bestAlbumTracks = bestAlbumTracks;
+        return band;
+    }
+
+    /**
+     * Проверяет ограничения на поля группы.
+     *
+     * @throws IllegalArgumentException если переданы некорректные данные
+     */
+    private static void validate(String name, Coordinates coordinates, Integer numberOfParticipants,
+                                 Integer albumsCount, String description, MusicGenre genre, Album bestAlbum) {
         if (name == null || name.isEmpty()) throw new IllegalArgumentException("Имя не может быть пустым!");
         if (coordinates == null) throw new IllegalArgumentException("Координаты не могут быть null!");
+        if (bestAlbum == null) throw new IllegalArgumentException("Лучший альбом не может быть null!");
+        validateFields(name, numberOfParticipants, albumsCount, description, genre);
+    }
+
+    private static void validateFields(String name, Integer numberOfParticipants, Integer albumsCount,
+                                       String description, MusicGenre genre) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Имя не может быть пустым!");
         if (description == null) throw new IllegalArgumentException("Описание не может быть null!");
         if (genre == null) throw new IllegalArgumentException("Жанр не может быть null!");
-        if (bestAlbum == null) throw new IllegalArgumentException("Лучший альбом не может быть null!");
         if (numberOfParticipants != null && numberOfParticipants <= 0)
             throw new IllegalArgumentException("Число участников должно быть > 0!");
         if (albumsCount != null && albumsCount <= 0)
             throw new IllegalArgumentException("Число альбомов должно быть > 0!");
+    }
 
-        this.id = idCounter.getAndIncrement();
-        this.name = name;
-        this.coordinates = coordinates;
-        this.creationDate = ZonedDateTime.now();
-        this.numberOfParticipants = numberOfParticipants;
-        this.albumsCount = albumsCount;
-        this.description = description;
-        this.genre = genre;
-        this.bestAlbum = bestAlbum;
+    /**
+     * Сдвигает счётчик ID так, чтобы новые группы не получили уже занятый идентификатор.
+     *
+     * @param usedId идентификатор, который уже используется в коллекции
+     */
+    public static void registerId(int usedId) {
+        idCounter.accumulateAndGet(usedId + 1, Math::max);
     }
 
     public int getId() { return id; }
     public String getName() { return name; }
-    public Coordinates getCoordinates() { return coordinates; }
-    public ZonedDateTime getCreationDate() { return creationDate; }
-    public Integer getNumberOfParticipants() { return numberOfParticipants; }
-    public Integer getAlbumsCount() { return albumsCount; }
+    public Coordinates getCoordinates() {
+        Coordinates coordinates = new Coordinates();
+        coordinates.x = x;
+        coordinates.y = y;
+        return coordinates;
+    }
+    public ZonedDateTime getCreationDate() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(creationMillis), zones[creationZone]);
+    }
+    public Integer getNumberOfParticipants() { return fromRaw(numberOfParticipants); }
+    public Integer getAlbumsCount() { return fromRaw(albumsCount); }
     public String getDescription() { return description; }
     public MusicGenre getGenre() { return genre; }
-    public Album getBestAlbum() { return bestAlbum; }
+    public Album getBestAlbum() {
+        if (bestAlbumName == null) return null;
+        Album album = new Album();
+        album.name = bestAlbumName;
+        album.sales = bestAlbumSales;
+        album.tracks = bestAlbumTracks;
+        return album;
+    }
+
+    // Геттеры без создания объектов - для индексов и двоичных форматов.
+    public float getX() { return x; }
+    public float getY() { return y; }
+    public long getCreationMillis() { return creationMillis; }
+    public ZoneId getCreationZone() { return zones[creationZone]; }
+    short getCreationZoneIndex() { return creationZone; }
+    /** @return количество участников или {@link #NULL_INT}. */
+    public int getRawNumberOfParticipants() { return numberOfParticipants; }
+    /** @return количество альбомов или {@link #NULL_INT}. */
+    public int getRawAlbumsCount() { return albumsCount; }
+    public boolean hasBestAlbum() { return bestAlbumName != null; }
+    public String getBestAlbumName() { return bestAlbumName; }
+    public float getBestAlbumSales() { return bestAlbumSales; }
+    public int getBestAlbumTracks() { return bestAlbumTracks; }
+
+    /**
+     * Заменяет строковые поля каноническими экземплярами из пула, чтобы одинаковые
+     * названия и описания разных групп хранились в памяти один раз.
+     *
+     * @param pool пул строк
+     */
+    public void canonicalizeStrings(StringPool pool) {
+        name = pool.canonicalize(name);
+        description = pool.canonicalize(description);
+        bestAlbumName = pool.canonicalize(bestAlbumName);
+    }
+
+    private void setCoordinates(Coordinates coordinates) {
+        this.x = coordinates.x;
+        this.y = coordinates.y;
+    }
+
+    private void setCreationDate(ZonedDateTime creationDate) {
+        this.creationMillis = creationDate.toInstant().toEpochMilli();
+        this.creationZone = zoneIndex(creationDate.getZone());
+    }
+
+    private void setBestAlbum(Album album) {
+        this.bestAlbumName = album.name;
+        this.bestAlbumSales = album.sales;
+        this.bestAlbumTracks = album.tracks;
+    }
+
+    // Свойства XML-отображения: элементы и их порядок совпадают с прежними полями-объектами.
+
+    @XmlElement(name = "coordinates")
+    private Coordinates getCoordinatesXml() { return getCoordinates(); }
+    private void setCoordinatesXml(Coordinates coordinates) {
+        if (coordinates != null) setCoordinates(coordinates);
+    }
+
+    @XmlElement(name = "creationDate")
+    @XmlJavaTypeAdapter(ZonedDateTimeAdapter.class)
+    private ZonedDateTime getCreationDateXml() { return getCreationDate(); }
+    private void setCreationDateXml(ZonedDateTime creationDate) {
+        if (creationDate != null) setCreationDate(creationDate);
+    }
+
+    @XmlElement(name = "numberOfParticipants")
+    private Integer getNumberOfParticipantsXml() { return getNumberOfParticipants(); }
+    private void setNumberOfParticipantsXml(Integer value) { numberOfParticipants = toRaw(value); }
+
+    @XmlElement(name = "albumsCount")
+    private Integer getAlbumsCountXml() { return getAlbumsCount(); }
+    private void setAlbumsCountXml(Integer value) { albumsCount = toRaw(value); }
+
+    @XmlElement(name = "bestAlbum", required = true)
+    private Album getBestAlbumXml() { return getBestAlbum(); }
+    private void setBestAlbumXml(Album album) {
+        if (album != null) setBestAlbum(album);
+    }
+
+    private static int toRaw(Integer value) {
+        return value == null ? NULL_INT : value;
+    }
+
+    private static Integer fromRaw(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    /**
+     * Возвращает номер часового пояса в общей таблице, добавляя пояс при первой встрече.
+     */
+    private static short zoneIndex(ZoneId zone) {
+        Short index = zoneIndexes.get(zone);
+        if (index != null) return index;
+        synchronized (zoneIndexes) {
+            index = zoneIndexes.get(zone);
+            if (index != null) return index;
+            if (zones.length > Short.MAX_VALUE) throw new IllegalStateException("Слишком много часовых поясов.");
+            ZoneId[] grown = Arrays.copyOf(zones, zones.length + 1);
+            grown[zones.length] = zone;
+            zones = grown;
+            index = (short) (grown.length - 1);
+            zoneIndexes.put(zone, index);
+            return index;
+        }
+    }
 
     /**
      * Сравнивает текущую группу с другой по их уникальному идентификатору.
@@ -132,12 +419,12 @@ public class MusicBand implements Comparable<MusicBand> {
                 id,
                 name,
                 genre,
-                albumsCount,
-                numberOfParticipants,
-                coordinates,
-                creationDate,
+                getAlbumsCount(),
+                getNumberOfParticipants(),
+                getCoordinates(),
+                getCreationDate(),
                 description,
-                bestAlbum
+                getBestAlbum()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,322 @@
+package models;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Очередь музыкальных групп с приоритетом по ID и индексом по ID.
+ * <p>
+ * Это двоичная куча, в которой каждая группа хранит свою позицию в массиве кучи
+ * ({@link MusicBand#heapIndex}), а рядом ведётся отображение ID → группа
+ * ({@link IntObjectHashMap}, без упаковки ключей и узлов на запись). Поэтому
+ * {@link #poll()}, {@link #removeById(int)} и {@link #add(MusicBand)} выполняются за O(log n),
+ * а {@link #get(int)} - за O(1). Параллельно ведётся {@link VersionedBandMap}, так что
+ * {@link #snapshot()} возвращает неизменяемую версию коллекции за O(1). Голова очереди, как и у {@link java.util.PriorityQueue},
+ * - группа с минимальным ID. Группы с повторяющимся ID не добавляются.
+ */
+public class MusicBandHeap extends AbstractQueue<MusicBand> implements BandStore {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private MusicBand[] heap;
+    private int size;
+    private int modCount;
+    private final IntObjectHashMap<MusicBand> byId;
+    /** Версии для снимков; {@code null}, если снимки ведёт владелец очереди (см. {@link ShardedBandStore}). */
+    private final VersionedBandMap versions;
+
+    /**
+     * Создаёт пустую очередь.
+     */
+    public MusicBandHeap() {
+        this(true);
+    }
+
+    /**
+     * Создаёт пустую очередь.
+     *
+     * @param versioned вести ли версии для {@link #snapshot()} за O(1)
+     */
+    MusicBandHeap(boolean versioned) {
+        heap = new MusicBand[DEFAULT_CAPACITY];
+        byId = new IntObjectHashMap<>();
+        versions = versioned ? new VersionedBandMap() : null;
+    }
+
+    /**
+     * Создаёт очередь из готового набора групп за O(n) (построение кучи снизу вверх).
+     * Группы с повторяющимся ID пропускаются.
+     *
+     * @param bands исходные группы
+     */
+    public MusicBandHeap(Collection<MusicBand> bands) {
+        heap = new MusicBand[Math.max(bands.size(), DEFAULT_CAPACITY)];
+        byId = new IntObjectHashMap<>(bands.size());
+        versions = new VersionedBandMap();
+        fill(bands);
+    }
+
+    /**
+     * Заменяет содержимое очереди за O(n) (построение кучи снизу вверх).
+     * Группы с повторяющимся ID пропускаются.
+     *
+     * @param bands новые группы
+     */
+    @Override
+    public void replaceAll(Collection<MusicBand> bands) {
+        clear();
+        if (heap.length < bands.size()) {
+            heap = new MusicBand[bands.size()];
+        }
+        fill(bands);
+    }
+
+    @Override
+    public String describeStorage() {
+        return "объекты групп в куче JVM";
+    }
+
+    private void fill(Collection<MusicBand> bands) {
+        modCount++;
+        for (MusicBand band : bands) {
+            if (byId.putIfAbsent(band.getId(), band) == null) {
+                if (versions != null) versions.put(band);
+                band.heapIndex = size;
+                heap[size++] = band;
+            }
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    /**
+     * Добавляет группу в очередь.
+     *
+     * @param band добавляемая группа
+     * @return {@code false}, если группа с таким ID уже есть
+     */
+    @Override
+    public boolean offer(MusicBand band) {
+        if (band == null) throw new NullPointerException();
+        if (byId.putIfAbsent(band.getId(), band) != null) return false;
+        modCount++;
+        if (versions != null) versions.put(band);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size + (size >> 1) + 1);
+        }
+        siftUp(size++, band);
+        return true;
+    }
+
+    /**
+     * Добавляет группу в очередь. В отличие от {@link AbstractQueue#add}, повторяющийся ID
+     * не считается ошибкой.
+     *
+     * @param band добавляемая группа
+     * @return {@code false}, если группа с таким ID уже есть
+     */
+    @Override
+    public boolean add(MusicBand band) {
+        return offer(band);
+    }
+
+    /**
+     * Удаляет и возвращает группу с минимальным ID.
+     *
+     * @return удалённая группа или {@code null}, если очередь пуста
+     */
+    @Override
+    public MusicBand poll() {
+        if (size == 0) return null;
+        MusicBand head = heap[0];
+        removeAt(0);
+        return head;
+    }
+
+    @Override
+    public MusicBand peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    @Override
+    public MusicBand get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Возвращает неизменяемую версию коллекции за O(1); её можно обходить в другом потоке,
+     * пока очередь продолжает меняться.
+     */
+    @Override
+    public BandSnapshot snapshot() {
+        return versions == null ? BandStore.super.snapshot() : versions.snapshot();
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        return byId.containsKey(id);
+    }
+
+    /**
+     * Удаляет группу по ID за O(log n).
+     *
+     * @param id идентификатор группы
+     * @return удалённая группа или {@code null}, если группы с таким ID нет
+     */
+    @Override
+    public MusicBand removeById(int id) {
+        MusicBand band = byId.get(id);
+        if (band == null) return null;
+        removeAt(band.heapIndex);
+        return band;
+    }
+
+    /**
+     * Удаляет группы по ID. Если удаляется заметная часть очереди (больше n / log n групп),
+     * оставшиеся группы сдвигаются к началу массива и куча строится заново за O(n)
+     * вместо O(k log n) отдельных удалений.
+     *
+     * @param ids идентификаторы групп; отсутствующие ID пропускаются
+     * @return удалённые группы
+     */
+    @Override
+    public List<MusicBand> removeAllById(int[] ids) {
+        if ((long) ids.length * (32 - Integer.numberOfLeadingZeros(size)) <= size) {
+            return BandStore.super.removeAllById(ids);
+        }
+        modCount++;
+        List<MusicBand> removed = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            MusicBand band = byId.remove(id);
+            if (band != null) {
+                if (versions != null) versions.remove(id);
+                band.heapIndex = -1;
+                removed.add(band);
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            MusicBand band = heap[i];
+            if (band.heapIndex >= 0) heap[kept++] = band;
+        }
+        Arrays.fill(heap, kept, size, null);
+        size = kept;
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = i;
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof MusicBand)) return false;
+        MusicBand band = (MusicBand) o;
+        if (byId.get(band.getId()) != band) return false;
+        removeAt(band.heapIndex);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof MusicBand && byId.get(((MusicBand) o).getId()) == o;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        byId.clear();
+        if (versions != null) versions.clear();
+    }
+
+    /**
+     * Возвращает итератор в порядке массива кучи (как у {@link java.util.PriorityQueue}, без сортировки).
+     * Удаление через итератор не поддерживается.
+     */
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new Iterator<>() {
+            private int cursor;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public MusicBand next() {
+                if (expectedModCount != modCount) throw new ConcurrentModificationException();
+                if (cursor >= size) throw new NoSuchElementException();
+                return heap[cursor++];
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        modCount++;
+        MusicBand removed = heap[index];
+        byId.remove(removed.getId());
+        if (versions != null) versions.remove(removed.getId());
+        removed.heapIndex = -1;
+
+        int last = --size;
+        MusicBand moved = heap[last];
+        heap[last] = null;
+        if (index != last) {
+            siftDown(index, moved);
+            if (heap[index] == moved) {
+                siftUp(index, moved);
+            }
+        }
+    }
+
+    private void siftUp(int index, MusicBand band) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            MusicBand p = heap[parent];
+            if (p.getId() <= band.getId()) break;
+            heap[index] = p;
+            p.heapIndex = index;
+            index = parent;
+        }
+        heap[index] = band;
+        band.heapIndex = index;
+    }
+
+    private void siftDown(int index, MusicBand band) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].getId() < heap[child].getId()) {
+                child = right;
+            }
+            MusicBand c = heap[child];
+            if (band.getId() <= c.getId()) break;
+            heap[index] = c;
+            c.heapIndex = index;
+            index = child;
+        }
+        heap[index] = band;
+        band.heapIndex = index;
+    }
+}
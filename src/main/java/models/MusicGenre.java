@@ -18,4 +18,19 @@ public enum MusicGenre {
 
     /** Блюз */
     BLUES;
+
+    /**
+     * Возвращает жанр по названию без учёта регистра.
+     *
+     * @param name название жанра
+     * @return жанр или {@code null}, если такого жанра нет
+     */
+    public static MusicGenre fromString(String name) {
+        for (MusicGenre genre : values()) {
+            if (genre.name().equalsIgnoreCase(name)) {
+                return genre;
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,403 @@
+package models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Хранилище музыкальных групп вне кучи JVM.
+ * <p>
+ * Записи групп фиксированной длины ({@value #RECORD_SIZE} байт) лежат в отображённом в память
+ * временном файле, строки - во втором файле в виде [длина UTF-8 (4) | байты]. Оба файла
+ * отображаются сегментами по {@value #SEGMENT_SIZE} байт, поэтому размер коллекции ограничен
+ * диском и страничным кэшем ОС, а не размером кучи. В куче остаются только таблица
+ * ID → номер записи ({@link IntIntHashMap}) и двоичная куча ID для очереди с приоритетом -
+ * около 30 байт на группу. Объекты {@link MusicBand} создаются при каждом чтении и не кэшируются.
+ * <pre>
+ * запись: id (4) | x (4) | y (4) | creationMillis (8) | zone (2) | genre (1) | - (1) |
+ *         numberOfParticipants (4) | albumsCount (4) | bestAlbum.sales (4) | bestAlbum.tracks (4) |
+ *         name (8) | description (8) | bestAlbum.name (8)
+ * </pre>
+ * Строковые поля записи - смещения в файле строк ({@code -1} для {@code null}), zone - номер
+ * часового пояса в таблице {@link MusicBand}, genre - порядковый номер жанра ({@code -1} для {@code null}).
+ * Номера освобождённых записей переиспользуются, а строки удалённых групп остаются в файле
+ * до {@link #clear()} и учитываются как мусор.
+ */
+public class OffHeapBandStore extends AbstractQueue<MusicBand> implements BandStore {
+    /** Размер записи одной группы в байтах. */
+    public static final int RECORD_SIZE = 64;
+    /** Размер отображаемого сегмента файла в байтах. */
+    public static final int SEGMENT_SIZE = 1 << 26;
+    private static final int RECORDS_PER_SEGMENT = SEGMENT_SIZE / RECORD_SIZE;
+    private static final long NO_STRING = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double MB = 1024.0 * 1024;
+
+    private static final int ID = 0;
+    private static final int X = 4;
+    private static final int Y = 8;
+    private static final int CREATED = 12;
+    private static final int ZONE = 20;
+    private static final int GENRE = 22;
+    private static final int PARTICIPANTS = 24;
+    private static final int ALBUMS = 28;
+    private static final int SALES = 32;
+    private static final int TRACKS = 36;
+    private static final int NAME = 40;
+    private static final int DESCRIPTION = 48;
+    private static final int ALBUM_NAME = 56;
+
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    private final FileChannel recordChannel;
+    private final FileChannel stringChannel;
+    private final List<MappedByteBuffer> recordSegments = new ArrayList<>();
+    private final List<MappedByteBuffer> stringSegments = new ArrayList<>();
+
+    private final IntIntHashMap slotsById = new IntIntHashMap();
+    /** Двоичная куча по ID: ID и номер записи в соседних массивах. */
+    private int[] heapIds = new int[DEFAULT_CAPACITY];
+    private int[] heapSlots = new int[DEFAULT_CAPACITY];
+    /** Позиция в куче для каждого номера записи. */
+    private int[] positions = new int[DEFAULT_CAPACITY];
+    private int[] freeSlots = new int[DEFAULT_CAPACITY];
+    private int freeCount;
+    private int slotCount;
+    private int size;
+    private int modCount;
+    private long stringsEnd;
+    private long garbageBytes;
+
+    /**
+     * Создаёт пустое хранилище. Файлы записей и строк создаются во временном каталоге
+     * и удаляются при завершении программы.
+     *
+     * @param directory каталог для файлов хранилища или {@code null} для системного временного каталога
+     * @throws IOException если файлы не удалось создать
+     */
+    public OffHeapBandStore(File directory) throws IOException {
+        File records = File.createTempFile("musicbands", ".records", directory);
+        File strings = File.createTempFile("musicbands", ".strings", directory);
+        records.deleteOnExit();
+        strings.deleteOnExit();
+        recordChannel = FileChannel.open(records.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        stringChannel = FileChannel.open(strings.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Добавляет группу: поля копируются в запись, объект группы хранилище не удерживает.
+     *
+     * @param band добавляемая группа
+     * @return {@code false}, если группа с таким ID уже есть
+     * @throws UncheckedIOException если не удалось расширить файлы хранилища
+     */
+    @Override
+    public boolean offer(MusicBand band) {
+        if (band == null) throw new NullPointerException();
+        int id = band.getId();
+        if (slotsById.containsKey(id)) return false;
+        boolean reused = freeCount > 0;
+        int slot = reused ? freeSlots[freeCount - 1] : slotCount;
+        writeRecord(slot, band);
+        if (reused) {
+            freeCount--;
+        } else {
+            slotCount++;
+        }
+        slotsById.put(id, slot);
+        modCount++;
+        if (size == heapIds.length) {
+            heapIds = Arrays.copyOf(heapIds, size + (size >> 1) + 1);
+            heapSlots = Arrays.copyOf(heapSlots, heapIds.length);
+        }
+        if (slot >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(slot + 1, positions.length + (positions.length >> 1)));
+        }
+        siftUp(size++, id, slot);
+        return true;
+    }
+
+    /**
+     * Добавляет группу. Повторяющийся ID, как и у {@link MusicBandHeap#add}, не считается ошибкой.
+     *
+     * @param band добавляемая группа
+     * @return {@code false}, если группа с таким ID уже есть
+     */
+    @Override
+    public boolean add(MusicBand band) {
+        return offer(band);
+    }
+
+    @Override
+    public MusicBand poll() {
+        if (size == 0) return null;
+        MusicBand head = read(heapSlots[0]);
+        removeAt(0);
+        return head;
+    }
+
+    @Override
+    public MusicBand peek() {
+        return size == 0 ? null : read(heapSlots[0]);
+    }
+
+    @Override
+    public MusicBand get(int id) {
+        int slot = slotsById.get(id);
+        return slot == IntIntHashMap.NO_VALUE ? null : read(slot);
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        return slotsById.containsKey(id);
+    }
+
+    @Override
+    public MusicBand removeById(int id) {
+        int slot = slotsById.get(id);
+        if (slot == IntIntHashMap.NO_VALUE) return null;
+        MusicBand band = read(slot);
+        removeAt(positions[slot]);
+        return band;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof MusicBand && removeById(((MusicBand) o).getId()) != null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof MusicBand && containsId(((MusicBand) o).getId());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все группы. Отображённые сегменты файлов остаются и используются повторно.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        size = 0;
+        slotCount = 0;
+        freeCount = 0;
+        stringsEnd = 0;
+        garbageBytes = 0;
+        slotsById.clear();
+    }
+
+    @Override
+    public void replaceAll(Collection<MusicBand> bands) {
+        clear();
+        for (MusicBand band : bands) {
+            offer(band);
+        }
+    }
+
+    @Override
+    public String describeStorage() {
+        long records = (long) recordSegments.size() * SEGMENT_SIZE;
+        long strings = (long) stringSegments.size() * SEGMENT_SIZE;
+        return String.format("записи вне кучи: %d × %d Б, строки %.1f МБ (из них удалённые %.1f МБ), "
+                        + "отображено %.1f МБ; в куче около %.1f МБ",
+                size, RECORD_SIZE, stringsEnd / MB, garbageBytes / MB, (records + strings) / MB,
+                (slotsById.size() * 16L + heapIds.length * 8L + positions.length * 4L + freeSlots.length * 4L) / MB);
+    }
+
+    /**
+     * Возвращает итератор в порядке массива кучи, как у {@link MusicBandHeap}. Каждая группа
+     * читается из записи при обращении. Удаление через итератор не поддерживается.
+     */
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new Iterator<>() {
+            private int cursor;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public MusicBand next() {
+                if (expectedModCount != modCount) throw new ConcurrentModificationException();
+                if (cursor >= size) throw new NoSuchElementException();
+                return read(heapSlots[cursor++]);
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        modCount++;
+        int slot = heapSlots[index];
+        slotsById.remove(heapIds[index]);
+        garbageBytes += stringBytes(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+
+        int last = --size;
+        if (index != last) {
+            int movedId = heapIds[last];
+            int movedSlot = heapSlots[last];
+            siftDown(index, movedId, movedSlot);
+            if (heapSlots[index] == movedSlot) {
+                siftUp(index, movedId, movedSlot);
+            }
+        }
+    }
+
+    private void siftUp(int index, int id, int slot) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapIds[parent] <= id) break;
+            place(index, heapIds[parent], heapSlots[parent]);
+            index = parent;
+        }
+        place(index, id, slot);
+    }
+
+    private void siftDown(int index, int id, int slot) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heapIds[right] < heapIds[child]) {
+                child = right;
+            }
+            if (id <= heapIds[child]) break;
+            place(index, heapIds[child], heapSlots[child]);
+            index = child;
+        }
+        place(index, id, slot);
+    }
+
+    private void place(int index, int id, int slot) {
+        heapIds[index] = id;
+        heapSlots[index] = slot;
+        positions[slot] = index;
+    }
+
+    private void writeRecord(int slot, MusicBand band) {
+        long name = writeString(band.getName());
+        long description = writeString(band.getDescription());
+        long albumName = writeString(band.getBestAlbumName());
+        ByteBuffer segment = segment(recordSegments, recordChannel, slot / RECORDS_PER_SEGMENT);
+        int base = (slot % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        segment.putInt(base + ID, band.getId());
+        segment.putFloat(base + X, band.getX());
+        segment.putFloat(base + Y, band.getY());
+        segment.putLong(base + CREATED, band.getCreationMillis());
+        segment.putShort(base + ZONE, band.getCreationZoneIndex());
+        segment.put(base + GENRE, band.getGenre() == null ? -1 : (byte) band.getGenre().ordinal());
+        segment.putInt(base + PARTICIPANTS, band.getRawNumberOfParticipants());
+        segment.putInt(base + ALBUMS, band.getRawAlbumsCount());
+        segment.putFloat(base + SALES, band.getBestAlbumSales());
+        segment.putInt(base + TRACKS, band.getBestAlbumTracks());
+        segment.putLong(base + NAME, name);
+        segment.putLong(base + DESCRIPTION, description);
+        segment.putLong(base + ALBUM_NAME, albumName);
+    }
+
+    private MusicBand read(int slot) {
+        ByteBuffer segment = recordSegments.get(slot / RECORDS_PER_SEGMENT);
+        int base = (slot % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        byte genre = segment.get(base + GENRE);
+        return MusicBand.view(
+                segment.getInt(base + ID),
+                readString(segment.getLong(base + NAME)),
+                segment.getFloat(base + X),
+                segment.getFloat(base + Y),
+                segment.getLong(base + CREATED),
+                segment.getShort(base + ZONE),
+                segment.getInt(base + PARTICIPANTS),
+                segment.getInt(base + ALBUMS),
+                readString(segment.getLong(base + DESCRIPTION)),
+                genre < 0 ? null : GENRES[genre],
+                readString(segment.getLong(base + ALBUM_NAME)),
+                segment.getFloat(base + SALES),
+                segment.getInt(base + TRACKS));
+    }
+
+    /**
+     * Дописывает строку в файл строк. Строка не пересекает границу сегмента: если она не помещается
+     * в остаток текущего сегмента, запись начинается со следующего.
+     */
+    private long writeString(String value) {
+        if (value == null) return NO_STRING;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Integer.BYTES + bytes.length;
+        if (length > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Строка слишком длинная для хранилища: " + bytes.length + " байт.");
+        }
+        int offset = (int) (stringsEnd % SEGMENT_SIZE);
+        if (offset + length > SEGMENT_SIZE) {
+            stringsEnd += SEGMENT_SIZE - offset;
+            offset = 0;
+        }
+        ByteBuffer segment = segment(stringSegments, stringChannel, (int) (stringsEnd / SEGMENT_SIZE)).duplicate();
+        segment.putInt(offset, bytes.length);
+        segment.position(offset + Integer.BYTES);
+        segment.put(bytes);
+        long position = stringsEnd;
+        stringsEnd += length;
+        return position;
+    }
+
+    private String readString(long position) {
+        if (position == NO_STRING) return null;
+        ByteBuffer segment = stringSegments.get((int) (position / SEGMENT_SIZE)).duplicate();
+        int offset = (int) (position % SEGMENT_SIZE);
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.position(offset + Integer.BYTES);
+        segment.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long stringBytes(int slot) {
+        ByteBuffer segment = recordSegments.get(slot / RECORDS_PER_SEGMENT);
+        int base = (slot % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        return stringBytes(segment.getLong(base + NAME))
+                + stringBytes(segment.getLong(base + DESCRIPTION))
+                + stringBytes(segment.getLong(base + ALBUM_NAME));
+    }
+
+    private long stringBytes(long position) {
+        if (position == NO_STRING) return 0;
+        ByteBuffer segment = stringSegments.get((int) (position / SEGMENT_SIZE));
+        return Integer.BYTES + segment.getInt((int) (position % SEGMENT_SIZE));
+    }
+
+    /**
+     * Возвращает сегмент файла с заданным номером, отображая недостающие сегменты (файл при этом растёт).
+     */
+    private static MappedByteBuffer segment(List<MappedByteBuffer> segments, FileChannel channel, int index) {
+        try {
+            while (segments.size() <= index) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось расширить файл хранилища.", e);
+        }
+        return segments.get(index);
+    }
+}
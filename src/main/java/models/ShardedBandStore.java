@@ -0,0 +1,286 @@
+package models;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Хранилище, разбитое на несколько независимых очередей ({@link MusicBandHeap}) по хешу ID.
+ * <p>
+ * Шард группы определяется согласованным хешированием ({@link #shardOf(int, int)}): при увеличении
+ * числа шардов с N до M на новые шарды переезжает около (M - N) / M групп, а между старыми шардами
+ * группы не перемещаются. Поиск и удаление по ID обращаются только к шарду-владельцу, голова очереди
+ * выбирается среди голов шардов. Снимки ведутся одним {@link VersionedBandMap} на всё хранилище,
+ * поэтому {@link #snapshot()}, как и у {@link MusicBandHeap}, выполняется за O(1).
+ */
+public class ShardedBandStore extends AbstractQueue<MusicBand> implements BandStore {
+    private MusicBandHeap[] shards;
+    private int size;
+    private final VersionedBandMap versions = new VersionedBandMap();
+
+    /**
+     * Создаёт пустое хранилище.
+     *
+     * @param shardCount число шардов
+     */
+    public ShardedBandStore(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("Число шардов должно быть положительным");
+        shards = new MusicBandHeap[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MusicBandHeap(false);
+        }
+    }
+
+    /**
+     * Возвращает шард группы с заданным ID - согласованный хеш Lamping-Veach ("jump consistent hash")
+     * от перемешанного ID. Для одного ID при росте числа шардов результат либо не меняется,
+     * либо становится номером одного из новых шардов.
+     *
+     * @param id     идентификатор группы
+     * @param shards число шардов
+     * @return номер шарда от 0 до {@code shards - 1}
+     */
+    public static int shardOf(int id, int shards) {
+        long key = (id & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        long bucket = -1;
+        long next = 0;
+        while (next < shards) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    /**
+     * @return число шардов
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param index номер шарда
+     * @return количество групп в шарде
+     */
+    public int getShardSize(int index) {
+        return shards[index].size();
+    }
+
+    /**
+     * Меняет число шардов и переносит группы, у которых сменился шард-владелец.
+     * Какие группы переезжают, определяется параллельно по всем шардам, сами переносы выполняются
+     * в вызывающем потоке. Содержимое хранилища и снимки не меняются.
+     *
+     * @param shardCount новое число шардов
+     * @return перенесённые группы
+     */
+    public List<MusicBand> resize(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("Число шардов должно быть положительным");
+        MusicBandHeap[] old = shards;
+        int[][] leaving = IntStream.range(0, old.length).parallel().mapToObj(i -> {
+            int[] ids = new int[old[i].size()];
+            int count = 0;
+            for (MusicBand band : old[i]) {
+                if (shardOf(band.getId(), shardCount) != i) ids[count++] = band.getId();
+            }
+            return Arrays.copyOf(ids, count);
+        }).toArray(int[][]::new);
+
+        MusicBandHeap[] resized = Arrays.copyOf(old, shardCount);
+        for (int i = old.length; i < shardCount; i++) {
+            resized[i] = new MusicBandHeap(false);
+        }
+        List<MusicBand> moved = new ArrayList<>();
+        for (int i = 0; i < old.length; i++) {
+            for (MusicBand band : old[i].removeAllById(leaving[i])) {
+                resized[shardOf(band.getId(), shardCount)].offer(band);
+                moved.add(band);
+            }
+        }
+        shards = resized;
+        return moved;
+    }
+
+    @Override
+    public boolean offer(MusicBand band) {
+        if (band == null) throw new NullPointerException();
+        if (!shards[shardOf(band.getId(), shards.length)].offer(band)) return false;
+        versions.put(band);
+        size++;
+        return true;
+    }
+
+    /**
+     * Добавляет группу в её шард. Повторяющийся ID, как и у {@link MusicBandHeap}, не считается ошибкой.
+     *
+     * @param band добавляемая группа
+     * @return {@code false}, если группа с таким ID уже есть
+     */
+    @Override
+    public boolean add(MusicBand band) {
+        return offer(band);
+    }
+
+    @Override
+    public MusicBand poll() {
+        MusicBandHeap shard = headShard();
+        if (shard == null) return null;
+        MusicBand band = shard.poll();
+        versions.remove(band.getId());
+        size--;
+        return band;
+    }
+
+    @Override
+    public MusicBand peek() {
+        MusicBandHeap shard = headShard();
+        return shard == null ? null : shard.peek();
+    }
+
+    /**
+     * @return шард, голова которого имеет минимальный ID, или {@code null}, если хранилище пусто
+     */
+    private MusicBandHeap headShard() {
+        MusicBandHeap result = null;
+        for (MusicBandHeap shard : shards) {
+            MusicBand head = shard.peek();
+            if (head != null && (result == null || head.getId() < result.peek().getId())) result = shard;
+        }
+        return result;
+    }
+
+    @Override
+    public MusicBand get(int id) {
+        return shards[shardOf(id, shards.length)].get(id);
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        return shards[shardOf(id, shards.length)].containsId(id);
+    }
+
+    @Override
+    public MusicBand removeById(int id) {
+        MusicBand band = shards[shardOf(id, shards.length)].removeById(id);
+        if (band != null) {
+            versions.remove(id);
+            size--;
+        }
+        return band;
+    }
+
+    /**
+     * Удаляет группы по ID, передавая каждому шарду только его ID.
+     */
+    @Override
+    public List<MusicBand> removeAllById(int[] ids) {
+        int[][] byShard = new int[shards.length][];
+        int[] counts = new int[shards.length];
+        for (int id : ids) {
+            int shard = shardOf(id, shards.length);
+            if (byShard[shard] == null) byShard[shard] = new int[Math.max(16, ids.length / shards.length)];
+            if (counts[shard] == byShard[shard].length) byShard[shard] = Arrays.copyOf(byShard[shard], counts[shard] * 2);
+            byShard[shard][counts[shard]++] = id;
+        }
+        List<MusicBand> removed = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (counts[i] > 0) removed.addAll(shards[i].removeAllById(Arrays.copyOf(byShard[i], counts[i])));
+        }
+        for (MusicBand band : removed) {
+            versions.remove(band.getId());
+        }
+        size -= removed.size();
+        return removed;
+    }
+
+    @Override
+    public void replaceAll(Collection<MusicBand> bands) {
+        clear();
+        List<List<MusicBand>> byShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            byShard.add(new ArrayList<>(bands.size() / shards.length + 1));
+        }
+        for (MusicBand band : bands) {
+            byShard.get(shardOf(band.getId(), shards.length)).add(band);
+        }
+        IntStream.range(0, shards.length).parallel().forEach(i -> shards[i].replaceAll(byShard.get(i)));
+        for (MusicBandHeap shard : shards) {
+            for (MusicBand band : shard) {
+                versions.put(band);
+            }
+            size += shard.size();
+        }
+    }
+
+    @Override
+    public BandSnapshot snapshot() {
+        return versions.snapshot();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof MusicBand)) return false;
+        MusicBand band = (MusicBand) o;
+        if (!shards[shardOf(band.getId(), shards.length)].remove(band)) return false;
+        versions.remove(band.getId());
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof MusicBand && shards[shardOf(((MusicBand) o).getId(), shards.length)].contains(o);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (MusicBandHeap shard : shards) {
+            shard.clear();
+        }
+        versions.clear();
+        size = 0;
+    }
+
+    /**
+     * Возвращает итератор по шардам подряд (внутри шарда - в порядке массива кучи).
+     * Удаление через итератор не поддерживается.
+     */
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new Iterator<>() {
+            private int shard;
+            private Iterator<MusicBand> current = shards[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (shard + 1 == shards.length) return false;
+                    current = shards[++shard].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public MusicBand next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public String describeStorage() {
+        return "объекты групп в куче JVM, шардов по хешу ID: " + shards.length;
+    }
+}
@@ -0,0 +1,100 @@
+package models;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * Ограниченный пул строк для устранения повторяющихся экземпляров.
+ * <p>
+ * Пул устроен как кэш прямого отображения: строка попадает в слот по своему хешу,
+ * а слот хранит слабую ссылку на последний канонический экземпляр. Если в слоте уже
+ * лежит равная строка, возвращается она, и новая копия становится мусором. Размер пула
+ * фиксирован, а слабые ссылки не удерживают строки, которые больше нигде не используются,
+ * поэтому пул не растёт вместе с коллекцией и не мешает сборке мусора.
+ */
+public class StringPool {
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final WeakReference<String>[] slots;
+    private final int mask;
+    private long lookups;
+    private long hits;
+    private long savedBytes;
+
+    /**
+     * Создаёт пул с заданным числом слотов (округляется вверх до степени двойки).
+     *
+     * @param capacity число слотов
+     */
+    @SuppressWarnings("unchecked")
+    public StringPool(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = (WeakReference<String>[]) new WeakReference<?>[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Возвращает канонический экземпляр строки, равный {@code value}.
+     *
+     * @param value строка (может быть {@code null})
+     * @return ранее сохранённый равный экземпляр или сама {@code value}
+     */
+    public synchronized String canonicalize(String value) {
+        if (value == null) return null;
+        lookups++;
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        WeakReference<String> ref = slots[index];
+        String pooled = ref == null ? null : ref.get();
+        if (pooled == value) {
+            hits++;
+            return pooled;
+        }
+        if (pooled != null && pooled.equals(value)) {
+            hits++;
+            savedBytes += estimateBytes(value);
+            return pooled;
+        }
+        slots[index] = new WeakReference<>(value);
+        return value;
+    }
+
+    /**
+     * Очищает пул и его статистику.
+     */
+    public synchronized void clear() {
+        Arrays.fill(slots, null);
+        lookups = 0;
+        hits = 0;
+        savedBytes = 0;
+    }
+
+    /** @return число слотов пула. */
+    public int getCapacity() { return slots.length; }
+    /** @return число обращений к пулу. */
+    public synchronized long getLookups() { return lookups; }
+    /** @return число обращений, для которых нашёлся готовый экземпляр. */
+    public synchronized long getHits() { return hits; }
+    /** @return оценка памяти, освобождённой за счёт отброшенных копий строк. */
+    public synchronized long getSavedBytes() { return savedBytes; }
+
+    /**
+     * Оценивает размер строки вместе с её массивом байтов на 64-битной JVM со сжатыми указателями
+     * (компактные строки JDK 9+: 1 байт на символ для Latin-1, иначе 2).
+     *
+     * @param value строка
+     * @return размер в байтах; 0 для {@code null}
+     */
+    public static long estimateBytes(String value) {
+        if (value == null) return 0;
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_BYTES + ((ARRAY_HEADER_BYTES + (long) value.length() * bytesPerChar + 7) & ~7L);
+    }
+}
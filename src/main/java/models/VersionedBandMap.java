@@ -0,0 +1,187 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * Отображение ID → группа, из которого за O(1) берутся неизменяемые версии ({@link BandSnapshot}).
+ * <p>
+ * Это сжатое префиксное дерево по битам ID (по 5 бит на уровень, от старших к младшим): узел хранит
+ * 32-битную маску занятых ветвей и плотный массив только занятых ветвей, листья - сами группы.
+ * Высота дерева растёт вместе с максимальным ID, поэтому при последовательной выдаче ID миллион групп
+ * помещается в 4 уровня, а обход идёт в порядке возрастания ID.
+ * <p>
+ * Версии разделяют общую структуру. Каждый узел помечен эпохой, в которой он создан; снимок только
+ * увеличивает номер эпохи, после чего все существующие узлы считаются замороженными. Запись меняет узлы
+ * текущей эпохи на месте, а замороженные копирует по пути от корня (не больше 7 узлов), так что серия
+ * изменений между двумя снимками копирует каждый узел не больше одного раза. Изменения и снимки
+ * синхронизированы на объекте отображения: читатель удерживает блокировку только на время взятия снимка,
+ * а обходит его без блокировок, пока запись продолжается.
+ */
+public class VersionedBandMap {
+    /** Бит ID на уровень дерева. */
+    static final int BITS = 5;
+    static final int MASK = (1 << BITS) - 1;
+    /** Сдвиг самого верхнего возможного уровня: 7 уровней покрывают все 32 бита ID. */
+    static final int MAX_SHIFT = 30;
+
+    /**
+     * Узел дерева. В узлах уровня 0 ветви - группы, в остальных - дочерние узлы.
+     */
+    static final class Node {
+        /** Эпоха, в которой создан узел; менять на месте можно только узлы текущей эпохи. */
+        final int epoch;
+        int bitmap;
+        /** Ветви в порядке номеров; занято {@code Integer.bitCount(bitmap)} первых элементов. */
+        Object[] slots;
+
+        Node(int epoch, int bitmap, Object[] slots) {
+            this.epoch = epoch;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private Node root;
+    /** Сдвиг уровня корня: корень покрывает ID меньше {@code 1 << (rootShift + BITS)}. */
+    private int rootShift;
+    private int size;
+    private int epoch;
+    /** Последний выданный снимок; сбрасывается при изменении. */
+    private BandSnapshot last;
+
+    /**
+     * Создаёт пустое отображение.
+     */
+    public VersionedBandMap() {
+        root = new Node(0, 0, new Object[0]);
+    }
+
+    /**
+     * @return количество групп в текущей версии.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает неизменяемую версию отображения за O(1). Пока изменений не было, повторные вызовы
+     * возвращают тот же снимок.
+     *
+     * @return снимок текущего содержимого
+     */
+    public synchronized BandSnapshot snapshot() {
+        if (last == null) {
+            last = new BandSnapshot(root, rootShift, size);
+            epoch++;
+        }
+        return last;
+    }
+
+    /**
+     * Добавляет группу или заменяет группу с тем же ID.
+     *
+     * @param band группа
+     */
+    public synchronized void put(MusicBand band) {
+        int id = band.getId();
+        while (rootShift < MAX_SHIFT && (id >>> (rootShift + BITS)) != 0) {
+            // дерево становится на уровень выше: прежний корень - ветвь 0 нового
+            root = root.bitmap == 0 ? root : new Node(epoch, 1, new Object[]{root});
+            rootShift += BITS;
+        }
+        root = owned(root);
+        Node node = root;
+        for (int shift = rootShift; ; shift -= BITS) {
+            int bit = 1 << ((id >>> shift) & MASK);
+            int position = Integer.bitCount(node.bitmap & (bit - 1));
+            if (shift == 0) {
+                if ((node.bitmap & bit) != 0) {
+                    node.slots[position] = band;
+                } else {
+                    insert(node, bit, position, band);
+                    size++;
+                }
+                break;
+            }
+            Node child;
+            if ((node.bitmap & bit) != 0) {
+                child = owned((Node) node.slots[position]);
+                node.slots[position] = child;
+            } else {
+                child = new Node(epoch, 0, new Object[shift == BITS ? 4 : 1]);
+                insert(node, bit, position, child);
+            }
+            node = child;
+        }
+        last = null;
+    }
+
+    /**
+     * Удаляет группу по ID.
+     *
+     * @param id идентификатор группы
+     * @return {@code true}, если группа была
+     */
+    public synchronized boolean remove(int id) {
+        if (rootShift < MAX_SHIFT && (id >>> (rootShift + BITS)) != 0) return false;
+        // путь проверяется до копирования, чтобы удаление отсутствующего ID не размораживало узлы
+        Node node = root;
+        for (int shift = rootShift; shift > 0; shift -= BITS) {
+            int bit = 1 << ((id >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) return false;
+            node = (Node) node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+        }
+        if ((node.bitmap & (1 << (id & MASK))) == 0) return false;
+        root = remove(root, rootShift, id);
+        size--;
+        last = null;
+        return true;
+    }
+
+    /**
+     * Удаляет все группы. Выданные снимки не меняются.
+     */
+    public synchronized void clear() {
+        root = new Node(epoch, 0, new Object[0]);
+        rootShift = 0;
+        size = 0;
+        last = null;
+    }
+
+    private Node remove(Node node, int shift, int id) {
+        int bit = 1 << ((id >>> shift) & MASK);
+        int position = Integer.bitCount(node.bitmap & (bit - 1));
+        node = owned(node);
+        if (shift > 0) {
+            Node child = remove((Node) node.slots[position], shift - BITS, id);
+            if (child.bitmap != 0) {
+                node.slots[position] = child;
+                return node;
+            }
+        }
+        int count = Integer.bitCount(node.bitmap);
+        System.arraycopy(node.slots, position + 1, node.slots, position, count - position - 1);
+        node.slots[count - 1] = null;
+        node.bitmap &= ~bit;
+        return node;
+    }
+
+    /**
+     * @return узел, который можно менять на месте: сам узел, если он создан в текущей эпохе, иначе его копия.
+     */
+    private Node owned(Node node) {
+        if (node.epoch == epoch) return node;
+        int count = Integer.bitCount(node.bitmap);
+        return new Node(epoch, node.bitmap, Arrays.copyOf(node.slots, Math.max(count, 1)));
+    }
+
+    private static void insert(Node node, int bit, int position, Object value) {
+        int count = Integer.bitCount(node.bitmap);
+        if (count == node.slots.length) {
+            node.slots = Arrays.copyOf(node.slots, Math.min(1 << BITS, Math.max(4, count * 2)));
+        }
+        System.arraycopy(node.slots, position, node.slots, position + 1, count - position);
+        node.slots[position] = value;
+        node.bitmap |= bit;
+    }
+}